@@ -1,8 +1,385 @@
+import entity.Player;
+import game.AllocationBudget;
 import game.Game;
+import game.SimulationCheck;
+import game.SpectatorStream;
+import game.SpectatorView;
+import game.WaveEstimator;
+import game.lockstep.LockstepSession;
+import game.lockstep.SocketTransport;
+import game.map.Level;
+import game.metrics.GameMetrics;
+import game.metrics.MetricsServer;
+import game.server.SessionManager;
+import game.simulation.PlacementSolver;
+import game.simulation.SimulationState;
+import game.simulation.WaveGenerator;
+import graphic.FrameRecorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class App {
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		// --headless [--fixed-step] [Tour:colonne:ligne ...] : partie sans affichage, avec des tours placées
+		// au départ (par exemple "Archer:3:1"), puis résumé de la partie
+		if (args.length >= 1 && args[0].equals("--headless")) {
+			System.setProperty("java.awt.headless", "true");
+			runHeadless(args);
+			return;
+		}
+		// --alloc-budget [--tick octets] [--transition octets] : vérifie les allocations
+		// par mise à jour sur des scénarios scriptés ; code de sortie 1 si un budget est dépassé
+		if (args.length >= 1 && args[0].equals("--alloc-budget")) {
+			System.setProperty("java.awt.headless", "true");
+			if (!checkAllocations(args)) {
+				System.exit(1);
+			}
+			return;
+		}
+		// --check-simulation : vérifie que la simulation reproduit la partie sur les niveaux fournis ;
+		// code de sortie 1 à la première différence
+		if (args.length >= 1 && args[0].equals("--check-simulation")) {
+			System.setProperty("java.awt.headless", "true");
+			if (!checkSimulation()) {
+				System.exit(1);
+			}
+			return;
+		}
+		// --estimate [Tour:colonne:ligne ...] : compare l'issue estimée du premier niveau avec celle
+		// d'une partie jouée jusqu'au bout, pour les tours données
+		if (args.length >= 1 && args[0].equals("--estimate")) {
+			System.setProperty("java.awt.headless", "true");
+			estimate(args);
+			return;
+		}
+		// --solve <niveau> [--beam N] [--interval s] [--money N] [--threads N] : cherche un ordre
+		// de construction qui gagne le niveau (par exemple "--solve level1")
+		if (args.length >= 2 && args[0].equals("--solve")) {
+			System.setProperty("java.awt.headless", "true");
+			solve(args);
+			return;
+		}
+		// --generate-waves <niveau> --layout Tour:colonne:ligne,... [--layout ...] [--waves N]
+		// [--win début:fin] [--loss début:fin] [--population N] [--generations N] [--spawns N]
+		// [--duration s] [--prefix nom] [--dir dossier] [--seed N] : génère des vagues d'une difficulté croissante
+		if (args.length >= 2 && args[0].equals("--generate-waves")) {
+			System.setProperty("java.awt.headless", "true");
+			generateWaves(args);
+			return;
+		}
+		// --spectate <fichier | hôte:port> : suit une partie enregistrée ou diffusée avec --broadcast
+		if (args.length >= 2 && args[0].equals("--spectate")) {
+			SpectatorView view = SpectatorView.open(args[1]);
+			view.play(Files.exists(Path.of(args[1])));
+			return;
+		}
+		// --serve <port> [--max-sessions N] [--metrics port] : héberge des parties sans affichage, une par connexion locale
+		// --serve-stdio : une partie sans affichage pilotée par l'entrée standard
+		if (args.length >= 2 && args[0].equals("--serve") || args.length >= 1 && args[0].equals("--serve-stdio")) {
+			System.setProperty("java.awt.headless", "true");
+			serve(args);
+			return;
+		}
+		
+		Game game = new Game();
+		LockstepSession lockstep = null;
+		SpectatorStream spectatorStream = null;
+		MetricsServer metricsServer = null;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			// --record <fichier.avi | dossier> : enregistre la partie (vidéo MJPEG ou images PNG)
+			if (args[i].equals("--record")) {
+				game.setFrameRecorder(FrameRecorder.open(new File(args[i + 1]), 30));
+			}
+			// --record-lossy <fichier.avi | dossier> : de même, mais perd des images plutôt que de ralentir
+			// la partie quand l'encodage ne suit pas
+			if (args[i].equals("--record-lossy")) {
+				FrameRecorder recorder = FrameRecorder.open(new File(args[i + 1]), 30);
+				recorder.setDropWhenBusy(true);
+				game.setFrameRecorder(recorder);
+			}
+			// --load <fichier> : reprend une partie sauvegardée
+			if (args[i].equals("--load")) {
+				game.setSaveToLoad(Path.of(args[i + 1]));
+			}
+			// --broadcast <fichier | port> : enregistre la partie pour des spectateurs, ou la diffuse sur ce port
+			if (args[i].equals("--broadcast")) {
+				spectatorStream = args[i + 1].matches("\\d+")
+						? SpectatorStream.serve(Integer.parseInt(args[i + 1]))
+						: SpectatorStream.toFile(Path.of(args[i + 1]));
+				game.setSpectatorStream(spectatorStream);
+			}
+			// --metrics <port> : mesures de la partie par JMX et sur http://localhost:<port>/metrics
+			if (args[i].equals("--metrics")) {
+				GameMetrics metrics = new GameMetrics();
+				metrics.registerMBean();
+				metricsServer = new MetricsServer(metrics, Integer.parseInt(args[i + 1]));
+				game.setMetrics(metrics);
+			}
+			// --host <port> : partie à deux, attend l'autre joueur sur ce port
+			if (args[i].equals("--host")) {
+				System.out.println("En attente de l'autre joueur sur le port " + args[i + 1] + "...");
+				lockstep = new LockstepSession(game, SocketTransport.host(Integer.parseInt(args[i + 1])), 0);
+			}
+			// --join <hôte:port> : partie à deux, rejoint la partie d'un autre joueur
+			if (args[i].equals("--join")) {
+				String[] address = args[i + 1].split(":");
+				lockstep = new LockstepSession(game, SocketTransport.join(address[0], Integer.parseInt(address[1])), 1);
+			}
+		}
+		if (lockstep != null) {
+			game.setLockstep(lockstep);
+		}
+		try {
+			game.launch();
+		} finally {
+			if (lockstep != null) {
+				lockstep.close();
+			}
+			if (spectatorStream != null) {
+				spectatorStream.close();
+			}
+			if (metricsServer != null) {
+				metricsServer.close();
+			}
+		}
+	}
+	
+	private static boolean checkAllocations(String[] args) {
+		long tickBudget = AllocationBudget.DEFAULT_TICK_BUDGET;
+		long transitionBudget = AllocationBudget.DEFAULT_TRANSITION_BUDGET;
+		for (int i = 1; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+				case "--tick" -> tickBudget = Long.parseLong(args[i + 1]);
+				case "--transition" -> transitionBudget = Long.parseLong(args[i + 1]);
+				default -> System.out.println("Option inconnue : " + args[i]);
+			}
+		}
+		
+		System.out.printf("Budgets : %d o par mise à jour, %d o par changement de niveau%n",
+				tickBudget, transitionBudget);
+		boolean passed = true;
+		for (AllocationBudget.Result result : new AllocationBudget(tickBudget, transitionBudget).run()) {
+			System.out.println(result);
+			passed &= result.passed();
+		}
+		return passed;
+	}
+	
+	private static boolean checkSimulation() {
+		boolean passed = true;
+		for (SimulationCheck.Result result : new SimulationCheck().run()) {
+			System.out.println(result);
+			passed &= result.passed();
+		}
+		return passed;
+	}
+	
+	private static void runHeadless(String[] args) {
+		Game game = new Game();
+		game.initHeadless();
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--fixed-step")) {
+				game.setFastForwardEnabled(false);
+				continue;
+			}
+			String[] parts = args[i].split(":");
+			if (parts.length != 3 || !game.placeTower(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]))) {
+				System.out.println("Tour non placée : " + args[i]);
+			}
+		}
+		
+		long start = System.nanoTime();
+		game.runHeadless();
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		System.out.printf("Niveau %d, vie %d, temps simulé %.1f s, %d mises à jour en %.3f s%n",
+				game.currentLevel, game.getPlayer().getHealth(), game.getSimulatedTime(),
+				game.getUpdateCount(), elapsed);
+	}
+	
+	private static void serve(String[] args) throws IOException {
+		int maxSessions = 1000;
+		MetricsServer metricsServer = null;
+		GameMetrics metrics = null;
+		for (int i = 2; i + 1 < args.length; i += 2) {
+			if (args[i].equals("--max-sessions")) {
+				maxSessions = Integer.parseInt(args[i + 1]);
+			} else if (args[i].equals("--metrics")) {
+				metrics = new GameMetrics();
+				metrics.registerMBean();
+				metricsServer = new MetricsServer(metrics, Integer.parseInt(args[i + 1]));
+			} else {
+				System.out.println("Option inconnue : " + args[i]);
+			}
+		}
+		
+		try (SessionManager manager = new SessionManager(maxSessions)) {
+			manager.setMetrics(metrics);
+			if (args[0].equals("--serve-stdio")) {
+				manager.serveStandardStreams();
+			} else {
+				System.out.println("Sessions sur le port " + args[1] + " (au plus " + maxSessions + ")");
+				manager.serve(Integer.parseInt(args[1]));
+			}
+		} finally {
+			if (metricsServer != null) {
+				metricsServer.close();
+			}
+		}
+	}
+	
+	private static void solve(String[] args) {
+		int beamWidth = 32;
+		double interval = 2.0;
+		int money = new Player().getMoney();
+		int threads = Runtime.getRuntime().availableProcessors();
+		for (int i = 2; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+				case "--beam" -> beamWidth = Integer.parseInt(args[i + 1]);
+				case "--interval" -> interval = Double.parseDouble(args[i + 1]);
+				case "--money" -> money = Integer.parseInt(args[i + 1]);
+				case "--threads" -> threads = Integer.parseInt(args[i + 1]);
+				default -> System.out.println("Option inconnue : " + args[i]);
+			}
+		}
+		
+		PlacementSolver solver = new PlacementSolver(beamWidth, interval, threads);
+		PlacementSolver.Result result = solver.solve(SimulationState.forLevel(args[1], money));
+		solver.shutdown();
+		
+		for (PlacementSolver.Placement placement : result.placements) {
+			System.out.println(placement);
+		}
+		System.out.printf("Simulation : %s, vie %d, argent %d ; %d évaluations en %.2f s (%.0f/s, %d threads)%n",
+				result.won ? "victoire" : "défaite", result.playerHealth, result.money,
+				result.evaluations, result.elapsed, result.evaluations / result.elapsed, threads);
+		
+		// L'issue annoncée est celle de l'ordre trouvé rejoué dans une vraie partie
+		PlacementSolver.Replay replay = PlacementSolver.replay(args[1], money, result.placements);
+		System.out.printf("Partie : %s, vie %d, argent %d, fin à %.1f s (%d/%d tours placées)%n",
+				replay.won ? "victoire" : "défaite", replay.playerHealth, replay.money, replay.time,
+				replay.placed, result.placements.size());
+		if (replay.won != result.won || replay.playerHealth != result.playerHealth || replay.money != result.money) {
+			System.out.println("La partie ne confirme pas la simulation");
+		}
+	}
+	
+	private static void generateWaves(String[] args) {
+		List<String> layouts = new ArrayList<>();
+		int waves = 5;
+		double[] win = {0.9, 0.3};
+		double[] loss = {0.1, 0.6};
+		int population = 500;
+		int generations = 30;
+		int spawns = 20;
+		double duration = 10;
+		String prefix = "waveGen";
+		String directory = "resources/waves";
+		long seed = 1;
+		for (int i = 2; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+				case "--layout" -> layouts.add(args[i + 1]);
+				case "--waves" -> waves = Integer.parseInt(args[i + 1]);
+				case "--win" -> win = parseRange(args[i + 1]);
+				case "--loss" -> loss = parseRange(args[i + 1]);
+				case "--population" -> population = Integer.parseInt(args[i + 1]);
+				case "--generations" -> generations = Integer.parseInt(args[i + 1]);
+				case "--spawns" -> spawns = Integer.parseInt(args[i + 1]);
+				case "--duration" -> duration = Double.parseDouble(args[i + 1]);
+				case "--prefix" -> prefix = args[i + 1];
+				case "--dir" -> directory = args[i + 1];
+				case "--seed" -> seed = Long.parseLong(args[i + 1]);
+				default -> System.out.println("Option inconnue : " + args[i]);
+			}
+		}
+		if (layouts.isEmpty()) {
+			System.out.println("Au moins une disposition de tours (--layout) est nécessaire");
+			return;
+		}
+		
+		// Argent illimité : les dispositions de référence sont placées sans contrainte de coût
+		List<SimulationState> states = new ArrayList<>();
+		for (String layout : layouts) {
+			SimulationState state = SimulationState.forLevel(args[1], Integer.MAX_VALUE / 2);
+			for (String tower : layout.split(",")) {
+				String[] parts = tower.split(":");
+				if (parts.length != 3 || !state.placeTower(state.getTowerKind(parts[0]),
+						Integer.parseInt(parts[1]), Integer.parseInt(parts[2]))) {
+					System.out.println("Tour non placée : " + tower);
+				}
+			}
+			states.add(state);
+		}
+		
+		// Courbe de difficulté : interpolation linéaire de la première à la dernière vague
+		double[] targetWin = new double[waves];
+		double[] targetLoss = new double[waves];
+		for (int i = 0; i < waves; i++) {
+			double progress = waves > 1 ? (double) i / (waves - 1) : 0;
+			targetWin[i] = win[0] + (win[1] - win[0]) * progress;
+			targetLoss[i] = loss[0] + (loss[1] - loss[0]) * progress;
+		}
+		
+		int threads = Runtime.getRuntime().availableProcessors();
+		WaveGenerator generator = new WaveGenerator(args[1], states, population, spawns, duration, seed, threads);
+		long start = System.nanoTime();
+		List<WaveGenerator.Candidate> generated = generator.generate(Path.of(directory), prefix,
+				targetWin, targetLoss, generations);
+		generator.shutdown();
+		
+		for (int i = 0; i < generated.size(); i++) {
+			System.out.printf("%s%d : victoire %.2f (visée %.2f), perte de vie %.2f (visée %.2f)%n",
+					prefix, i + 1, generated.get(i).getWinRate(), targetWin[i],
+					generated.get(i).getHealthLoss(), targetLoss[i]);
+		}
+		System.out.printf("%d vagues générées en %.1f s (%d threads)%n", generated.size(),
+				(System.nanoTime() - start) / 1e9, threads);
+	}
+	
+	private static double[] parseRange(String range) {
+		String[] parts = range.split(":");
+		return new double[]{Double.parseDouble(parts[0]), Double.parseDouble(parts[parts.length - 1])};
+	}
+	
+	private static void estimate(String[] args) {
 		Game game = new Game();
-		game.launch();
+		game.initHeadless();
+		// Même niveau et mêmes tours dans une autre partie, jouée jusqu'au bout pour vérifier l'estimation
+		Game reference = new Game();
+		reference.initHeadless(List.of(new Level(game.getLevels().get(0).getName())));
+		for (int i = 1; i < args.length; i++) {
+			String[] parts = args[i].split(":");
+			if (parts.length != 3 || !game.placeTower(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]))) {
+				System.out.println("Tour non placée : " + args[i]);
+			} else {
+				reference.placeTower(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+			}
+		}
+		
+		int repetitions = 10000;
+		WaveEstimator.Estimate estimate = game.estimateOutcome();
+		long start = System.nanoTime();
+		for (int i = 0; i < repetitions; i++) {
+			estimate = game.estimateOutcome();
+		}
+		double estimateTime = (System.nanoTime() - start) / 1e3 / repetitions;
+		
+		// Par mises à jour fixes, comme une partie jouée
+		GameMetrics counts = new GameMetrics();
+		reference.setMetrics(counts);
+		reference.setFastForwardEnabled(false);
+		start = System.nanoTime();
+		reference.runHeadless();
+		double gameTime = (System.nanoTime() - start) / 1e3;
+		
+		System.out.printf("Estimation : vie %d, %d fuites, %d ennemis tués, fin à %.1f s (%.1f µs)%n",
+				estimate.remainingHealth, estimate.leaks, estimate.kills, estimate.endTime, estimateTime);
+		System.out.printf("Partie : vie %d, %d fuites, %d ennemis tués, fin à %.1f s (%.0f µs)%n",
+				reference.getPlayer().getHealth(), counts.getLeaks(), counts.getKills(),
+				reference.getSimulatedTime(), gameTime);
 	}
-}
\ No newline at end of file
+}
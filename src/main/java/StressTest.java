@@ -0,0 +1,262 @@
+import entity.enemy.EnemyType;
+import game.Game;
+import game.SpawnInfo;
+import game.Store;
+import game.map.Level;
+import game.map.Wave;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Test de charge : une partie sans affichage sur un niveau synthétique, bien plus peuplé que
+ * les niveaux fournis, puis le débit de la simulation, la latence de ses mises à jour,
+ * le pic de mémoire et le temps passé par le ramasse-miettes.
+ * <p>
+ * Options :
+ * <pre>
+ * --rate N              ennemis par seconde de jeu (20 par défaut)
+ * --mix Type:poids,...  proportions des types d'ennemis, par exemple "Minion:3,Boss:1" (tous à égalité par défaut)
+ * --towers M            tours de chaque type du magasin, sur des cases constructibles au hasard (10 par défaut)
+ * --map nom             carte de resources/maps (par exemple "10-10"), au lieu d'une carte générée
+ * --size LxH            dimensions de la carte générée (30x30 par défaut)
+ * --duration s          durée simulée (120 s par défaut)
+ * --seed N              graine des types d'ennemis et des positions des tours (1 par défaut)
+ * </pre>
+ */
+public class StressTest {
+	private static final String LEVEL_NAME = "stress";
+
+	public static void main(String[] args) throws IOException {
+		System.setProperty("java.awt.headless", "true");
+		double rate = 20;
+		double[] weights = new double[EnemyType.values().length];
+		Arrays.fill(weights, 1);
+		int towersPerType = 10;
+		String mapName = null;
+		int width = 30;
+		int height = 30;
+		double duration = 120;
+		long seed = 1;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+				case "--rate" -> rate = Double.parseDouble(args[i + 1]);
+				case "--mix" -> weights = parseMix(args[i + 1]);
+				case "--towers" -> towersPerType = Integer.parseInt(args[i + 1]);
+				case "--map" -> mapName = args[i + 1];
+				case "--size" -> {
+					String[] size = args[i + 1].split("x");
+					width = Integer.parseInt(size[0]);
+					height = Integer.parseInt(size[1]);
+				}
+				case "--duration" -> duration = Double.parseDouble(args[i + 1]);
+				case "--seed" -> seed = Long.parseLong(args[i + 1]);
+				default -> System.out.println("Option inconnue : " + args[i]);
+			}
+		}
+
+		Random random = new Random(seed);
+		List<String> layout = mapName != null
+				? Files.readAllLines(Path.of("resources", "maps", mapName + ".mtp"))
+				: generateMap(width, height);
+		Wave wave = new Wave(LEVEL_NAME, "synthetic", generateSpawns(rate, weights, duration, random));
+		Level level = new Level(LEVEL_NAME, mapName != null ? mapName : width + "x" + height, layout, List.of(wave));
+
+		Game game = new Game();
+		game.initHeadless(List.of(level));
+		game.getPlayer().restore(Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2); // La partie dure toute la durée
+		int towers = placeTowers(game, layout, towersPerType, random);
+		System.out.printf("Carte %s (%dx%d), %d ennemis (%.1f/s), %d tours, %.0f s simulées%n",
+				level.getMapName(), layout.get(0).length(), layout.size(), wave.getSpawnSchedule().size(),
+				rate, towers, duration);
+
+		run(game, duration);
+	}
+
+	private static void run(Game game, double duration) {
+		List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				pool.resetPeakUsage();
+				heapPools.add(pool);
+			}
+		}
+		long gcTime = -totalCollectionTime();
+		long gcCount = -totalCollectionCount();
+
+		int ticks = (int) Math.ceil(duration / Game.FIXED_STEP);
+		long[] tickNanos = new long[ticks];
+		int maxEnemies = 0;
+		int done = 0;
+		long start = System.nanoTime();
+		for (; done < ticks && game.isRunning(); done++) {
+			long tickStart = System.nanoTime();
+			game.stepFixed(1);
+			tickNanos[done] = System.nanoTime() - tickStart;
+			maxEnemies = Math.max(maxEnemies, game.getEnemyCount());
+		}
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		gcTime += totalCollectionTime();
+		gcCount += totalCollectionCount();
+
+		long peakHeap = 0;
+		for (MemoryPoolMXBean pool : heapPools) {
+			peakHeap += pool.getPeakUsage().getUsed();
+		}
+		Arrays.sort(tickNanos, 0, done);
+
+		System.out.printf("%d mises à jour en %.2f s : %.0f mises à jour/s (%.1fx le temps réel)%n",
+				done, elapsed, done / elapsed, done * Game.FIXED_STEP / elapsed);
+		System.out.printf("Latence : médiane %.1f µs, p99 %.1f µs, max %.1f µs%n",
+				percentile(tickNanos, done, 0.5) / 1e3, percentile(tickNanos, done, 0.99) / 1e3,
+				done > 0 ? tickNanos[done - 1] / 1e3 : 0);
+		System.out.printf("Ennemis simultanés : %d au plus, %d tours restantes%n", maxEnemies, game.getTowerCount());
+		System.out.printf("Tas : pic %.1f Mo ; ramasse-miettes : %d ms en %d collectes%n",
+				peakHeap / 1e6, gcTime, gcCount);
+	}
+
+	/**
+	 * Génère une carte en serpentin : des lignes de route reliées alternativement à droite
+	 * et à gauche, séparées par deux lignes de cases constructibles.
+	 */
+	private static List<String> generateMap(int width, int height) {
+		if (width < 5 || height < 3) {
+			throw new IllegalArgumentException("Map must be at least 5x3");
+		}
+		char[][] tiles = new char[height][width];
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				boolean border = x == 0 || y == 0 || x == width - 1 || y == height - 1;
+				tiles[y][x] = border ? 'X' : 'C';
+			}
+		}
+		int y = 1;
+		int turn = 0;
+		while (true) {
+			Arrays.fill(tiles[y], 1, width - 1, 'R');
+			if (y + 3 > height - 2) break;
+			int column = turn % 2 == 0 ? width - 2 : 1;
+			tiles[y + 1][column] = 'R';
+			tiles[y + 2][column] = 'R';
+			y += 3;
+			turn++;
+		}
+		tiles[1][1] = 'S';
+		tiles[y][turn % 2 == 0 ? width - 2 : 1] = 'B';
+
+		List<String> lines = new ArrayList<>(height);
+		for (char[] row : tiles) {
+			lines.add(new String(row));
+		}
+		return lines;
+	}
+
+	/**
+	 * Apparitions à intervalles réguliers, de types tirés au hasard selon leurs poids.
+	 */
+	private static List<SpawnInfo> generateSpawns(double rate, double[] weights, double duration, Random random) {
+		double totalWeight = 0;
+		for (double weight : weights) {
+			totalWeight += weight;
+		}
+		if (rate <= 0 || totalWeight <= 0) {
+			throw new IllegalArgumentException("Spawn rate and enemy weights must be positive");
+		}
+
+		EnemyType[] types = EnemyType.values();
+		int count = (int) (rate * duration);
+		List<SpawnInfo> spawns = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			double pick = random.nextDouble() * totalWeight;
+			int type = 0;
+			while (type < types.length - 1 && (pick -= weights[type]) >= 0) {
+				type++;
+			}
+			spawns.add(new SpawnInfo(i / rate, types[type], i + 1, types[type].getName()));
+		}
+		return spawns;
+	}
+
+	/**
+	 * Place jusqu'à {@code perType} tours de chaque type du magasin sur des cases constructibles
+	 * tirées au hasard.
+	 *
+	 * @return Le nombre de tours placées.
+	 */
+	private static int placeTowers(Game game, List<String> layout, int perType, Random random) {
+		List<int[]> tiles = new ArrayList<>();
+		for (int row = 0; row < layout.size(); row++) {
+			for (int column = 0; column < layout.get(row).length(); column++) {
+				if (layout.get(row).charAt(column) == 'C') {
+					tiles.add(new int[] {column, row});
+				}
+			}
+		}
+		Collections.shuffle(tiles, random);
+
+		Store store = new Store();
+		int placed = 0;
+		int next = 0;
+		for (int i = 0; i < perType; i++) {
+			for (int type = 0; store.getTowerInfo(type) != null && next < tiles.size(); type++) {
+				int[] tile = tiles.get(next++);
+				if (game.placeTower(store.getTowerInfo(type).name, tile[0], tile[1])) {
+					placed++;
+				}
+			}
+		}
+		if (placed < perType * towerTypes(store)) {
+			System.out.println("Cases constructibles insuffisantes : " + placed + " tours placées");
+		}
+		return placed;
+	}
+
+	private static int towerTypes(Store store) {
+		int count = 0;
+		while (store.getTowerInfo(count) != null) {
+			count++;
+		}
+		return count;
+	}
+
+	private static double[] parseMix(String mix) {
+		double[] weights = new double[EnemyType.values().length];
+		for (String entry : mix.split(",")) {
+			String[] parts = entry.split(":");
+			EnemyType type = EnemyType.fromString(parts[0].trim(), LEVEL_NAME, "--mix", 0, mix);
+			weights[type.ordinal()] = parts.length > 1 ? Double.parseDouble(parts[1]) : 1;
+		}
+		return weights;
+	}
+
+	private static double percentile(long[] sorted, int count, double fraction) {
+		if (count == 0) return 0;
+		return sorted[Math.min(count - 1, (int) Math.ceil(fraction * count) - 1)];
+	}
+
+	private static long totalCollectionTime() {
+		long total = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			total += Math.max(0, collector.getCollectionTime());
+		}
+		return total;
+	}
+
+	private static long totalCollectionCount() {
+		long total = 0;
+		for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+			total += Math.max(0, collector.getCollectionCount());
+		}
+		return total;
+	}
+}
@@ -6,6 +6,8 @@ import game.map.Map;
 import graphic.StdDraw;
 
 import java.awt.*;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Classe abstraite représentant une entité dans le jeu.
@@ -21,6 +23,33 @@ public abstract class Entity {
     protected double range;              // Portée d'attaque
     public Map gameMap;                  // Référence à la carte sur laquelle se trouve l'entité
 
+    // Demi-taille de la zone de l'écran couverte par le dessin d'une entité (corps et barre de vie), sans zoom
+    private static final double DRAW_HALF_SIZE = 30;
+    // Hauteur de la barre de vie au-dessus de l'entité, sans zoom
+    private static final double HEALTH_BAR_OFFSET = 20;
+    // Durée d'affichage du trait d'attaque (en secondes)
+    private static final double ATTACK_FLASH_DURATION = 0.1;
+
+    /**
+     * Ordre de création des entités : ordre de placement des tours et d'apparition des ennemis.
+     */
+    public static final Comparator<Entity> CREATION_ORDER = Comparator.comparingLong(entity -> entity.sequence);
+    private static final AtomicLong NEXT_SEQUENCE = new AtomicLong();
+    private final long sequence = NEXT_SEQUENCE.getAndIncrement(); // Rang de création, pour CREATION_ORDER
+
+    private double drawnX;               // Position X à l'écran lors du dernier dessin
+    private double drawnY;               // Position Y à l'écran lors du dernier dessin
+    private double drawnHalfSize;        // Demi-taille de la zone couverte lors du dernier dessin
+    private int drawnHealth;             // Points de vie affichés lors du dernier dessin
+    private boolean drawn;               // Indique si l'entité est actuellement affichée
+
+    private double cooldownEnd;          // Date de la prochaine attaque possible (temps du niveau), tenue par le jeu
+
+    private Entity attackTarget;         // Dernière cible attaquée, pour l'animation
+    private double attackFlashEnd;       // Fin de l'affichage de l'animation (temps du niveau)
+    private boolean attackLineDrawn;     // Indique si le trait d'attaque est affiché
+    private double drawnLineX0, drawnLineY0, drawnLineX1, drawnLineY1;
+
     /**
      * Constructeur pour initialiser une entité avec ses caractéristiques spécifiques.
      *
@@ -54,17 +83,161 @@ public abstract class Entity {
      */
     public abstract void draw();
 
+    /**
+     * Retourne la position de l'entité à l'écran, convertie depuis sa position sur la grille
+     * par la vue de la carte.
+     *
+     * @return La position de l'entité en coordonnées écran.
+     */
+    protected Point2D getScreenPosition() {
+        return gameMap != null ? gameMap.getScreenPosition(position) : position;
+    }
+
+    /**
+     * Retourne le facteur d'agrandissement du dessin de l'entité, selon le zoom de la vue.
+     *
+     * @return Le zoom de la vue, ou 1 si l'entité n'est pas sur une carte.
+     */
+    protected double getDrawScale() {
+        return gameMap != null ? gameMap.getViewport().getZoom() : 1;
+    }
+
+    /**
+     * Retourne la demi-taille de la zone de l'écran couverte par le dessin de l'entité.
+     *
+     * @return La demi-taille de la zone, en coordonnées écran.
+     */
+    protected double getDrawHalfSize() {
+        return DRAW_HALF_SIZE * getDrawScale();
+    }
+
+    /**
+     * Vérifie si le dessin de l'entité apparaît au moins en partie dans la zone de jeu.
+     *
+     * @return {@code true} si l'entité est visible, sinon {@code false}.
+     */
+    public boolean isVisible() {
+        return gameMap == null || gameMap.getViewport().isVisible(position, getDrawHalfSize());
+    }
+
+    /**
+     * Marque comme à redessiner l'ancienne et la nouvelle zone de l'entité à l'écran
+     * si elle s'est déplacée ou si ses points de vie ont changé depuis le dernier dessin.
+     * Une entité hors de la vue n'est plus dessinée : seule son ancienne zone est effacée.
+     */
+    public void invalidateIfChanged() {
+        invalidateAttackLine();
+        if (!isVisible()) {
+            invalidateDrawn();
+            return;
+        }
+        Point2D screenPos = getScreenPosition();
+        double halfSize = getDrawHalfSize();
+        if (drawn && screenPos.getX() == drawnX && screenPos.getY() == drawnY
+                && halfSize == drawnHalfSize && health == drawnHealth) {
+            return;
+        }
+        invalidateDrawn();
+        StdDraw.invalidate(screenPos.getX(), screenPos.getY(), halfSize, halfSize);
+    }
+
+    /**
+     * Marque comme à redessiner la zone de l'écran où l'entité a été dessinée pour la dernière fois,
+     * par exemple lorsqu'elle disparaît du jeu.
+     */
+    public void invalidateDrawn() {
+        if (drawn) {
+            StdDraw.invalidate(drawnX, drawnY, drawnHalfSize, drawnHalfSize);
+            drawn = false;
+        }
+        if (attackLineDrawn) {
+            invalidateLine(drawnLineX0, drawnLineY0, drawnLineX1, drawnLineY1);
+            attackLineDrawn = false;
+        }
+    }
+
+    /**
+     * Marque comme à redessiner le trait d'attaque affiché et celui à afficher :
+     * le trait suit la cible, il est redessiné tant qu'il est visible.
+     */
+    private void invalidateAttackLine() {
+        if (attackLineDrawn) {
+            invalidateLine(drawnLineX0, drawnLineY0, drawnLineX1, drawnLineY1);
+        }
+        if (isAttackFlashVisible()) {
+            Point2D screenPos = getScreenPosition();
+            Point2D targetScreenPos = gameMap.getScreenPosition(attackTarget.getPosition());
+            invalidateLine(screenPos.getX(), screenPos.getY(), targetScreenPos.getX(), targetScreenPos.getY());
+        }
+    }
+
+    private static void invalidateLine(double x0, double y0, double x1, double y1) {
+        StdDraw.invalidate((x0 + x1) / 2, (y0 + y1) / 2, Math.abs(x1 - x0) / 2, Math.abs(y1 - y0) / 2);
+    }
+
+    /**
+     * Affiche un trait vers une cible pendant un court instant, dessiné avec l'entité.
+     *
+     * @param target La cible attaquée.
+     */
+    protected void startAttackFlash(Entity target) {
+        attackTarget = target;
+        attackFlashEnd = (gameMap != null ? gameMap.getTime() : 0) + ATTACK_FLASH_DURATION;
+    }
+
+    /**
+     * Indique si le trait de la dernière attaque doit encore être affiché. Sa fin est une date
+     * du niveau : aucune mise à jour de l'entité n'est nécessaire pour le faire disparaître.
+     */
+    private boolean isAttackFlashVisible() {
+        return attackTarget != null && gameMap != null && gameMap.getTime() < attackFlashEnd;
+    }
+
+    /**
+     * Dessine le trait de la dernière attaque tant qu'il doit être affiché.
+     *
+     * @param screenPos Position de l'entité à l'écran.
+     */
+    protected void drawAttackLine(Point2D screenPos) {
+        attackLineDrawn = false;
+        if (isAttackFlashVisible()) {
+            Point2D targetScreenPos = gameMap.getScreenPosition(attackTarget.getPosition());
+            StdDraw.setPenColor(element.getColor());
+            StdDraw.line(screenPos.getX(), screenPos.getY(), targetScreenPos.getX(), targetScreenPos.getY());
+            drawnLineX0 = screenPos.getX();
+            drawnLineY0 = screenPos.getY();
+            drawnLineX1 = targetScreenPos.getX();
+            drawnLineY1 = targetScreenPos.getY();
+            attackLineDrawn = true;
+        }
+    }
+
+    /**
+     * Mémorise l'état affiché par le dessin qui vient d'être fait.
+     *
+     * @param screenPos Position de l'entité à l'écran lors du dessin.
+     */
+    protected void markDrawn(Point2D screenPos) {
+        drawnX = screenPos.getX();
+        drawnY = screenPos.getY();
+        drawnHalfSize = getDrawHalfSize();
+        drawnHealth = health;
+        drawn = true;
+    }
+
     /**
      * Dessine une barre de vie au-dessus de l'entité, avec une couleur verte pour les PV restants
      * et rouge pour les PV perdus.
+     *
+     * @param screenPos Position de l'entité à l'écran.
      */
-    protected void drawHealthBar() {
+    protected void drawHealthBar(Point2D screenPos) {
         double barWidth = 35;   // Largeur fixe pour la barre de vie
         double barHeight = 5;   // Hauteur fixe pour la barre de vie
 
-        // Position au-dessus de l'entité
-        double barX = position.getX();
-        double barY = position.getY() + 20;  // Décalage fixe au-dessus de l'entité
+        // Position au-dessus de l'entité, qui suit le zoom
+        double barX = screenPos.getX();
+        double barY = screenPos.getY() + HEALTH_BAR_OFFSET * getDrawScale();
 
         // Fond rouge de la barre
         StdDraw.setPenColor(Color.RED);
@@ -116,6 +289,24 @@ public abstract class Entity {
         return health;
     }
 
+    /**
+     * Retourne les points de vie maximum de l'entité.
+     *
+     * @return Les points de vie maximum de l'entité.
+     */
+    public int getMaxHealth() {
+        return maxHealth;
+    }
+
+    /**
+     * Retourne la portée d'attaque de l'entité.
+     *
+     * @return La portée, en cases.
+     */
+    public double getRange() {
+        return range;
+    }
+
     /**
      * Retourne la puissance d'attaque de l'entité.
      *
@@ -146,6 +337,29 @@ public abstract class Entity {
         }
     }
 
+    /**
+     * Fixe les points de vie de l'entité, par exemple au chargement d'une sauvegarde.
+     *
+     * @param health Les points de vie, bornés entre 0 et le maximum.
+     */
+    public void setHealth(int health) {
+        this.health = Math.max(0, Math.min(maxHealth, health));
+    }
+
+    /**
+     * Retourne la date de la prochaine attaque possible, en temps du niveau (en secondes).
+     */
+    public double getCooldownEnd() {
+        return cooldownEnd;
+    }
+
+    /**
+     * Fixe la date de la prochaine attaque possible, en temps du niveau (en secondes).
+     */
+    public void setCooldownEnd(double cooldownEnd) {
+        this.cooldownEnd = cooldownEnd;
+    }
+
     /**
      * Définit la carte sur laquelle l'entité évolue.
      *
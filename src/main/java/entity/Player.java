@@ -1,5 +1,6 @@
 package entity;
 
+import graphic.CachedLayer;
 import graphic.StdDraw;
 import java.awt.Color;
 
@@ -17,6 +18,16 @@ public class Player {
     private static final double INFO_HALF_WIDTH = 144;
     private static final double INFO_HALF_HEIGHT = 25;
 
+    private static final Color COIN_COLOR = new Color(212, 175, 55);        // Couleur dorée
+    private static final Color COIN_CENTER_COLOR = new Color(192, 192, 192); // Couleur argentée
+    private static final Color HEART_COLOR = new Color(223, 75, 95);        // Couleur rouge du cœur
+
+    // Rendu de l'interface, refait uniquement quand la vie ou l'argent changent
+    private final CachedLayer infoLayer = new CachedLayer(INFO_CENTER_X, INFO_CENTER_Y,
+            INFO_HALF_WIDTH + 2, INFO_HALF_HEIGHT + 2);
+    private int displayedHealth = -1; // Vie affichée dans le dernier rendu
+    private int displayedMoney = -1;  // Argent affiché dans le dernier rendu
+
     /**
      * Met à jour l'état du joueur. Actuellement, aucune mise à jour n'est nécessaire.
      *
@@ -26,10 +37,30 @@ public class Player {
         // Pas de logique à mettre à jour pour l'instant
     }
 
+    /**
+     * Marque l'interface du joueur comme à redessiner si sa vie ou son argent
+     * ont changé depuis le dernier affichage.
+     */
+    public void invalidateIfChanged() {
+        if (health != displayedHealth || money != displayedMoney) {
+            displayedHealth = health;
+            displayedMoney = money;
+            infoLayer.invalidate();
+        }
+    }
+
     /**
      * Dessine l'interface du joueur, affichant sa vie et son argent.
+     * Le rendu n'est refait que si l'interface a été invalidée depuis le dernier affichage.
      */
     public void draw() {
+        infoLayer.draw(this::drawInfo);
+    }
+
+    /**
+     * Dessine le contenu de l'interface du joueur.
+     */
+    private void drawInfo() {
         // Dessine le cadre de l'interface
         StdDraw.setPenColor(Color.BLACK);
         StdDraw.rectangle(INFO_CENTER_X, INFO_CENTER_Y, INFO_HALF_WIDTH, INFO_HALF_HEIGHT);
@@ -53,9 +84,9 @@ public class Player {
      * @param radius Rayon de la pièce.
      */
     private void drawCoin(double x, double y, double radius) {
-        StdDraw.setPenColor(new Color(212, 175, 55)); // Couleur dorée
+        StdDraw.setPenColor(COIN_COLOR);
         StdDraw.filledCircle(x, y, radius);
-        StdDraw.setPenColor(new Color(192, 192, 192)); // Couleur argentée pour le centre
+        StdDraw.setPenColor(COIN_CENTER_COLOR); // Centre de la pièce
         StdDraw.filledCircle(x, y, radius * 0.7);
     }
 
@@ -67,7 +98,7 @@ public class Player {
      * @param size Taille du cœur.
      */
     private void drawHeart(double x, double y, double size) {
-        StdDraw.setPenColor(new Color(223, 75, 95)); // Couleur rouge pour le cœur
+        StdDraw.setPenColor(HEART_COLOR);
         double[] xCoords = {
                 x, x - size, x - size, x - 0.66 * size,
                 x - 0.33 * size, x, x + 0.33 * size,
@@ -121,6 +152,17 @@ public class Player {
         money += reward;
     }
 
+    /**
+     * Restaure la vie et l'argent du joueur, au chargement d'une sauvegarde.
+     *
+     * @param health Points de vie.
+     * @param money  Argent.
+     */
+    public void restore(int health, int money) {
+        this.health = health;
+        this.money = money;
+    }
+
     /**
      * Retourne les points de vie actuels du joueur.
      *
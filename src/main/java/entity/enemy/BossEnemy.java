@@ -48,13 +48,12 @@ public class BossEnemy extends Enemy {
 
     /**
      * Met à jour l'état du Boss à chaque itération de la boucle de jeu.
-     * Cette méthode gère le déplacement du Boss sur son chemin et met à jour le timer d'attaque.
+     * Cette méthode gère le déplacement du Boss sur son chemin et l'effacement du trait de la dernière attaque.
      *
      * @param deltaTime Le temps écoulé (en secondes) depuis la dernière mise à jour.
      */
     @Override
     public void update(double deltaTime) {
         moveAlongPath(deltaTime); // Déplace le Boss le long de son chemin
-        attackTimer += deltaTime; // Incrémente le timer pour gérer les attaques
     }
 }
@@ -19,7 +19,8 @@ public abstract class Enemy extends Entity {
     protected int reward;                  // Récompense donnée au joueur lors de la destruction
     protected double distanceTraveled;     // Distance totale parcourue
     protected List<Point2D> path;          // Chemin à suivre
-    protected double attackTimer = 0;      // Timer d'attaque
+    private boolean attackReady;           // Délai entre deux attaques écoulé (voir Game)
+    private boolean removed;               // Indique si l'ennemi a été retiré du jeu
 
     /**
      * Constructeur pour initialiser un ennemi avec des caractéristiques spécifiques.
@@ -51,6 +52,15 @@ public abstract class Enemy extends Entity {
         return distanceTraveled;
     }
 
+    /**
+     * Retourne la vitesse de déplacement de l'ennemi.
+     *
+     * @return La vitesse, en cases par seconde.
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
     /**
      * Déplace l'ennemi le long de son chemin en fonction du temps écoulé.
      *
@@ -62,7 +72,26 @@ public abstract class Enemy extends Entity {
 
         double distanceToMove = speed * deltaTime; // Distance à parcourir
         distanceTraveled += distanceToMove;
+        updatePosition();
+    }
+
+    /**
+     * Place l'ennemi à une distance donnée du début de son chemin, par exemple au chargement
+     * d'une sauvegarde.
+     *
+     * @param distanceTraveled La distance parcourue.
+     */
+    public void setDistanceTraveled(double distanceTraveled) {
+        this.distanceTraveled = distanceTraveled;
+        if (path != null && !path.isEmpty()) {
+            updatePosition();
+        }
+    }
 
+    /**
+     * Calcule la position sur le chemin correspondant à la distance parcourue.
+     */
+    private void updatePosition() {
         double accumulatedDistance = 0;
         Point2D previousPoint = path.get(0);
 
@@ -90,14 +119,29 @@ public abstract class Enemy extends Entity {
      */
     @Override
     public void draw() {
-        Point2D screenPos = gameMap.getScreenPosition(position); // Position à l'écran
-        Point2D originalPos = position;
-        position = screenPos;
+        Point2D screenPos = getScreenPosition(); // Position à l'écran
 
         StdDraw.setPenColor(element.getColor()); // Couleur selon l'élément
-        StdDraw.circle(screenPos.getX(), screenPos.getY(), 15); // Dessin du cercle
-        drawHealthBar(); // Dessin de la barre de vie
-        position = originalPos;
+        StdDraw.circle(screenPos.getX(), screenPos.getY(), 15 * getDrawScale()); // Dessin du cercle
+        drawHealthBar(screenPos); // Dessin de la barre de vie
+        markDrawn(screenPos);
+        drawAttackLine(screenPos); // Trait de la dernière attaque, s'il est encore affiché
+    }
+
+    /**
+     * Marque l'ennemi comme retiré du jeu (mort ou arrivé à la base).
+     */
+    public void markRemoved() {
+        removed = true;
+    }
+
+    /**
+     * Vérifie si l'ennemi a été retiré du jeu.
+     *
+     * @return {@code true} si l'ennemi a été retiré, sinon {@code false}.
+     */
+    public boolean isRemoved() {
+        return removed;
     }
 
     /**
@@ -234,30 +278,37 @@ public abstract class Enemy extends Entity {
     }
 
     /**
-     * Dessine une animation simple pour représenter une attaque.
+     * Déclenche une animation simple pour représenter une attaque : un trait vers la cible,
+     * dessiné avec l'ennemi pendant un court instant.
      *
      * @param target La cible de l'attaque.
      */
     protected void drawAttackAnimation(Tower target) {
-        StdDraw.setPenColor(element.getColor());
-        StdDraw.line(position.getX(), position.getY(),
-                     target.getPosition().getX(), target.getPosition().getY());
+        startAttackFlash(target);
     }
 
     /**
-     * Vérifie si l'ennemi peut attaquer (basé sur le timer d'attaque).
+     * Vérifie si l'ennemi peut attaquer (délai entre deux attaques écoulé).
      *
      * @return {@code true} si l'ennemi peut attaquer, sinon {@code false}.
      */
     public boolean canAttack() {
-        return attackTimer >= attackSpeed;
+        return attackReady;
     }
 
     /**
-     * Réinitialise le timer d'attaque de l'ennemi.
+     * Réinitialise le timer d'attaque de l'ennemi : il devra attendre un nouveau délai.
      */
     public void resetAttackTimer() {
-        attackTimer = 0;
+        attackReady = false;
+    }
+
+    /**
+     * Autorise la prochaine attaque, une fois le délai entre deux attaques écoulé.
+     * Le délai est décompté par l'échéancier du jeu et non à chaque mise à jour de l'ennemi.
+     */
+    public void markAttackReady() {
+        attackReady = true;
     }
 
     /**
@@ -268,6 +319,5 @@ public abstract class Enemy extends Entity {
     @Override
     public void update(double deltaTime) {
         moveAlongPath(deltaTime);
-        attackTimer += deltaTime;
     }
 }
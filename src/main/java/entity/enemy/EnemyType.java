@@ -1,6 +1,9 @@
 package entity.enemy;
 
 import exception.UnknownEnemyException;
+import game.Point2D;
+
+import java.util.List;
 
 /**
  * Enumération représentant les différents types d'ennemis dans le jeu.
@@ -28,6 +31,15 @@ public enum EnemyType {
         this.enemyClass = enemyClass;
     }
 
+    /**
+     * Retourne le nom du type d'ennemi, tel qu'écrit dans les fichiers de vague.
+     *
+     * @return Le nom (par exemple, "Earth Brute").
+     */
+    public String getName() {
+        return name;
+    }
+
     /**
      * Méthode statique pour obtenir un type d'ennemi à partir de son nom.
      *
@@ -53,4 +65,38 @@ public enum EnemyType {
                 lineContent
         );
     }
+
+    /**
+     * Crée un ennemi de ce type au début de son chemin.
+     *
+     * @param spawnPoint Le point d'apparition.
+     * @param path       Le chemin à suivre jusqu'à la base.
+     * @return Le nouvel ennemi.
+     */
+    public Enemy create(Point2D spawnPoint, List<Point2D> path) {
+        return switch (this) {
+            case MINION -> new MinionEnemy(spawnPoint, path);
+            case WIND_GROGNARD -> new WindGrognardEnemy(spawnPoint, path);
+            case FIRE_GROGNARD -> new FireGrognardEnemy(spawnPoint, path);
+            case WATER_BRUTE -> new WaterBruteEnemy(spawnPoint, path);
+            case EARTH_BRUTE -> new EarthBruteEnemy(spawnPoint, path);
+            case BOSS -> new BossEnemy(spawnPoint, path);
+        };
+    }
+
+    /**
+     * Retourne le type d'un ennemi.
+     *
+     * @param enemy L'ennemi.
+     * @return Le type dont la classe est celle de l'ennemi.
+     * @throws IllegalArgumentException Si la classe de l'ennemi ne correspond à aucun type.
+     */
+    public static EnemyType of(Enemy enemy) {
+        for (EnemyType type : values()) {
+            if (type.enemyClass == enemy.getClass()) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown enemy class: " + enemy.getClass().getName());
+    }
 }
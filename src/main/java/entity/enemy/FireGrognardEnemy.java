@@ -73,13 +73,12 @@ public class FireGrognardEnemy extends Enemy {
 
     /**
      * Met à jour l'état de l'ennemi à chaque itération de la boucle de jeu.
-     * Cette méthode gère le déplacement de l'ennemi sur son chemin et met à jour le timer d'attaque.
+     * Cette méthode gère le déplacement de l'ennemi sur son chemin et l'effacement du trait de la dernière attaque.
      *
      * @param deltaTime Temps écoulé (en secondes) depuis la dernière mise à jour.
      */
     @Override
     public void update(double deltaTime) {
         moveAlongPath(deltaTime); // Déplace l'ennemi le long de son chemin
-        attackTimer += deltaTime; // Incrémente le timer pour gérer les attaques
     }
 }
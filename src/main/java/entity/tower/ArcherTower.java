@@ -5,7 +5,6 @@ import game.Element;
 import game.Point2D;
 import graphic.StdDraw;
 import java.awt.Color;
-import java.util.Comparator;
 import java.util.List;
 
 public class ArcherTower extends Tower {
@@ -15,18 +14,8 @@ public class ArcherTower extends Tower {
 	
 	@Override
 	public Enemy selectTarget(List<Enemy> enemies) {
-		System.out.println("Nombre d'ennemis: " + enemies.size());
-		
 		// Vise l'ennemi le plus avancé à portée
-		Enemy target = enemies.stream()
-				.peek(e -> {
-					boolean inRange = isInRange(e);
-				})
-				.filter(this::isInRange)
-				.max(Comparator.comparingDouble(Enemy::getDistanceTraveled))
-				.orElse(null);
-		
-		return target;
+		return selectFurthestAlongPath(enemies);
 	}
 	
 	@Override
@@ -5,7 +5,6 @@ import game.Element;
 import game.Point2D;
 import graphic.StdDraw;
 import java.awt.Color;
-import java.util.Comparator;
 import java.util.List;
 
 public class EarthCasterTower extends Tower {
@@ -15,11 +14,15 @@ public class EarthCasterTower extends Tower {
 	
 	@Override
 	public Enemy selectTarget(List<Enemy> enemies) {
-		// Vise l'ennemi avec le plus de PV à portée
-		return enemies.stream()
-				.filter(this::isInRange)
-				.max(Comparator.comparingInt(Enemy::getHealth))
-				.orElse(null);
+		// Vise l'ennemi avec le plus de PV à portée (le premier en cas d'égalité), sans allocation :
+		// une tour sans cible refait cette recherche à chaque mise à jour
+		Enemy strongest = null;
+		for (Enemy enemy : enemies) {
+			if (isInRange(enemy) && (strongest == null || enemy.getHealth() > strongest.getHealth())) {
+				strongest = enemy;
+			}
+		}
+		return strongest;
 	}
 	
 	@Override
@@ -5,7 +5,6 @@ import game.Element;
 import game.Point2D;
 import graphic.StdDraw;
 import java.awt.Color;
-import java.util.Comparator;
 import java.util.List;
 
 public class FireCasterTower extends Tower {
@@ -15,12 +14,18 @@ public class FireCasterTower extends Tower {
 	
 	@Override
 	public Enemy selectTarget(List<Enemy> enemies) {
-		// Vise l'ennemi le plus proche à portée
-		return enemies.stream()
-				.filter(this::isInRange)
-				.min(Comparator.comparingDouble(e ->
-						position.distance(e.getPosition())))
-				.orElse(null);
+		// Vise l'ennemi le plus proche à portée (le premier en cas d'égalité), sans allocation :
+		// une tour sans cible refait cette recherche à chaque mise à jour
+		Enemy nearest = null;
+		double nearestDistance = 0;
+		for (Enemy enemy : enemies) {
+			double distance = position.distance(enemy.getPosition());
+			if (distance <= range && (nearest == null || distance < nearestDistance)) {
+				nearest = enemy;
+				nearestDistance = distance;
+			}
+		}
+		return nearest;
 	}
 	
 	
@@ -4,17 +4,28 @@ import entity.Entity;
 import entity.enemy.Enemy;
 import game.Element;
 import game.Point2D;
-import game.map.Map;
+import game.map.PathCoverage;
+import game.map.PathProgressIndex;
 import graphic.StdDraw;
 
 import java.awt.*;
+import java.util.Comparator;
 import java.util.List;
 
 public abstract class Tower extends Entity {
 	protected int cost;
 	protected double lastAttackTime;
 	
-	public double attackTimer = 0;
+	private boolean attackReady;       // Délai entre deux attaques écoulé (voir Game)
+	
+	// Temps par défaut entre deux recherches complètes de cible (en secondes)
+	public static final double DEFAULT_RETARGET_INTERVAL = 0.25;
+	
+	private double[] pathCoverage;     // Intervalles de distance parcourue à portée, ou null
+	private Enemy lockedTarget;        // Cible conservée entre deux recherches
+	private double retargetInterval = DEFAULT_RETARGET_INTERVAL;
+	private double retargetTime;       // Date de la prochaine recherche de cible (temps du niveau)
+	
 	
 	public Tower(Point2D position, int health, Element element,
 				 double attackPower, double attackSpeed, double range, int cost) {
@@ -46,86 +57,192 @@ public abstract class Tower extends Entity {
 	}
 	
 	public boolean canAttack() {
-		return attackTimer >= attackSpeed;
+		return attackReady;
 	}
 	
 	public void resetAttackTimer() {
-		attackTimer = 0;
+		attackReady = false;
+	}
+	
+	/**
+	 * Autorise la prochaine attaque, une fois le délai entre deux attaques écoulé.
+	 * Le délai est décompté par l'échéancier du jeu et non à chaque mise à jour de la tour.
+	 */
+	public void markAttackReady() {
+		attackReady = true;
 	}
 	
 	public int getCost() {
 		return cost;
 	}
 	
+	/**
+	 * Retourne les intervalles de distance parcourue à portée de la tour, ou {@code null}
+	 * si la tour n'a pas été placée sur une carte.
+	 */
+	public double[] getPathCoverage() {
+		return pathCoverage;
+	}
+	
+	/**
+	 * Fixe les portions du chemin à portée de la tour (voir {@link PathCoverage#compute}).
+	 */
+	public void setPathCoverage(double[] pathCoverage) {
+		this.pathCoverage = pathCoverage;
+	}
+	
+	/**
+	 * Retourne l'ennemi à portée le plus avancé sur le chemin. Utilise l'index des ennemis
+	 * triés par avancement quand il est disponible, sinon parcourt tous les ennemis.
+	 */
+	protected Enemy selectFurthestAlongPath(List<Enemy> enemies) {
+		PathProgressIndex progressIndex = gameMap != null ? gameMap.getProgressIndex() : null;
+		if (pathCoverage != null && progressIndex != null) {
+			return progressIndex.furthestWithin(pathCoverage);
+		}
+		return enemies.stream()
+				.filter(this::isInRange)
+				.max(Comparator.comparingDouble(Enemy::getDistanceTraveled))
+				.orElse(null);
+	}
+	
+	public double getRetargetInterval() {
+		return retargetInterval;
+	}
+	
+	/**
+	 * Fixe le temps entre deux recherches complètes de cible. Entre deux recherches, la tour
+	 * garde sa cible tant qu'elle est vivante et à portée ; 0 revient à chercher à chaque attaque.
+	 */
+	public void setRetargetInterval(double retargetInterval) {
+		if (retargetInterval < 0) {
+			throw new IllegalArgumentException("retargetInterval must not be negative");
+		}
+		this.retargetInterval = retargetInterval;
+	}
+	
 	protected double getTowerSize() {
-		// La taille de la tour sera 40% d'une case
-		return (700.0 / Math.max(10, 10)) * 0.4; // Pour une grille 10x10
+		// La demi-taille de la tour est 40% d'une case, à la taille affichée par la vue
+		return gameMap.getTileSize() * 0.4;
+	}
+	
+	@Override
+	protected double getDrawHalfSize() {
+		// Une tour peut dépasser la zone par défaut sur les cartes à grandes cases
+		return Math.max(super.getDrawHalfSize(), getTowerSize() + 2);
 	}
 	
 	@Override
 	public void draw() {
-		// Utilise la couleur de l'élément
-		StdDraw.setPenColor(element.getColor());
+		Point2D screenPos = getScreenPosition();
 		
-		// Dessine la tour comme un carré
-		double size = getTowerSize();
-		StdDraw.filledSquare(position.getX(), position.getY(), size);
-		
-		// Dessine une bordure noire
-		StdDraw.setPenColor(Color.BLACK);
-		StdDraw.square(position.getX(), position.getY(), size);
+		if (isVisible()) {
+			// Utilise la couleur de l'élément
+			StdDraw.setPenColor(element.getColor());
+			
+			// Dessine la tour comme un carré
+			double size = getTowerSize();
+			StdDraw.filledSquare(screenPos.getX(), screenPos.getY(), size);
+			
+			// Dessine une bordure noire
+			StdDraw.setPenColor(Color.BLACK);
+			StdDraw.square(screenPos.getX(), screenPos.getY(), size);
+			
+			// Dessine la barre de vie
+			drawHealthBar(screenPos);
+			markDrawn(screenPos);
+		}
 		
-		// Dessine la barre de vie
-		drawHealthBar();
+		// Dessine le trait de la dernière attaque tant qu'il est visible,
+		// même si la tour elle-même est hors de la vue
+		drawAttackLine(screenPos);
 	}
 	
-	public void attack(List<Enemy> enemies) {
+	/**
+	 * Attaque la cible choisie parmi les ennemis, si la tour est prête.
+	 *
+	 * @return Les dégâts infligés, 0 si la tour n'a pas attaqué.
+	 */
+	public int attack(List<Enemy> enemies) {
 		if (canAttack()) {
-			System.out.println("Tour peut attaquer");
-			Enemy target = selectTarget(enemies);
+			Enemy target = acquireTarget(enemies);
 			if (target != null) {
-				System.out.println("Cible trouvée");
-				if (isInRange(target)) {
-					System.out.println("Cible à portée");
-					double damage = calculateDamage(target);
-					System.out.println("Dégâts calculés: " + damage);
-					target.takeDamage((int)damage);
-					resetAttackTimer();
-					drawAttackAnimation(target);
-				} else {
-					System.out.println("Cible hors portée");
-				}
-			} else {
-				System.out.println("Pas de cible trouvée");
+				int damage = (int) calculateDamage(target);
+				target.takeDamage(damage);
+				resetAttackTimer();
+				drawAttackAnimation(target);
+				return damage;
 			}
 		}
+		return 0;
 	}
 	
-	protected void drawAttackAnimation(Enemy target) {
-		if (gameMap != null) {
-			StdDraw.setPenColor(element.getColor());
-			Point2D sourceScreenPos = gameMap.getScreenPosition(position);
-			Point2D targetScreenPos = gameMap.getScreenPosition(target.getPosition());
-			StdDraw.line(sourceScreenPos.getX(), sourceScreenPos.getY(),
-					targetScreenPos.getX(), targetScreenPos.getY());
+	/**
+	 * Retourne la cible à attaquer : la cible verrouillée tant qu'elle est vivante, à portée
+	 * et que l'intervalle de recherche n'est pas écoulé, sinon le résultat d'une nouvelle
+	 * recherche selon la politique de la tour ({@link #selectTarget}).
+	 * Sans cible, la recherche est refaite à chaque attaque possible : un ennemi qui vient
+	 * d'entrer à portée est visé aussitôt.
+	 */
+	private Enemy acquireTarget(List<Enemy> enemies) {
+		boolean targetKept = lockedTarget != null &&
+				lockedTarget.getHealth() > 0 && !lockedTarget.isRemoved() && isInRange(lockedTarget);
+		double now = getLevelTime();
+		if (targetKept && now < retargetTime) {
+			return lockedTarget;
 		}
+		
+		lockedTarget = selectTarget(enemies);
+		retargetTime = now + retargetInterval;
+		if (lockedTarget != null && !isInRange(lockedTarget)) {
+			lockedTarget = null;
+		}
+		return lockedTarget;
 	}
 	
-	@Override
-	public void update(double deltaTime) {
-		attackTimer += deltaTime;
-		//System.out.println("AttackTimer: " + attackTimer + ", AttackSpeed: " + attackSpeed + ", peut attaquer: " + (attackTimer >= attackSpeed));
-		
+	/**
+	 * Retourne la cible conservée entre deux recherches, ou {@code null}.
+	 */
+	public Enemy getLockedTarget() {
+		return lockedTarget;
 	}
 	
+	/**
+	 * Retourne la date de la prochaine recherche complète de cible (temps du niveau).
+	 */
+	public double getRetargetTime() {
+		return retargetTime;
+	}
+	
+	/**
+	 * Retourne le temps restant avant la prochaine recherche complète de cible (en secondes).
+	 */
+	public double getRetargetTimer() {
+		return Math.max(0, retargetTime - getLevelTime());
+	}
+	
+	/**
+	 * Restaure la cible conservée et le temps avant la prochaine recherche,
+	 * au chargement d'une sauvegarde. Le temps du niveau doit déjà être restauré.
+	 */
+	public void restoreTarget(Enemy lockedTarget, double retargetTimer) {
+		this.lockedTarget = lockedTarget;
+		this.retargetTime = getLevelTime() + retargetTimer;
+	}
+	
+	private double getLevelTime() {
+		return gameMap != null ? gameMap.getTime() : 0;
+	}
+	
+	protected void drawAttackAnimation(Enemy target) {
+		// Le trait est dessiné avec la tour, pendant la phase d'affichage
+		startAttackFlash(target);
+	}
+	
+	/**
+	 * Rien à décompter : les délais de la tour sont des dates du niveau, et non des minuteries.
+	 */
 	@Override
-	protected boolean isInRange(Entity target) {
-		// On convertit la position de la tour en coordonnées grille
-		Map gameMap = ((Enemy)target).getGameMap();
-		Point2D gridPos = gameMap.getGridPosition(position.getX(), position.getY());
-		
-		// Maintenant on peut calculer la distance en coordonnées grille
-		double distance = gridPos.distance(target.getPosition());
-		return distance <= range;
+	public void update(double deltaTime) {
 	}
 }
\ No newline at end of file
@@ -5,7 +5,6 @@ import game.Element;
 import game.Point2D;
 import graphic.StdDraw;
 import java.awt.Color;
-import java.util.Comparator;
 import java.util.List;
 
 public class WaterCasterTower extends Tower {
@@ -16,10 +15,7 @@ public class WaterCasterTower extends Tower {
 	@Override
 	public Enemy selectTarget(List<Enemy> enemies) {
 		// Vise l'ennemi le plus avancé à portée (comme l'Archer)
-		return enemies.stream()
-				.filter(this::isInRange)
-				.max(Comparator.comparingDouble(Enemy::getDistanceTraveled))
-				.orElse(null);
+		return selectFurthestAlongPath(enemies);
 	}
 	
 	@Override
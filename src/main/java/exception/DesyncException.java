@@ -0,0 +1,39 @@
+package exception;
+
+/**
+ * Exception levée lorsque deux clients d'une partie en lockstep n'ont plus le même état.
+ * Cette exception étend {@link GameException} et indique le tour et les empreintes
+ * qui diffèrent.
+ */
+public class DesyncException extends GameException {
+    private final int turn;            // Le tour dont les états diffèrent
+    private final long localChecksum;  // L'empreinte de l'état local
+    private final long remoteChecksum; // L'empreinte reçue de l'autre client
+
+    /**
+     * Constructeur pour créer une exception indiquant une désynchronisation.
+     *
+     * @param turn           Le tour dont les états diffèrent.
+     * @param localChecksum  L'empreinte de l'état local à ce tour.
+     * @param remoteChecksum L'empreinte de l'état de l'autre client à ce tour.
+     */
+    public DesyncException(int turn, long localChecksum, long remoteChecksum) {
+        super(String.format("Desync at turn %d: local state %016x, remote state %016x",
+                turn, localChecksum, remoteChecksum));
+        this.turn = turn;
+        this.localChecksum = localChecksum;
+        this.remoteChecksum = remoteChecksum;
+    }
+
+    public int getTurn() {
+        return turn;
+    }
+
+    public long getLocalChecksum() {
+        return localChecksum;
+    }
+
+    public long getRemoteChecksum() {
+        return remoteChecksum;
+    }
+}
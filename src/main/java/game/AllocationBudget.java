@@ -0,0 +1,220 @@
+package game;
+
+import exception.GameException;
+import game.map.Map;
+import game.map.Tile;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Vérifie que la simulation reste sous un budget d'allocations par mise à jour, sur des parties
+ * sans affichage scriptées à partir des niveaux fournis. Les octets alloués par le thread courant
+ * sont relevés avant et après chaque mise à jour ({@code ThreadMXBean.getThreadAllocatedBytes}).
+ * <p>
+ * Chaque scénario est d'abord joué quelques fois sans mesure, pour que le JIT ait compilé
+ * la simulation : les allocations éliminées par l'analyse d'échappement ne sont alors plus comptées.
+ * Les mises à jour qui changent de niveau chargent une nouvelle carte et ont leur propre budget.
+ */
+public final class AllocationBudget {
+    public static final long DEFAULT_TICK_BUDGET = 8 * 1024;         // Octets par mise à jour
+    public static final long DEFAULT_TRANSITION_BUDGET = 256 * 1024; // Octets par changement de niveau
+    private static final int WARMUP_RUNS = 3;
+    private static final int HEALTH = 1_000_000;    // Les scénarios ne doivent pas s'arrêter sur une défaite
+    private static final int MONEY = 1_000_000;
+    private static final int BOSS_LEVEL = 2;        // Niveau sur la carte 10-10
+    private static final int BOSS_WAVE = 5;         // waveBoss, dernière vague du niveau
+    private static final int BOSS_TICKS = 40 * 60;  // Toutes les apparitions, puis la fin de la vague
+    private static final int COVERAGE_TICKS = 60 * 60;
+    private static final int TRANSITION_TICKS = 20_000; // Au plus, pour atteindre le dernier niveau
+
+    // Octets par mise à jour en moyenne sur chaque scénario, environ un tiers au-dessus de la mesure :
+    // une copie de liste ou un Point2D de plus par ennemi et par mise à jour suffit à les dépasser
+    private static final long BOSS_MEAN_BUDGET = 800;
+    private static final long COVERAGE_MEAN_BUDGET = 640;
+    private static final long TRANSITION_MEAN_BUDGET = 1280;
+
+    /**
+     * Allocations relevées pendant un scénario.
+     */
+    public static final class Result {
+        public final String scenario;
+        public final int ticks;
+        public final long totalBytes;
+        public final long maxBytes;      // Plus grosse mise à jour hors changement de niveau
+        public final int worstTick;      // Indice de cette mise à jour
+        public final int overBudget;     // Mises à jour au-delà de leur budget
+        public final boolean overMean;   // Moyenne au-delà de son budget
+        public final int transitions;
+        public final long maxTransitionBytes;
+
+        Result(String scenario, int ticks, long totalBytes, long maxBytes, int worstTick, int overBudget,
+               boolean overMean, int transitions, long maxTransitionBytes) {
+            this.scenario = scenario;
+            this.ticks = ticks;
+            this.totalBytes = totalBytes;
+            this.maxBytes = maxBytes;
+            this.worstTick = worstTick;
+            this.overBudget = overBudget;
+            this.overMean = overMean;
+            this.transitions = transitions;
+            this.maxTransitionBytes = maxTransitionBytes;
+        }
+
+        public boolean passed() {
+            return overBudget == 0 && !overMean;
+        }
+
+        @Override
+        public String toString() {
+            String summary = String.format(Locale.ROOT, "%-16s %s  %d mises à jour, %.1f o/maj en moyenne, max %d o (maj %d)",
+                    scenario, passed() ? "OK   " : "ÉCHEC", ticks, (double) totalBytes / Math.max(1, ticks),
+                    maxBytes, worstTick);
+            if (transitions > 0) {
+                summary += String.format(Locale.ROOT, ", %d changements de niveau (max %d o)", transitions, maxTransitionBytes);
+            }
+            if (overMean) summary += ", moyenne au-delà du budget";
+            if (overBudget > 0) summary += ", " + overBudget + " au-delà du budget";
+            return summary;
+        }
+    }
+
+    private final long tickBudget;
+    private final long transitionBudget;
+    private final com.sun.management.ThreadMXBean threads;
+
+    /**
+     * @param tickBudget       Octets alloués au plus par une mise à jour.
+     * @param transitionBudget Octets alloués au plus par une mise à jour qui change de niveau.
+     * @throws GameException Si la JVM ne mesure pas les allocations par thread.
+     */
+    public AllocationBudget(long tickBudget, long transitionBudget) {
+        this.tickBudget = tickBudget;
+        this.transitionBudget = transitionBudget;
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean)
+                || !bean.isThreadAllocatedMemorySupported()) {
+            throw new GameException("Thread allocation measurement is not supported by this JVM");
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+        this.threads = bean;
+    }
+
+    /**
+     * Joue tous les scénarios sur le thread courant.
+     */
+    public List<Result> run() {
+        List<Result> results = new ArrayList<>();
+        results.add(run("waveBoss", AllocationBudget::bossWave, BOSS_TICKS, BOSS_MEAN_BUDGET));
+        results.add(run("10-10 couverte", AllocationBudget::fullCoverage, COVERAGE_TICKS, COVERAGE_MEAN_BUDGET));
+        results.add(run("niveaux", AllocationBudget::levelTransitions, TRANSITION_TICKS, TRANSITION_MEAN_BUDGET));
+        return results;
+    }
+
+    private Result run(String name, Supplier<Game> scenario, int ticks, long meanBudget) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            measure(name, scenario.get(), ticks, meanBudget);
+        }
+        return measure(name, scenario.get(), ticks, meanBudget);
+    }
+
+    private Result measure(String name, Game game, int ticks, long meanBudget) {
+        long total = 0;
+        long max = 0;
+        int worst = -1;
+        int over = 0;
+        int transitions = 0;
+        long maxTransition = 0;
+        int tick = 0;
+        long threadId = Thread.currentThread().threadId();
+        for (; tick < ticks && game.isRunning(); tick++) {
+            int level = game.currentLevel;
+            long before = threads.getThreadAllocatedBytes(threadId);
+            game.stepFixed(1);
+            long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+            total += bytes;
+            if (game.currentLevel != level && game.isRunning()) {
+                transitions++;
+                maxTransition = Math.max(maxTransition, bytes);
+                if (bytes > transitionBudget) over++;
+            } else {
+                if (bytes > max) {
+                    max = bytes;
+                    worst = tick;
+                }
+                if (bytes > tickBudget) over++;
+            }
+        }
+        return new Result(name, tick, total, max, worst, over, total > meanBudget * Math.max(1, tick),
+                transitions, maxTransition);
+    }
+
+    /**
+     * Dernière vague du troisième niveau : la salve d'apparitions de waveBoss, face à quelques tours.
+     */
+    private static Game bossWave() {
+        Game game = newGame();
+        game.restoreLevel(BOSS_LEVEL, 0);
+        game.getWaveManager().restore(BOSS_WAVE, 0, false, 0, 0, List.of());
+        game.getPlayer().restore(HEALTH, MONEY);
+        fillConstructible(game, 2);
+        return game;
+    }
+
+    /**
+     * Troisième niveau, toutes les cases constructibles de la carte 10-10 occupées par une tour.
+     */
+    private static Game fullCoverage() {
+        Game game = newGame();
+        game.restoreLevel(BOSS_LEVEL, 0);
+        game.getPlayer().restore(HEALTH, MONEY);
+        fillConstructible(game, Integer.MAX_VALUE);
+        return game;
+    }
+
+    /**
+     * Partie complète depuis le premier niveau, le premier couvert de tours pour le finir vite :
+     * chaque fin de niveau passe par {@code Game.loadNextLevel}.
+     */
+    private static Game levelTransitions() {
+        Game game = newGame();
+        game.getPlayer().restore(HEALTH, MONEY);
+        fillConstructible(game, Integer.MAX_VALUE);
+        return game;
+    }
+
+    private static Game newGame() {
+        Game game = new Game();
+        game.initHeadless();
+        return game;
+    }
+
+    /**
+     * Place des tours sur les cases constructibles des premières lignes qui en ont, en alternant
+     * les types de la boutique.
+     *
+     * @param rows Nombre de lignes à occuper.
+     */
+    private static void fillConstructible(Game game, int rows) {
+        Map map = game.getMap();
+        Store store = game.getStore();
+        int towerTypes = 0;
+        while (store.getTowerInfo(towerTypes) != null) {
+            towerTypes++;
+        }
+        int placed = 0;
+        for (int row = 0; row < map.getHeight() && rows > 0; row++) {
+            boolean used = false;
+            for (int column = 0; column < map.getWidth(); column++) {
+                Tile tile = map.getTileAt(column, row);
+                if (tile != null && tile.isConstructible()) {
+                    game.placeTower(store.getTowerInfo(placed++ % towerTypes).name, column, row);
+                    used = true;
+                }
+            }
+            if (used) rows--;
+        }
+    }
+}
@@ -44,4 +44,24 @@ public enum Element {
     public Color getColor() {
         return color;
     }
+
+    /**
+     * Retourne le multiplicateur des dégâts infligés par un élément à un autre, selon le cycle
+     * FEU < EAU < AIR < TERRE < FEU : 1.5 contre l'élément vulnérable, 0.5 contre l'élément résistant.
+     *
+     * @param attacker L'élément de l'attaquant.
+     * @param target   L'élément de la cible.
+     * @return Le multiplicateur des dégâts.
+     */
+    public static double damageMultiplier(Element attacker, Element target) {
+        if (attacker == FIRE && target == WATER || attacker == WATER && target == AIR ||
+                attacker == AIR && target == EARTH || attacker == EARTH && target == FIRE) {
+            return 0.5; // Résistance
+        }
+        if (attacker == FIRE && target == EARTH || attacker == EARTH && target == AIR ||
+                attacker == AIR && target == WATER || attacker == WATER && target == FIRE) {
+            return 1.5; // Vulnérabilité
+        }
+        return 1.0;
+    }
 }
@@ -0,0 +1,123 @@
+package game;
+
+import entity.enemy.Enemy;
+import entity.tower.Tower;
+import game.map.Map;
+import game.map.PathCoverage;
+import game.map.WaveManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Calcul de la date du prochain événement intéressant d'une partie sans affichage :
+ * prochaine apparition d'ennemi, entrée d'un ennemi à portée d'une tour (ou d'une tour à portée
+ * d'un ennemi), ou arrivée d'un ennemi à la base. Entre deux événements, les ennemis ne font
+ * qu'avancer en ligne droite sur le chemin : la simulation peut y sauter en une seule mise à jour.
+ */
+public class FastForward {
+    private Map map;                 // Carte pour laquelle les portions à portée sont calculées
+    private int towerVersion;        // Version des tours lors du calcul
+    private double pathLength;       // Longueur totale du chemin
+    // Pour chaque portée d'ennemi : portions du chemin où un combat est possible, à plat
+    // (début0, fin0, début1, fin1...), triées et disjointes
+    private final List<Double> ranges = new ArrayList<>();
+    private final List<double[]> contactIntervals = new ArrayList<>();
+
+    /**
+     * Retourne le temps pendant lequel la simulation peut avancer sans qu'aucun combat,
+     * apparition ou arrivée à la base ne se produise.
+     *
+     * @param waveManager Le gestionnaire des vagues du niveau en cours.
+     * @param map         La carte du niveau en cours.
+     * @return Le temps jusqu'au prochain événement (en secondes) : 0 si un ennemi est déjà à portée
+     *         ou si un événement est en cours, l'infini si rien n'est prévu.
+     */
+    public double timeToNextEvent(WaveManager waveManager, Map map) {
+        if (map != this.map || map.getTowerVersion() != towerVersion) {
+            reset(map);
+        }
+
+        double next = waveManager.getTimeToNextSpawn();
+        for (Enemy enemy : waveManager.getActiveEnemies()) {
+            if (next <= 0) break;
+            if (enemy.getHealth() <= 0 || enemy.getSpeed() <= 0) return 0;
+
+            double distance = enemy.getDistanceTraveled();
+            double remaining = pathLength - distance;
+            if (remaining <= 0) return 0;
+
+            double toContact = distanceToContact(contactIntervalsFor(enemy.getRange()), distance);
+            next = Math.min(next, Math.min(remaining, toContact) / enemy.getSpeed());
+        }
+        return next;
+    }
+
+    private void reset(Map map) {
+        this.map = map;
+        this.towerVersion = map.getTowerVersion();
+        this.pathLength = 0;
+        for (int i = 1; i < map.getPath().size(); i++) {
+            pathLength += map.getPath().get(i - 1).distance(map.getPath().get(i));
+        }
+        ranges.clear();
+        contactIntervals.clear();
+    }
+
+    /**
+     * Retourne les portions du chemin où un ennemi de portée donnée est à portée d'une tour,
+     * ou une tour à sa portée : à une distance au plus égale à la plus grande des deux portées.
+     */
+    private double[] contactIntervalsFor(double enemyRange) {
+        // Peu de portées différentes : une recherche linéaire suffit
+        for (int i = 0; i < ranges.size(); i++) {
+            if (ranges.get(i) == enemyRange) {
+                return contactIntervals.get(i);
+            }
+        }
+
+        List<double[]> bounds = new ArrayList<>();
+        for (Tower tower : map.getTowers()) {
+            double radius = Math.max(tower.getRange(), enemyRange);
+            double[] coverage = PathCoverage.compute(map.getPath(), tower.getPosition(), radius);
+            for (int i = 0; i < coverage.length; i += 2) {
+                bounds.add(new double[]{coverage[i], coverage[i + 1]});
+            }
+        }
+        bounds.sort((a, b) -> Double.compare(a[0], b[0]));
+
+        // Fusion des intervalles qui se chevauchent
+        double[] merged = new double[bounds.size() * 2];
+        int size = 0;
+        for (double[] interval : bounds) {
+            if (size > 0 && interval[0] <= merged[size - 1]) {
+                merged[size - 1] = Math.max(merged[size - 1], interval[1]);
+            } else {
+                merged[size++] = interval[0];
+                merged[size++] = interval[1];
+            }
+        }
+        merged = Arrays.copyOf(merged, size);
+
+        ranges.add(enemyRange);
+        contactIntervals.add(merged);
+        return merged;
+    }
+
+    /**
+     * Retourne la distance à parcourir avant d'entrer dans une des portions, 0 si la distance
+     * parcourue est déjà dans l'une d'elles, l'infini s'il n'y en a plus aucune devant.
+     */
+    private static double distanceToContact(double[] intervals, double distance) {
+        for (int i = 0; i < intervals.length; i += 2) {
+            if (distance < intervals[i]) {
+                return intervals[i] - distance;
+            }
+            if (distance <= intervals[i + 1]) {
+                return 0;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+}
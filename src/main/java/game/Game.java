@@ -1,23 +1,42 @@
 package game;
 
+import entity.Entity;
 import entity.Player;
 import entity.enemy.Enemy;
 import entity.tower.ArcherTower;
 import entity.tower.Tower;
 import exception.GameException;
+import game.map.CrowdRenderer;
 import game.map.Level;
 import game.map.Map;
+import game.map.PlacementHeatmap;
 import game.map.Tile;
+import game.map.TowerCoverage;
+import game.map.Viewport;
 import game.map.WaveManager;
+import game.jfr.GameTickEvent;
+import game.jfr.TowerAttackBurstEvent;
+import game.metrics.GameMetrics;
+import game.lockstep.LockstepSession;
+import game.lockstep.PlayerAction;
+import game.simulation.SimulationState;
+import graphic.FrameRecorder;
+import graphic.InputQueue;
 import graphic.StdDraw;
 import game.Store.TowerInfo;
 
 import java.awt.*;
+import java.awt.event.MouseEvent;
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Classe principale du jeu qui gère la boucle de jeu, les niveaux, la carte, les ennemis et les tours.
@@ -33,6 +52,86 @@ public class Game {
     public int currentLevel = 0; // Indice du niveau actuel
     private Tile selectedTile; // Case sélectionnée par le joueur
     private TowerInfo selectedTowerType; // Type de tour sélectionné
+    private Tile previewTile; // Case sur laquelle l'aperçu de placement a été dessiné
+    private TowerInfo previewTowerType; // Type de tour de l'aperçu dessiné
+    private int drawnHeatmapVersion; // Version de l'intérêt des cases lors du dernier dessin de l'aperçu
+    private int drawnViewportVersion; // Version de la vue lors du dernier dessin de la carte
+    private boolean isPanning; // Indique si la vue est en cours de déplacement (clic droit maintenu)
+    private double cursorX; // Position de la souris d'après les événements traités
+    private double cursorY;
+
+    // Délais entre deux attaques : chaque tour et chaque ennemi est planifié à la date de sa prochaine
+    // attaque possible, puis ne participe aux phases d'attaque qu'une fois cette date atteinte.
+    // Les attaques d'une même mise à jour suivent l'ordre de placement des tours et d'apparition
+    // des ennemis, et non l'ordre quelconque de l'échéancier : il ne dépend que de la partie
+    private TimingWheel<Entity> cooldowns = new TimingWheel<>(COOLDOWN_RESOLUTION);
+    private final Set<Tower> readyTowers = new TreeSet<>(Entity.CREATION_ORDER);   // Tours prêtes à attaquer
+    private final Set<Enemy> readyEnemies = new TreeSet<>(Entity.CREATION_ORDER);  // Ennemis prêts à attaquer
+
+    private FrameRecorder frameRecorder; // Enregistrement des images affichées, ou null
+
+    // Pause (en millisecondes) d'une itération où rien n'a changé à l'écran
+    private static final int IDLE_FRAME_DELAY = 10;
+
+    // Facteur de zoom appliqué par cran de la molette
+    private static final double ZOOM_STEP = 1.25;
+
+    // Précision des délais entre deux attaques (en secondes)
+    public static final double COOLDOWN_RESOLUTION = 0.01;
+
+    // Vitesse de jeu : la simulation avance par sous-étapes de durée fixe, plusieurs fois par image
+    // en accéléré ; seul l'état après la dernière sous-étape est affiché
+    private static final int[] SPEEDS = {1, 2, 4, 8, 16};
+    public static final double FIXED_STEP = 1.0 / 60;        // Durée simulée d'une sous-étape (en secondes)
+    private static final double SIMULATION_BUDGET = 0.012;   // Temps réel consacré aux sous-étapes d'une image
+    private static final int MAX_SUB_STEPS = 64;              // Sous-étapes par image, au plus
+    private static final double SPEED_X = 760;                // Position de l'indicateur de vitesse
+    private static final double SPEED_Y = 690;
+    private int speedIndex; // Indice de la vitesse choisie dans SPEEDS
+    private int drawnSpeed; // Vitesse affichée lors du dernier dessin
+    private double stepAccumulator; // Temps simulé restant à rattraper (en secondes)
+    private double averageStepCost; // Durée moyenne d'une sous-étape (en secondes), 0 avant la première mesure
+    private int maxSubSteps = MAX_SUB_STEPS; // Sous-étapes par image que le budget permet
+
+    // Partie sans affichage : sauts entre événements et statistiques
+    private final FastForward fastForward = new FastForward();
+    private boolean isFastForwardEnabled = true;
+    private boolean isHeadless;   // Aucun accès à l'affichage, pour faire tourner plusieurs parties à la fois
+    private double headlessAccumulator; // Temps simulé restant à rattraper par advanceHeadless (en secondes)
+    private double simulatedTime; // Temps simulé depuis le début de la partie (en secondes)
+    private long updateCount;     // Nombre de mises à jour de la simulation
+
+    // Prévision de l'issue du niveau, affichée à côté de la vitesse et mise à jour à chaque image
+    private static final double FORECAST_X = 900;
+    private final WaveEstimator estimator = new WaveEstimator();
+    private String forecast = "";      // Prévision à afficher
+    private String drawnForecast = ""; // Prévision affichée lors du dernier dessin
+    private Tower forecastTower;       // Tour de l'aperçu de placement, pour la prévision
+    private Tile forecastTile;         // Case et type de forecastTower
+    private TowerInfo forecastTowerType;
+    // Entrées de la dernière prévision : elle n'est recalculée que si l'une d'elles a changé
+    private Map forecastMap;
+    private int forecastTowerVersion;
+    private int forecastMoney;
+    private int forecastHealth;
+    private int forecastWave;
+    private Tile forecastHoveredTile;
+    private TowerInfo forecastSelection;
+
+    // Sauvegardes : automatique à chaque changement de vague, rapide avec la touche 's'
+    private static final Path AUTOSAVE_FILE = Path.of("saves", "autosave.sav");
+    private static final Path QUICKSAVE_FILE = Path.of("saves", "quicksave.sav");
+    private boolean isAutosaveEnabled = true;
+    private int autosavedWaveIndex; // Vague lors de la dernière sauvegarde automatique
+    private Path saveToLoad;        // Sauvegarde à charger au lancement, ou null
+
+    // Partie à deux en lockstep : la simulation n'avance que tour par tour, avec l'autre joueur
+    private static final int MAX_TURN_LAG = 3; // Tours de retard rattrapés au plus, après une attente
+    private LockstepSession lockstep;          // null en partie solo
+
+    private SpectatorStream spectatorStream;   // Flux envoyé aux spectateurs après chaque mise à jour, ou null
+    private GameMetrics metrics;               // Mesures de la partie, ou null
+    private GameMetrics.GameState metricsState; // Jauges de la partie dans ces mesures
 
     /**
      * Constructeur pour initialiser les composants du jeu.
@@ -67,12 +166,360 @@ public class Game {
         return levels;
     }
 
+    /**
+     * Prépare une partie sans affichage ni entrées, à lancer avec {@link #runHeadless()}
+     * après avoir éventuellement placé des tours avec {@link #placeTower}.
+     */
+    public void initHeadless() {
+        isHeadless = true;
+        isAutosaveEnabled = false;
+        loadGame();
+    }
+
+    /**
+     * Prépare une partie sans affichage ni entrées sur des niveaux donnés, au lieu de ceux
+     * du fichier de jeu (par exemple des niveaux synthétiques pour un test de charge).
+     *
+     * @param levels Les niveaux, dans l'ordre.
+     */
+    public void initHeadless(List<Level> levels) {
+        isHeadless = true;
+        isAutosaveEnabled = false;
+        this.levels.addAll(levels);
+        startGame();
+    }
+
+    /**
+     * Achète et place une tour sur la carte du niveau en cours, sans passer par la souris.
+     *
+     * @param towerName Le nom de la tour dans la boutique (par exemple "Archer").
+     * @param column    La colonne de la case.
+     * @param row       La ligne de la case.
+     * @return {@code true} si la tour a été placée, {@code false} si la case n'est pas constructible
+     *         ou si le joueur n'a pas assez d'argent.
+     */
+    public boolean placeTower(String towerName, int column, int row) {
+        TowerInfo towerInfo = null;
+        for (int i = 0; store.getTowerInfo(i) != null; i++) {
+            if (store.getTowerInfo(i).name.equals(towerName)) {
+                towerInfo = store.getTowerInfo(i);
+            }
+        }
+        if (towerInfo == null) {
+            throw new IllegalArgumentException("Unknown tower type: " + towerName);
+        }
+        return buildTower(towerInfo, map.getTileAt(column, row));
+    }
+
+    /**
+     * Déroule la partie jusqu'à la fin, sans affichage. Les périodes où les ennemis ne font
+     * qu'avancer, sans combat, apparition ni arrivée à la base, sont franchies en une seule
+     * mise à jour (voir {@link FastForward}) ; le reste est simulé par sous-étapes fixes.
+     */
+    public void runHeadless() {
+        while (isRunning) {
+            double timeToNextEvent = isFastForwardEnabled
+                    ? fastForward.timeToNextEvent(waveManager, map) : 0;
+            if (timeToNextEvent > FIXED_STEP && timeToNextEvent != Double.POSITIVE_INFINITY) {
+                update(timeToNextEvent);
+            } else {
+                update(FIXED_STEP);
+            }
+        }
+    }
+
+    /**
+     * Avance une partie sans affichage d'une durée simulée, par mises à jour de durée fixe ;
+     * la fraction de mise à jour restante est reportée à l'appel suivant.
+     *
+     * @param duration La durée simulée (en secondes).
+     * @return {@code true} si la partie continue, {@code false} si elle est terminée.
+     */
+    public boolean advanceHeadless(double duration) {
+        headlessAccumulator += duration;
+        while (isRunning && headlessAccumulator >= FIXED_STEP) {
+            update(FIXED_STEP);
+            headlessAccumulator -= FIXED_STEP;
+        }
+        return isRunning;
+    }
+
+    /**
+     * Avance la partie d'un nombre de mises à jour de durée fixe, sans affichage ni entrées :
+     * les mêmes appels donnent le même état sur toutes les machines.
+     *
+     * @param count Le nombre de mises à jour.
+     */
+    public void stepFixed(int count) {
+        for (int i = 0; i < count && isRunning; i++) {
+            update(FIXED_STEP);
+        }
+    }
+
+    /**
+     * Retourne une empreinte de l'état de la simulation : temps, joueur, vagues, ennemis et tours.
+     * Deux parties qui ont reçu les mêmes actions aux mêmes mises à jour ont la même empreinte.
+     */
+    public long getStateChecksum() {
+        long hash = 17;
+        hash = hash * 31 + Double.doubleToLongBits(simulatedTime);
+        hash = hash * 31 + currentLevel;
+        hash = hash * 31 + player.getHealth();
+        hash = hash * 31 + player.getMoney();
+        hash = hash * 31 + waveManager.getCurrentWaveIndex();
+        hash = hash * 31 + waveManager.getCurrentSpawnIndex();
+        hash = hash * 31 + Double.doubleToLongBits(waveManager.getTime());
+        for (Enemy enemy : waveManager.getActiveEnemies()) {
+            hash = hash * 31 + Double.doubleToLongBits(enemy.getDistanceTraveled());
+            hash = hash * 31 + enemy.getHealth();
+            hash = hash * 31 + Double.doubleToLongBits(enemy.getCooldownEnd());
+        }
+        for (Tower tower : map.getTowers()) {
+            hash = hash * 31 + Double.doubleToLongBits(tower.getPosition().getX());
+            hash = hash * 31 + Double.doubleToLongBits(tower.getPosition().getY());
+            hash = hash * 31 + tower.getHealth();
+            hash = hash * 31 + Double.doubleToLongBits(tower.getCooldownEnd());
+        }
+        return hash;
+    }
+
+    /**
+     * Joue la partie à deux en lockstep : les placements de tours passent par la session et la
+     * simulation avance tour par tour, à vitesse normale. Le chargement de sauvegardes et
+     * la sauvegarde automatique sont désactivés, car ils feraient diverger les deux parties.
+     *
+     * @param lockstep La session reliée à l'autre joueur.
+     */
+    public void setLockstep(LockstepSession lockstep) {
+        this.lockstep = lockstep;
+        this.isAutosaveEnabled = false;
+        this.speedIndex = 0;
+    }
+
+    /**
+     * Envoie l'état de la partie aux spectateurs après chaque mise à jour.
+     *
+     * @param spectatorStream Le flux, à fermer par l'appelant à la fin de la partie.
+     */
+    public void setSpectatorStream(SpectatorStream spectatorStream) {
+        this.spectatorStream = spectatorStream;
+    }
+
+    /**
+     * Relève des mesures de la partie (apparitions, morts, dégâts, durée des mises à jour
+     * et des images) pendant qu'elle tourne.
+     *
+     * @param metrics Les mesures, éventuellement partagées avec d'autres parties.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        setMetrics(metrics, null);
+    }
+
+    /**
+     * Relève des mesures de la partie, partagées avec d'autres parties : les jauges de celle-ci
+     * sont publiées avec l'étiquette donnée. {@code null} arrête le relevé.
+     *
+     * @param metrics Les mesures, ou {@code null}.
+     * @param session L'étiquette de la partie (numéro de session), ou {@code null} pour une partie seule.
+     */
+    public void setMetrics(GameMetrics metrics, String session) {
+        if (this.metrics != null) {
+            this.metrics.closeGame(metricsState);
+        }
+        this.metrics = metrics;
+        this.metricsState = metrics != null ? metrics.openGame(session) : null;
+    }
+
+    /**
+     * Indique si la partie est en cours, ni perdue ni terminée.
+     */
+    public boolean isRunning() {
+        return isRunning;
+    }
+
+    /**
+     * Retourne l'indice de la vague en cours dans le niveau en cours.
+     */
+    public int getWaveIndex() {
+        return waveManager.getCurrentWaveIndex();
+    }
+
+    /**
+     * Retourne le nombre d'ennemis sur le chemin.
+     */
+    public int getEnemyCount() {
+        return waveManager.getActiveEnemies().size();
+    }
+
+    /**
+     * Retourne le nombre de tours placées sur la carte.
+     */
+    public int getTowerCount() {
+        return map.getTowers().size();
+    }
+
+    /**
+     * Active ou désactive les sauts entre événements de {@link #runHeadless()} (activés par défaut),
+     * par exemple pour comparer avec une simulation par sous-étapes fixes uniquement.
+     */
+    public void setFastForwardEnabled(boolean enabled) {
+        this.isFastForwardEnabled = enabled;
+    }
+
+    /**
+     * Retourne le temps simulé depuis le début de la partie (en secondes).
+     */
+    public double getSimulatedTime() {
+        return simulatedTime;
+    }
+
+    /**
+     * Retourne le nombre de mises à jour de la simulation depuis le début de la partie.
+     */
+    public long getUpdateCount() {
+        return updateCount;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    /**
+     * Relève l'état du niveau en cours dans un état de simulation indépendant, que l'on peut
+     * copier et faire avancer sans toucher à la partie. À appeler depuis la boucle de jeu.
+     */
+    public SimulationState captureSimulation() {
+        return SimulationState.capture(map, waveManager, player, store);
+    }
+
+    /**
+     * Estime l'issue des vagues restantes du niveau en cours avec les tours déjà placées,
+     * sans simuler ({@link WaveEstimator}).
+     */
+    public WaveEstimator.Estimate estimateOutcome() {
+        return estimator.estimate(map, waveManager, player.getHealth(), null);
+    }
+
+    /**
+     * Charge une sauvegarde au lancement de la partie ({@link #launch()}), au lieu du premier niveau.
+     *
+     * @param file Le fichier de sauvegarde.
+     */
+    public void setSaveToLoad(Path file) {
+        this.saveToLoad = file;
+    }
+
+    /**
+     * Sauvegarde la partie. L'état est copié immédiatement ; l'écriture du fichier se fait
+     * en arrière-plan.
+     *
+     * @param file Le fichier de sauvegarde.
+     */
+    public void save(Path file) {
+        SaveGame.writeAsync(SaveGame.encode(this), file);
+    }
+
+    /**
+     * Remplace la partie en cours par une sauvegarde.
+     *
+     * @param file Le fichier de sauvegarde.
+     * @throws GameException Si la sauvegarde ne peut pas être lue.
+     */
+    public void load(Path file) {
+        SaveGame.decode(this, SaveGame.read(file));
+        autosavedWaveIndex = waveManager.getCurrentWaveIndex();
+    }
+
+    Map getMap() {
+        return map;
+    }
+
+    WaveManager getWaveManager() {
+        return waveManager;
+    }
+
+    Store getStore() {
+        return store;
+    }
+
+    /**
+     * Recharge un niveau depuis ses fichiers, avant d'y restaurer l'état d'une sauvegarde.
+     */
+    void restoreLevel(int level, double simulatedTime) {
+        if (level < 0 || level >= levels.size()) {
+            throw new GameException("Invalid level in save file: " + level);
+        }
+        // Les vagues déjà jouées sont consommées : le niveau est relu pour repartir de vagues neuves
+        levels.set(level, new Level(levels.get(level).getName()));
+        currentLevel = level;
+        loadNextLevel();
+        this.simulatedTime = simulatedTime;
+    }
+
+    /**
+     * Replace une tour restaurée sur sa case.
+     */
+    void restoreTower(Tower tower, boolean ready) {
+        Tile tile = map.getTileAt((int) tower.getPosition().getX(), (int) tower.getPosition().getY());
+        if (tile == null || !map.canPlaceTower(tile)) {
+            throw new GameException("Invalid tower position in save file: " + tower.getPosition());
+        }
+        tile.setTower(tower);
+        map.addTower(tower);
+        restoreCooldown(tower, ready);
+    }
+
+    /**
+     * Replanifie la prochaine attaque d'une tour ou d'un ennemi restauré, à la date sauvegardée.
+     */
+    void restoreCooldown(Entity entity, boolean ready) {
+        cooldowns.advance(waveManager.getTime(), this::onCooldownElapsed);
+        if (ready) {
+            onCooldownElapsed(entity);
+        } else {
+            cooldowns.schedule(entity, entity.getCooldownEnd());
+        }
+    }
+
+    /**
+     * Enregistre les images affichées pendant la partie.
+     * L'enregistrement est terminé à la fin de la partie ou à la fermeture du programme.
+     *
+     * @param frameRecorder L'enregistrement à alimenter.
+     */
+    public void setFrameRecorder(FrameRecorder frameRecorder) {
+        this.frameRecorder = frameRecorder;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::stopRecording));
+    }
+
+    /**
+     * Termine l'enregistrement en cours, s'il y en a un.
+     */
+    private synchronized void stopRecording() {
+        if (frameRecorder == null) return;
+
+        try {
+            frameRecorder.close();
+            if (frameRecorder.getDroppedFrames() > 0) {
+                System.out.println("Enregistrement : " + frameRecorder.getDroppedFrames()
+                        + " images non capturées, remplacées par les suivantes");
+            }
+        } catch (IOException e) {
+            System.out.println("Échec de l'enregistrement : " + e.getMessage());
+        }
+        frameRecorder = null;
+    }
+
     /**
      * Lance le jeu en initialisant les composants et en démarrant la boucle principale.
      */
     public void launch() {
         init();
-        gameLoop();
+        try {
+            gameLoop();
+        } finally {
+            stopRecording();
+        }
     }
 
     /**
@@ -84,11 +531,28 @@ public class Game {
         StdDraw.setYscale(-10, 710);
         StdDraw.enableDoubleBuffering();
 
-        isRunning = true;
+        loadGame();
+        if (saveToLoad != null) {
+            load(saveToLoad);
+        }
+    }
 
+    /**
+     * Charge les niveaux, la carte et les vagues du premier niveau, le joueur et la boutique.
+     */
+    private void loadGame() {
         loadGameFile();
-        
-        map = new Map(levels.get(currentLevel).getName(), levels.get(currentLevel).getMapName());
+        startGame();
+    }
+
+    /**
+     * Commence la partie au premier niveau chargé.
+     */
+    private void startGame() {
+        isRunning = true;
+        autosavedWaveIndex = -1; // Sauvegarde automatique au début du premier niveau
+
+        map = levels.get(currentLevel).createMap();
         map.loadMap();
 
         waveManager.setWaves(levels.get(currentLevel).getWaves(), map);
@@ -102,43 +566,180 @@ public class Game {
      */
     private void gameLoop() {
         long previousTime = System.currentTimeMillis();
+        double elapsedTime = 0;
 
         while (isRunning) {
             long currentTime = System.currentTimeMillis();
             double deltaTime = (currentTime - previousTime) / 1000.0;
             previousTime = currentTime;
+            elapsedTime += deltaTime;
+
+            simulate(deltaTime);
+            handleInput();
+            invalidateChangedRegions();
+
+            // Ne redessine que les zones modifiées, et rien du tout si la scène n'a pas changé
+            if (StdDraw.isDirty()) {
+                long renderStart = System.nanoTime();
+                StdDraw.beginFrame();
+                draw();
+                StdDraw.endFrame();
+                if (metrics != null) {
+                    metrics.recordRender(System.nanoTime() - renderStart);
+                }
+            } else {
+                StdDraw.pause(IDLE_FRAME_DELAY);
+            }
+
+            FrameRecorder recorder = frameRecorder;
+            if (recorder != null) {
+                recorder.capture(elapsedTime);
+            }
+        }
+    }
+
+    /**
+     * Fait avancer la simulation du temps réel écoulé multiplié par la vitesse de jeu, en sous-étapes
+     * de durée fixe : un grand écart entre deux images ne fait ni sauter une tour à un ennemi,
+     * ni retarder les apparitions. Le nombre de sous-étapes par image est limité par le temps
+     * qu'elles prennent : si la machine ne suit pas, le retard est abandonné (le jeu ralentit)
+     * au lieu de s'accumuler d'une image à l'autre.
+     *
+     * @param deltaTime Temps réel écoulé depuis la dernière image (en secondes).
+     */
+    private void simulate(double deltaTime) {
+        if (lockstep != null) {
+            simulateLockstep(deltaTime);
+            return;
+        }
+        stepAccumulator += deltaTime * SPEEDS[speedIndex];
+
+        int steps = 0;
+        long start = System.nanoTime();
+        while (stepAccumulator >= FIXED_STEP && steps < maxSubSteps && isRunning) {
+            update(FIXED_STEP);
+            stepAccumulator -= FIXED_STEP;
+            steps++;
+        }
+
+        if (steps > 0) {
+            double stepCost = (System.nanoTime() - start) / 1e9 / steps;
+            averageStepCost = averageStepCost == 0 ? stepCost : averageStepCost * 0.9 + stepCost * 0.1;
+            maxSubSteps = (int) Math.max(1, Math.min(MAX_SUB_STEPS, SIMULATION_BUDGET / averageStepCost));
+        }
+        if (stepAccumulator >= FIXED_STEP) {
+            stepAccumulator %= FIXED_STEP; // Retard abandonné
+        }
+    }
+
+    /**
+     * Fait avancer une partie en lockstep du temps réel écoulé, par tours entiers. Un tour dont
+     * le message de l'autre joueur n'est pas encore arrivé est attendu à l'image suivante ;
+     * au-delà de {@value #MAX_TURN_LAG} tours, le retard est abandonné.
+     *
+     * @param deltaTime Temps réel écoulé depuis la dernière image (en secondes).
+     */
+    private void simulateLockstep(double deltaTime) {
+        double turnDuration = LockstepSession.getTurnDuration();
+        stepAccumulator = Math.min(stepAccumulator + deltaTime, turnDuration * MAX_TURN_LAG);
+        while (stepAccumulator >= turnDuration && isRunning && lockstep.advanceTurn(0)) {
+            stepAccumulator -= turnDuration;
+        }
+    }
+
+    /**
+     * Marque les zones de l'écran dont le contenu a changé depuis le dernier affichage :
+     * ennemis et tours déplacés ou blessés, interface du joueur, magasin et aperçu de placement.
+     */
+    private void invalidateChangedRegions() {
+        // Un zoom ou un déplacement de la vue change toute la zone de jeu
+        if (map.getViewport().getVersion() != drawnViewportVersion) {
+            StdDraw.invalidate(Viewport.GAME_AREA_CENTER_X, Viewport.GAME_AREA_CENTER_Y,
+                    Viewport.GAME_AREA_HALF_SIZE, Viewport.GAME_AREA_HALF_SIZE);
+        }
+
+        map.invalidateChangedRegions();
+        waveManager.invalidateChangedRegions();
+        player.invalidateIfChanged();
+        store.invalidateIfChanged(player.getMoney());
+        if (SPEEDS[speedIndex] != drawnSpeed) {
+            StdDraw.invalidate(SPEED_X, SPEED_Y, 60, 12);
+        }
+        updateForecast();
+        if (!forecast.equals(drawnForecast)) {
+            StdDraw.invalidate(FORECAST_X, SPEED_Y, 100, 12);
+        }
+
+        Tile hoveredTile = null;
+        if (selectedTowerType != null) {
+            hoveredTile = map.getTileAtScreenPosition(cursorX, cursorY);
+        }
+        if (hoveredTile != previewTile || selectedTowerType != previewTowerType) {
+            invalidateTile(previewTile);
+            invalidateTile(hoveredTile);
+        }
 
-            update(deltaTime);
-            StdDraw.clear();
-            draw();
-            StdDraw.show();
+        // L'intérêt des cases couvre toute la carte : redessinée à la sélection et à chaque changement
+        PlacementHeatmap heatmap = selectedTowerType != null ? map.getPlacementHeatmap(selectedTowerType.range) : null;
+        if (selectedTowerType != previewTowerType || heatmap != null && heatmap.getVersion() != drawnHeatmapVersion) {
+            StdDraw.invalidate(Viewport.GAME_AREA_CENTER_X, Viewport.GAME_AREA_CENTER_Y,
+                    Viewport.GAME_AREA_HALF_SIZE, Viewport.GAME_AREA_HALF_SIZE);
         }
     }
 
     /**
-     * Met à jour l'état du jeu, y compris les ennemis, le joueur, et les tours.
+     * Marque la zone de l'écran occupée par une case comme à redessiner.
      *
-     * @param deltaTime Temps écoulé depuis la dernière mise à jour (en secondes).
+     * @param tile La case à redessiner, ou {@code null}.
+     */
+    private void invalidateTile(Tile tile) {
+        if (tile == null) return;
+
+        Viewport viewport = map.getViewport();
+        double tileSize = viewport.getTileSize();
+        StdDraw.invalidate(viewport.toScreenX(tile.getPosition().getX()) + tileSize / 2,
+                viewport.toScreenY(tile.getPosition().getY()) + tileSize / 2, tileSize / 2, tileSize / 2);
+    }
+
+    /**
+     * Met à jour l'état du jeu, y compris les ennemis, le joueur, et les tours (une sous-étape).
+     *
+     * @param deltaTime Temps simulé depuis la dernière mise à jour (en secondes).
      */
     private void update(double deltaTime) {
+        long start = metrics != null ? System.nanoTime() : 0;
+        GameTickEvent tick = new GameTickEvent();
+        tick.begin();
+        int level = currentLevel;
+        simulatedTime += deltaTime;
+        updateCount++;
         waveManager.update(deltaTime);
+        for (Enemy enemy : waveManager.getSpawnedEnemies()) {
+            scheduleCooldown(enemy);
+        }
+        if (metrics != null) {
+            metrics.recordSpawns(waveManager.getSpawnedEnemies().size());
+        }
         map.update(deltaTime);
         player.update(deltaTime);
         store.update(deltaTime);
 
-        if (player.getHealth() <= 0) {
-            isRunning = false;
-        }
-
         for (Enemy enemy : new ArrayList<>(waveManager.getActiveEnemies())) {
             if (enemy.hasReachedBase()) {
                 player.takeDamage(enemy.getAttackPower());
                 waveManager.removeEnemy(enemy, player);
+                if (metrics != null) metrics.recordLeak();
             } else if (enemy.getHealth() <= 0) {
                 waveManager.removeEnemy(enemy, player);
+                if (metrics != null) metrics.recordKills(1);
             }
         }
 
+        // La partie s'arrête à la fin de la mise à jour où le joueur perd sa dernière vie
+        if (player.getHealth() <= 0) {
+            isRunning = false;
+        }
+
         if (waveManager.isComplete()) {
             currentLevel++;
             if (currentLevel < levels.size()) {
@@ -148,24 +749,87 @@ public class Game {
             }
         }
 
-        handleTowerAttacks(deltaTime);
-        handleMouseInput();
+        // Sauvegarde automatique à chaque changement de vague ou de niveau, sauf après la dernière vague
+        // du niveau : le niveau suivant est chargé juste après, et sauvegardé à son début
+        if (isAutosaveEnabled && isRunning && waveManager.getCurrentWaveIndex() != autosavedWaveIndex
+                && waveManager.getCurrentWaveIndex() < waveManager.getWaves().size()) {
+            autosavedWaveIndex = waveManager.getCurrentWaveIndex();
+            save(AUTOSAVE_FILE);
+        }
+
+        cooldowns.advance(waveManager.getTime(), this::onCooldownElapsed);
+        handleTowerAttacks();
+        handleEnemyAttacks();
+
+        if (spectatorStream != null) {
+            spectatorStream.record(this);
+        }
+        if (metrics != null) {
+            metrics.recordTick(metricsState, System.nanoTime() - start, waveManager.getActiveEnemies().size(),
+                    waveManager.getCurrentWaveIndex(), player.getMoney(), player.getHealth());
+        }
+        tick.end();
+        if (tick.shouldCommit()) {
+            tick.levelName = levels.get(level).getName();
+            tick.simulatedTime = simulatedTime;
+            tick.deltaTime = deltaTime;
+            tick.activeEnemies = waveManager.getActiveEnemies().size();
+            tick.towers = getTowerCount();
+            tick.commit();
+        }
+    }
+
+    /**
+     * Planifie la prochaine attaque possible d'une tour ou d'un ennemi, un délai entre deux attaques
+     * après maintenant.
+     */
+    private void scheduleCooldown(Entity entity) {
+        entity.setCooldownEnd(waveManager.getTime() + entity.attackSpeed);
+        cooldowns.schedule(entity, entity.getCooldownEnd());
     }
 
     /**
-     * Gère les attaques des tours sur les ennemis.
-     *
-     * @param deltaTime Temps écoulé depuis la dernière mise à jour (en secondes).
+     * Rend une tour ou un ennemi prêt à attaquer, une fois son délai écoulé.
+     * Les tours détruites et les ennemis retirés entre-temps sont ignorés.
+     */
+    private void onCooldownElapsed(Entity entity) {
+        if (entity instanceof Tower tower) {
+            if (tower.getHealth() <= 0) return;
+            tower.markAttackReady();
+            readyTowers.add(tower);
+        } else if (entity instanceof Enemy enemy) {
+            if (enemy.isRemoved()) return;
+            enemy.markAttackReady();
+            readyEnemies.add(enemy);
+        }
+    }
+
+    /**
+     * Gère les attaques des tours prêtes sur les ennemis. Une tour qui a attaqué attend à nouveau
+     * son délai ; une tour sans cible reste prête.
      */
-    private void handleTowerAttacks(double deltaTime) {
+    private void handleTowerAttacks() {
         List<Enemy> activeEnemies = waveManager.getActiveEnemies();
-        List<Tower> towers = map.getTowers();
 
-        if (activeEnemies.isEmpty() || towers.isEmpty()) return;
+        if (activeEnemies.isEmpty() || readyTowers.isEmpty()) return;
 
-        for (Tower tower : towers) {
-            tower.update(deltaTime);
-            tower.attack(activeEnemies);
+        TowerAttackBurstEvent burst = new TowerAttackBurstEvent();
+        burst.begin();
+        int ready = readyTowers.size();
+        int attacks = 0;
+        int totalDamage = 0;
+        for (Iterator<Tower> iterator = readyTowers.iterator(); iterator.hasNext(); ) {
+            Tower tower = iterator.next();
+            int damage = tower.attack(activeEnemies);
+            if (damage > 0) {
+                attacks++;
+                totalDamage += damage;
+                if (metrics != null) metrics.recordDamage(tower.getElement(), damage);
+            }
+            if (!tower.canAttack()) {
+                iterator.remove();
+                scheduleCooldown(tower);
+            }
         }
 
         List<Enemy> enemiesToRemove = new ArrayList<>();
@@ -178,6 +842,60 @@ public class Game {
         for (Enemy enemy : enemiesToRemove) {
             waveManager.removeEnemy(enemy, player);
         }
+        if (metrics != null) {
+            metrics.recordKills(enemiesToRemove.size());
+        }
+        burst.end();
+        if (burst.shouldCommit()) {
+            burst.readyTowers = ready;
+            burst.attacks = attacks;
+            burst.damage = totalDamage;
+            burst.kills = enemiesToRemove.size();
+            burst.commit();
+        }
+    }
+
+    /**
+     * Gère les attaques des ennemis prêts sur les tours. Chaque ennemi choisit sa cible parmi les tours
+     * pouvant être à portée de sa case, précalculées par la carte ; les tours détruites sont retirées.
+     */
+    private void handleEnemyAttacks() {
+        if (readyEnemies.isEmpty()) return;
+
+        TowerCoverage towerCoverage = map.getTowerCoverage();
+        List<Tower> destroyedTowers = null;
+        for (Iterator<Enemy> iterator = readyEnemies.iterator(); iterator.hasNext(); ) {
+            Enemy enemy = iterator.next();
+            if (enemy.isRemoved() || enemy.getHealth() <= 0) {
+                iterator.remove();
+                continue;
+            }
+
+            List<Tower> candidates = towerCoverage.towersNear(enemy.getPosition(), enemy.getRange());
+            if (candidates.isEmpty()) continue;
+
+            enemy.attack(candidates);
+            if (!enemy.canAttack()) {
+                iterator.remove();
+                scheduleCooldown(enemy);
+            }
+            for (Tower tower : candidates) {
+                if (tower.getHealth() <= 0) {
+                    if (destroyedTowers == null) {
+                        destroyedTowers = new ArrayList<>();
+                    }
+                    destroyedTowers.add(tower);
+                }
+            }
+            if (destroyedTowers != null) {
+                // Retire les tours détruites avant l'attaque suivante, qui ne doit plus les viser
+                for (Tower tower : destroyedTowers) {
+                    map.removeTower(tower);
+                    readyTowers.remove(tower);
+                }
+                destroyedTowers.clear();
+            }
+        }
     }
 
     /**
@@ -193,6 +911,7 @@ public class Game {
 
             if (player.canAfford(selectedTowerInfo.cost)) {
                 selectedTowerType = selectedTowerInfo;
+                store.setSelectedTower(towerIndex);
             } else {
                 System.out.println("Pas assez d'argent pour sélectionner cette tour !");
             }
@@ -207,41 +926,160 @@ public class Game {
     private void handleMapClick(Tile clickedTile) {
         if (clickedTile == null) return;
 
-        if (selectedTowerType != null && clickedTile.isConstructible() && !clickedTile.hasTower()) {
-            if (player.canAfford(selectedTowerType.cost)) {
-                double tileSize = 700.0 / Math.max(map.getWidth(), map.getHeight());
-
-                Point2D towerPos = new Point2D(
-                        clickedTile.getPosition().getX() + tileSize / 2,
-                        clickedTile.getPosition().getY() + tileSize / 2
-                );
-
-                Tower newTower = store.createTower(selectedTowerType.name, towerPos, map);
-                clickedTile.setTower(newTower);
-                map.addTower(newTower);
-
-                player.spendMoney(selectedTowerType.cost);
+        // En lockstep, la tour est achetée par les deux joueurs quelques tours plus tard
+        if (lockstep != null && selectedTowerType != null) {
+            if (map.canPlaceTower(clickedTile) && player.canAfford(selectedTowerType.cost)) {
+                lockstep.queue(new PlayerAction(selectedTowerType.name,
+                        (int) clickedTile.getPosition().getX(), (int) clickedTile.getPosition().getY()));
                 selectedTowerType = null;
                 store.clearSelection();
             }
+            return;
+        }
+
+        if (selectedTowerType != null && buildTower(selectedTowerType, clickedTile)) {
+            selectedTowerType = null;
+            store.clearSelection();
         }
     }
 
     /**
-     * Gère les clics de la souris pour les interactions avec la carte ou la boutique.
+     * Achète une tour et la place au centre d'une case, si la case est constructible et libre
+     * et si le joueur a assez d'argent.
+     *
+     * @return {@code true} si la tour a été placée.
      */
-    private void handleMouseInput() {
-        if (StdDraw.isMousePressed()) {
-            double mouseX = StdDraw.mouseX();
-            double mouseY = StdDraw.mouseY();
+    private boolean buildTower(TowerInfo towerType, Tile tile) {
+        if (tile == null || !tile.isConstructible() || tile.hasTower() || !player.canAfford(towerType.cost)) {
+            return false;
+        }
+
+        // La tour est placée au centre de la case, en coordonnées de la grille
+        Point2D towerPos = new Point2D(
+                tile.getPosition().getX() + 0.5,
+                tile.getPosition().getY() + 0.5
+        );
+
+        Tower newTower = store.createTower(towerType.name, towerPos, map);
+        tile.setTower(newTower);
+        map.addTower(newTower);
+        scheduleCooldown(newTower);
+
+        player.spendMoney(towerType.cost);
+        return true;
+    }
 
-            Tile clickedTile = map.getTileAtScreenPosition(mouseX, mouseY);
-            if (clickedTile != null) {
-                handleMapClick(clickedTile);
+    /**
+     * Traite, dans l'ordre, les événements souris et clavier reçus depuis la dernière itération.
+     * Chaque clic est traité une seule fois, même s'il a duré moins d'une itération.
+     */
+    private void handleInput() {
+        InputQueue events = StdDraw.inputEvents();
+        while (events.next()) {
+            switch (events.type()) {
+                case InputQueue.MOUSE_PRESSED:
+                    cursorX = events.x();
+                    cursorY = events.y();
+                    handleMousePress(events.button());
+                    break;
+                case InputQueue.MOUSE_RELEASED:
+                    if (events.button() == MouseEvent.BUTTON3) {
+                        isPanning = false;
+                    }
+                    break;
+                case InputQueue.MOUSE_MOVED:
+                    handleMouseMove(events.x(), events.y());
+                    break;
+                case InputQueue.MOUSE_WHEEL:
+                    cursorX = events.x();
+                    cursorY = events.y();
+                    handleMouseWheel(events.wheelRotation());
+                    break;
+                case InputQueue.KEY_TYPED:
+                    handleKeyTyped(events.keyChar());
+                    break;
+                default:
+                    break;
             }
+        }
+    }
 
-            if (isInStoreArea(mouseX, mouseY)) {
-                handleStoreClick(mouseX, mouseY);
+    /**
+     * Gère l'appui sur un bouton de la souris : le clic gauche interagit avec la carte ou la boutique,
+     * le clic droit commence le déplacement de la vue.
+     *
+     * @param button Le bouton appuyé.
+     */
+    private void handleMousePress(int button) {
+        if (button == MouseEvent.BUTTON3) {
+            isPanning = true;
+            return;
+        }
+        if (button != MouseEvent.BUTTON1) return;
+
+        Tile clickedTile = map.getTileAtScreenPosition(cursorX, cursorY);
+        if (clickedTile != null) {
+            handleMapClick(clickedTile);
+        }
+
+        if (isInStoreArea(cursorX, cursorY)) {
+            handleStoreClick(cursorX, cursorY);
+        }
+    }
+
+    /**
+     * Gère un déplacement de la souris, qui déplace la vue si le clic droit est maintenu.
+     *
+     * @param x Nouvelle coordonnée X de la souris.
+     * @param y Nouvelle coordonnée Y de la souris.
+     */
+    private void handleMouseMove(double x, double y) {
+        if (isPanning) {
+            map.getViewport().pan(x - cursorX, y - cursorY);
+        }
+        cursorX = x;
+        cursorY = y;
+    }
+
+    /**
+     * Zoome ou dézoome la vue autour de la souris.
+     *
+     * @param rotation Rotation de la molette, en crans (négative vers le haut).
+     */
+    private void handleMouseWheel(double rotation) {
+        Viewport viewport = map.getViewport();
+        if (rotation != 0 && viewport.isInGameArea(cursorX, cursorY)) {
+            viewport.zoomAt(Math.pow(ZOOM_STEP, -rotation), cursorX, cursorY);
+        }
+    }
+
+    /**
+     * Gère les touches du clavier : 'h' alterne l'affichage des foules d'ennemis
+     * entre symboles regroupés et carte de densité, '+' et '-' changent la vitesse de jeu,
+     * 's' sauvegarde la partie et 'l' recharge cette sauvegarde (vitesse et chargement sont
+     * désactivés en lockstep).
+     *
+     * @param key Le caractère tapé.
+     */
+    private void handleKeyTyped(char key) {
+        if (key == 'h' || key == 'H') {
+            CrowdRenderer crowdRenderer = waveManager.getCrowdRenderer();
+            crowdRenderer.setMode(crowdRenderer.getMode() == CrowdRenderer.Mode.GLYPH
+                    ? CrowdRenderer.Mode.HEATMAP : CrowdRenderer.Mode.GLYPH);
+        } else if (lockstep != null && (key == '+' || key == '=' || key == '-' || key == 'l' || key == 'L')) {
+            return; // Vitesse et chargement communs aux deux joueurs : inchangés en lockstep
+        } else if (key == '+' || key == '=') {
+            speedIndex = Math.min(SPEEDS.length - 1, speedIndex + 1);
+        } else if (key == '-') {
+            speedIndex = Math.max(0, speedIndex - 1);
+        } else if (key == 's' || key == 'S') {
+            save(QUICKSAVE_FILE);
+        } else if (key == 'l' || key == 'L') {
+            if (!Files.exists(QUICKSAVE_FILE)) return;
+            try {
+                load(QUICKSAVE_FILE);
+            } catch (GameException e) {
+                System.out.println("Échec du chargement : " + e.getMessage());
             }
         }
     }
@@ -261,42 +1099,153 @@ public class Game {
      * Charge le niveau suivant et réinitialise les composants nécessaires.
      */
     private void loadNextLevel() {
-        map = new Map(levels.get(currentLevel).getName(), levels.get(currentLevel).getMapName());
+        map = levels.get(currentLevel).createMap();
         map.loadMap();
 
+        CrowdRenderer.Mode crowdMode = waveManager.getCrowdRenderer().getMode();
         waveManager = new WaveManager();
         waveManager.setWaves(levels.get(currentLevel).getWaves(), map);
+        waveManager.getCrowdRenderer().setMode(crowdMode);
+
+        // Le temps du nouveau niveau repart de zéro
+        cooldowns = new TimingWheel<>(COOLDOWN_RESOLUTION);
+        readyTowers.clear();
+        readyEnemies.clear();
+        autosavedWaveIndex = -1; // Sauvegarde automatique au début du niveau
 
         selectedTile = null;
         selectedTowerType = null;
+        previewTile = null;
+        isPanning = false;
+        store.clearSelection();
 
         store.updateMap(map);
+        if (!isHeadless) {
+            StdDraw.invalidate();
+        }
     }
 
     /**
      * Dessine les composants du jeu, y compris la carte, le joueur, et la boutique.
      */
     private void draw() {
+        // La carte, les ennemis et l'aperçu sont limités à la zone de jeu, quels que soient le zoom et le déplacement
+        StdDraw.beginClip(Viewport.GAME_AREA_CENTER_X, Viewport.GAME_AREA_CENTER_Y,
+                Viewport.GAME_AREA_HALF_SIZE, Viewport.GAME_AREA_HALF_SIZE);
         map.draw();
+        waveManager.draw();
+        drawPlacementPreview();
+        StdDraw.endClip();
+        drawnViewportVersion = map.getViewport().getVersion();
+
         store.draw();
         player.draw();
-        waveManager.draw();
+        drawSpeed();
+        drawForecast();
+    }
+
+    /**
+     * Dessine la vitesse de jeu au-dessus de l'interface du joueur.
+     */
+    private void drawSpeed() {
+        drawnSpeed = SPEEDS[speedIndex];
+        StdDraw.setPenColor(Color.BLACK);
+        StdDraw.text(SPEED_X, SPEED_Y, "Vitesse x" + drawnSpeed);
+    }
+
+    /**
+     * Colore chaque case constructible et libre visible selon la longueur de chemin
+     * que la tour sélectionnée y couvrirait en plus des tours en place.
+     */
+    private void drawPlacementHeatmap(PlacementHeatmap heatmap) {
+        drawnHeatmapVersion = heatmap.getVersion();
+        Viewport viewport = map.getViewport();
+        double tileSize = viewport.getTileSize();
+        for (int y = viewport.getFirstRow(); y <= viewport.getLastRow(); y++) {
+            for (int x = viewport.getFirstColumn(); x <= viewport.getLastColumn(); x++) {
+                if (!map.canPlaceTower(map.getTileAt(x, y))) continue;
+
+                double value = heatmap.getValue(x, y);
+                StdDraw.setPenColor(new Color((int) (255 * (1 - value)), (int) (255 * value), 0, 96));
+                StdDraw.filledSquare(viewport.toScreenX(x) + tileSize / 2, viewport.toScreenY(y) + tileSize / 2,
+                        tileSize / 2);
+            }
+        }
+    }
 
+    /**
+     * Dessine la prévision de vie du joueur à la fin du niveau.
+     */
+    private void drawForecast() {
+        drawnForecast = forecast;
+        StdDraw.setPenColor(Color.BLACK);
+        StdDraw.text(FORECAST_X, SPEED_Y, drawnForecast);
+    }
+
+    /**
+     * Recalcule la prévision si les tours, l'argent, la vie, la vague, la case survolée
+     * ou le type de tour sélectionné ont changé depuis la dernière.
+     */
+    private void updateForecast() {
+        Tile hoveredTile = selectedTowerType != null ? map.getTileAtScreenPosition(cursorX, cursorY) : null;
+        if (map == forecastMap && map.getTowerVersion() == forecastTowerVersion
+                && player.getMoney() == forecastMoney && player.getHealth() == forecastHealth
+                && waveManager.getCurrentWaveIndex() == forecastWave
+                && hoveredTile == forecastHoveredTile && selectedTowerType == forecastSelection) {
+            return;
+        }
+        forecastMap = map;
+        forecastTowerVersion = map.getTowerVersion();
+        forecastMoney = player.getMoney();
+        forecastHealth = player.getHealth();
+        forecastWave = waveManager.getCurrentWaveIndex();
+        forecastHoveredTile = hoveredTile;
+        forecastSelection = selectedTowerType;
+        forecast = forecastText(hoveredTile);
+    }
+
+    /**
+     * Retourne la prévision de vie du joueur à la fin du niveau ; pendant un placement, suivie
+     * de la prévision avec la tour sélectionnée sur la case survolée.
+     */
+    private String forecastText(Tile hoveredTile) {
+        String text = "Prévision : vie " + estimateOutcome().remainingHealth;
+
+        if (hoveredTile == null || !map.canPlaceTower(hoveredTile)) {
+            return text;
+        }
+        if (hoveredTile != forecastTile || selectedTowerType != forecastTowerType) {
+            forecastTile = hoveredTile;
+            forecastTowerType = selectedTowerType;
+            forecastTower = store.createTower(selectedTowerType.name, new Point2D(
+                    hoveredTile.getPosition().getX() + 0.5,
+                    hoveredTile.getPosition().getY() + 0.5
+            ), map);
+        }
+        return text + " → " + estimator.estimate(map, waveManager, player.getHealth(), forecastTower).remainingHealth;
+    }
+
+    /**
+     * Dessine l'aperçu de la tour sélectionnée sur la case survolée par la souris, par-dessus
+     * l'intérêt de chaque case libre pour cette tour (du rouge au vert).
+     */
+    private void drawPlacementPreview() {
+        previewTile = null;
+        previewTowerType = selectedTowerType;
         if (selectedTowerType != null) {
-            double mouseX = StdDraw.mouseX();
-            double mouseY = StdDraw.mouseY();
-            Tile hoveredTile = map.getTileAtScreenPosition(mouseX, mouseY);
+            drawPlacementHeatmap(map.getPlacementHeatmap(selectedTowerType.range));
 
-            if (hoveredTile != null) {
-                double tileSize = 700.0 / Math.max(map.getWidth(), map.getHeight());
-                Point2D tileCenter = hoveredTile.getPosition();
+            Tile hoveredTile = map.getTileAtScreenPosition(cursorX, cursorY);
+            previewTile = hoveredTile;
 
-                tileCenter = new Point2D(
-                        tileCenter.getX() + tileSize / 2,
-                        tileCenter.getY() + tileSize / 2
-                );
+            if (hoveredTile != null) {
+                double tileSize = map.getTileSize();
+                Point2D tileCenter = map.getScreenPosition(new Point2D(
+                        hoveredTile.getPosition().getX() + 0.5,
+                        hoveredTile.getPosition().getY() + 0.5
+                ));
 
-                if (hoveredTile.isConstructible() && !hoveredTile.hasTower()) {
+                if (map.canPlaceTower(hoveredTile)) {
                     StdDraw.setPenColor(new Color(0, 255, 0, 128));
                 } else {
 					StdDraw.setPenColor(new Color(255, 0, 0, 128));
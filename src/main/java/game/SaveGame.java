@@ -0,0 +1,291 @@
+package game;
+
+import entity.Player;
+import entity.enemy.Enemy;
+import entity.enemy.EnemyType;
+import entity.tower.Tower;
+import exception.GameException;
+import game.map.Map;
+import game.map.Tile;
+import game.map.WaveManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Sauvegarde binaire d'une partie. Le format est versionné :
+ * <pre>
+ * int    MAGIC ("TDSV"), short VERSION
+ * int    niveau, double temps simulé
+ * int    vie du joueur, int argent
+ * int    vague en cours, double temps du niveau, boolean vague commencée, double début de la vague,
+ *        int apparitions effectuées dans la vague
+ * int    nombre de tours, puis pour chacune :
+ *        UTF nom, double x, double y, int vie, boolean prête, double prochaine attaque
+ * int    nombre d'ennemis, puis pour chacun :
+ *        UTF type, double distance parcourue, int vie, boolean prêt, double prochaine attaque
+ * pour chaque tour : int indice de la cible conservée parmi les ennemis (-1 si aucune),
+ *        double temps avant la prochaine recherche de cible
+ * </pre>
+ * L'état est copié dans un tableau d'octets par la boucle de jeu ; l'écriture sur le disque
+ * se fait ensuite sur un thread dédié, sans bloquer la partie.
+ */
+public final class SaveGame {
+    private static final int MAGIC = 0x54445356; // "TDSV"
+    private static final short VERSION = 1;
+
+    // Un seul thread d'écriture : les sauvegardes sont écrites dans l'ordre où elles ont été faites
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "save-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private SaveGame() {
+    }
+
+    /**
+     * Copie l'état d'une partie dans un tableau d'octets. À appeler depuis la boucle de jeu.
+     *
+     * @param game La partie.
+     * @return La sauvegarde.
+     */
+    public static byte[] encode(Game game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1024);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+
+            out.writeInt(game.currentLevel);
+            out.writeDouble(game.getSimulatedTime());
+
+            Player player = game.getPlayer();
+            out.writeInt(player.getHealth());
+            out.writeInt(player.getMoney());
+
+            WaveManager waveManager = game.getWaveManager();
+            out.writeInt(waveManager.getCurrentWaveIndex());
+            out.writeDouble(waveManager.getTime());
+            out.writeBoolean(waveManager.isWaveStarted());
+            out.writeDouble(waveManager.getWaveStartTime());
+            out.writeInt(waveManager.getCurrentSpawnIndex());
+
+            List<Tower> towers = game.getMap().getTowers();
+            out.writeInt(towers.size());
+            for (Tower tower : towers) {
+                out.writeUTF(game.getStore().getTowerName(tower));
+                out.writeDouble(tower.getPosition().getX());
+                out.writeDouble(tower.getPosition().getY());
+                out.writeInt(tower.getHealth());
+                out.writeBoolean(tower.canAttack());
+                out.writeDouble(tower.getCooldownEnd());
+            }
+
+            List<Enemy> enemies = waveManager.getActiveEnemies();
+            out.writeInt(enemies.size());
+            for (Enemy enemy : enemies) {
+                out.writeUTF(EnemyType.of(enemy).name());
+                out.writeDouble(enemy.getDistanceTraveled());
+                out.writeInt(enemy.getHealth());
+                out.writeBoolean(enemy.canAttack());
+                out.writeDouble(enemy.getCooldownEnd());
+            }
+
+            for (Tower tower : towers) {
+                out.writeInt(tower.getLockedTarget() != null ? enemies.indexOf(tower.getLockedTarget()) : -1);
+                out.writeDouble(tower.getRetargetTimer());
+            }
+        } catch (IOException e) {
+            throw new GameException("Failed to encode save: " + e.getMessage());
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Remplace l'état d'une partie par celui d'une sauvegarde. À appeler depuis la boucle de jeu.
+     * La sauvegarde est entièrement lue et vérifiée avant d'être appliquée : si elle est invalide,
+     * la partie reste telle quelle.
+     *
+     * @param game La partie, déjà initialisée.
+     * @param data La sauvegarde.
+     * @throws GameException Si la sauvegarde est invalide ou d'une version inconnue.
+     */
+    public static void decode(Game game, byte[] data) {
+        int level;
+        double simulatedTime;
+        int playerHealth;
+        int playerMoney;
+        int waveIndex;
+        double time;
+        boolean waveStarted;
+        double waveStartTime;
+        int spawnIndex;
+        List<Tower> towers;
+        boolean[] readyTowers;
+        EnemyType[] enemyTypes;
+        double[] enemyDistances;
+        int[] enemyHealths;
+        boolean[] readyEnemies;
+        double[] enemyCooldownEnds;
+        int[] targets;
+        double[] retargetTimers;
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            if (in.readInt() != MAGIC) {
+                throw new GameException("Not a save file");
+            }
+            short version = in.readShort();
+            if (version != VERSION) {
+                throw new GameException("Unsupported save version: " + version);
+            }
+
+            level = in.readInt();
+            simulatedTime = in.readDouble();
+            if (level < 0 || level >= game.getLevels().size()) {
+                throw new GameException("Invalid level in save file: " + level);
+            }
+
+            playerHealth = in.readInt();
+            playerMoney = in.readInt();
+
+            waveIndex = in.readInt();
+            time = in.readDouble();
+            waveStarted = in.readBoolean();
+            waveStartTime = in.readDouble();
+            spawnIndex = in.readInt();
+
+            // Les tours sont placées sur la carte du niveau une fois la sauvegarde appliquée
+            int towerCount = in.readInt();
+            towers = new ArrayList<>(towerCount);
+            readyTowers = new boolean[towerCount];
+            for (int i = 0; i < towerCount; i++) {
+                String name = in.readUTF();
+                Point2D position = new Point2D(in.readDouble(), in.readDouble());
+                Tower tower = game.getStore().createTower(name, position, null);
+                tower.setHealth(in.readInt());
+                readyTowers[i] = in.readBoolean();
+                tower.setCooldownEnd(in.readDouble());
+                towers.add(tower);
+            }
+
+            // Les ennemis sont créés sur le chemin du niveau une fois la sauvegarde appliquée
+            int enemyCount = in.readInt();
+            enemyTypes = new EnemyType[enemyCount];
+            enemyDistances = new double[enemyCount];
+            enemyHealths = new int[enemyCount];
+            readyEnemies = new boolean[enemyCount];
+            enemyCooldownEnds = new double[enemyCount];
+            for (int i = 0; i < enemyCount; i++) {
+                enemyTypes[i] = EnemyType.valueOf(in.readUTF());
+                enemyDistances[i] = in.readDouble();
+                enemyHealths[i] = in.readInt();
+                readyEnemies[i] = in.readBoolean();
+                enemyCooldownEnds[i] = in.readDouble();
+            }
+
+            targets = new int[towerCount];
+            retargetTimers = new double[towerCount];
+            for (int i = 0; i < towerCount; i++) {
+                targets[i] = in.readInt();
+                retargetTimers[i] = in.readDouble();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            throw new GameException("Invalid save file: " + e.getMessage());
+        }
+        checkTowerPositions(game.getLevels().get(level).createMap(), towers);
+
+        // Application en une fois, sur le niveau relu
+        game.restoreLevel(level, simulatedTime);
+        game.getPlayer().restore(playerHealth, playerMoney);
+
+        Map map = game.getMap();
+        for (Tower tower : towers) {
+            tower.setGameMap(map);
+        }
+        List<Enemy> enemies = new ArrayList<>(enemyTypes.length);
+        for (int i = 0; i < enemyTypes.length; i++) {
+            Enemy enemy = enemyTypes[i].create(map.getSpawnPoint(), map.getPath());
+            enemy.setGameMap(map);
+            enemy.setDistanceTraveled(enemyDistances[i]);
+            enemy.setHealth(enemyHealths[i]);
+            enemy.setCooldownEnd(enemyCooldownEnds[i]);
+            enemies.add(enemy);
+        }
+
+        // Le temps du niveau est restauré avant les délais des tours et la replanification des attaques
+        game.getWaveManager().restore(waveIndex, time, waveStarted, waveStartTime, spawnIndex, enemies);
+        for (int i = 0; i < towers.size(); i++) {
+            int target = targets[i];
+            towers.get(i).restoreTarget(target >= 0 && target < enemies.size() ? enemies.get(target) : null, retargetTimers[i]);
+        }
+        for (int i = 0; i < towers.size(); i++) {
+            game.restoreTower(towers.get(i), readyTowers[i]);
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            game.restoreCooldown(enemies.get(i), readyEnemies[i]);
+        }
+    }
+
+    /**
+     * Vérifie, sur une carte du niveau à part, que chaque tour est sur une case constructible
+     * et qu'aucune case n'en porte deux : la partie pourra les placer toutes.
+     */
+    private static void checkTowerPositions(Map layout, List<Tower> towers) {
+        layout.loadMap();
+        Set<Tile> occupied = new HashSet<>();
+        for (Tower tower : towers) {
+            Tile tile = layout.getTileAt((int) tower.getPosition().getX(), (int) tower.getPosition().getY());
+            if (!layout.canPlaceTower(tile) || !occupied.add(tile)) {
+                throw new GameException("Invalid tower position in save file: " + tower.getPosition());
+            }
+        }
+    }
+
+    /**
+     * Lit une sauvegarde sur le disque.
+     *
+     * @param file Le fichier.
+     * @return Le contenu de la sauvegarde.
+     * @throws GameException Si le fichier ne peut pas être lu.
+     */
+    public static byte[] read(Path file) {
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            throw new GameException("Failed to load save file: " + file);
+        }
+    }
+
+    /**
+     * Écrit une sauvegarde sur le disque depuis le thread d'écriture et rend la main aussitôt.
+     * Le fichier est d'abord écrit à côté puis renommé : une sauvegarde interrompue ne remplace
+     * jamais la précédente.
+     *
+     * @param data La sauvegarde, qui ne doit plus être modifiée.
+     * @param file Le fichier de destination.
+     */
+    public static void writeAsync(byte[] data, Path file) {
+        WRITER.execute(() -> {
+            try {
+                Path directory = file.toAbsolutePath().getParent();
+                Files.createDirectories(directory);
+                Path temporary = directory.resolve(file.getFileName() + ".tmp");
+                Files.write(temporary, data);
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.out.println("Échec de la sauvegarde : " + e.getMessage());
+            }
+        });
+    }
+}
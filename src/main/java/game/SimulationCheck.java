@@ -0,0 +1,173 @@
+package game;
+
+import entity.enemy.Enemy;
+import entity.tower.Tower;
+import game.map.Map;
+import game.map.Tile;
+import game.simulation.SimulationState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Vérifie que {@link SimulationState} reproduit la partie. Sur chaque niveau fourni et pour
+ * plusieurs dispositions de tours, une partie sans affichage et l'état de simulation relevé
+ * au même instant avancent ensemble, une mise à jour de {@link Game#FIXED_STEP} à la fois :
+ * vie et argent du joueur, vague en cours, ennemis et tours, avec leurs points de vie,
+ * doivent rester identiques jusqu'à la fin du niveau ou la défaite.
+ */
+public final class SimulationCheck {
+    // Dispositions : aucune tour, puis une case constructible sur N, en alternant les types de la boutique
+    private static final int[] LAYOUT_STRIDES = {0, 7, 3, 1};
+    private static final int MONEY = 1_000_000;       // Les dispositions sont placées sans contrainte de coût
+    private static final int MAX_TICKS = 60 * 60 * 60; // Au plus une heure simulée par niveau
+
+    /**
+     * Comparaison d'une partie et de sa simulation sur un niveau et une disposition.
+     */
+    public static final class Result {
+        public final String scenario;
+        public final int ticks;
+        public final String divergence;   // Première différence, ou null
+        public final int health;
+        public final int money;
+
+        Result(String scenario, int ticks, String divergence, int health, int money) {
+            this.scenario = scenario;
+            this.ticks = ticks;
+            this.divergence = divergence;
+            this.health = health;
+            this.money = money;
+        }
+
+        public boolean passed() {
+            return divergence == null;
+        }
+
+        @Override
+        public String toString() {
+            String summary = String.format(Locale.ROOT, "%-22s %s  %d mises à jour, vie %d, argent %d",
+                    scenario, passed() ? "OK   " : "ÉCHEC", ticks, health, money);
+            if (!passed()) summary += " ; " + divergence;
+            return summary;
+        }
+    }
+
+    /**
+     * Compare la partie et la simulation sur tous les niveaux et toutes les dispositions.
+     */
+    public List<Result> run() {
+        List<Result> results = new ArrayList<>();
+        int levels = newGame().getLevels().size();
+        for (int level = 0; level < levels; level++) {
+            for (int stride : LAYOUT_STRIDES) {
+                results.add(compare(level, stride));
+            }
+        }
+        return results;
+    }
+
+    private Result compare(int level, int stride) {
+        Game game = newGame();
+        if (level > 0) {
+            game.restoreLevel(level, 0);
+        }
+        if (stride > 0) {
+            game.getPlayer().restore(game.getPlayer().getHealth(), MONEY);
+        }
+        int towers = placeTowers(game, stride);
+        String scenario = game.getLevels().get(level).getName()
+                + (stride == 0 ? ", sans tour" : towers == 1 ? ", 1 tour" : ", " + towers + " tours");
+
+        SimulationState state = game.captureSimulation();
+        String divergence = null;
+        int tick = 0;
+        while (divergence == null && game.isRunning() && game.currentLevel == level && tick < MAX_TICKS) {
+            Map map = game.getMap();
+            game.stepFixed(1);
+            state.step(Game.FIXED_STEP);
+            tick++;
+            divergence = game.currentLevel == level
+                    ? difference(game, map, state)
+                    : state.isLevelComplete() ? null : "niveau terminé dans la partie seulement";
+        }
+        if (divergence == null && state.isOver() != (!game.isRunning() || game.currentLevel != level)) {
+            divergence = "fin de niveau à des mises à jour différentes";
+        }
+        return new Result(scenario, tick, divergence, game.getPlayer().getHealth(), game.getPlayer().getMoney());
+    }
+
+    private static String difference(Game game, Map map, SimulationState state) {
+        List<Enemy> enemies = game.getWaveManager().getActiveEnemies();
+        List<Tower> towers = map.getTowers();
+        int wave = game.getWaveManager().getCurrentWaveIndex();
+        if (game.getPlayer().getHealth() != state.getPlayerHealth()) {
+            return describe("vie", game.getPlayer().getHealth(), state.getPlayerHealth(), state);
+        }
+        if (game.getPlayer().getMoney() != state.getMoney()) {
+            return describe("argent", game.getPlayer().getMoney(), state.getMoney(), state);
+        }
+        if (wave != state.getWaveIndex()) {
+            return describe("vague", wave, state.getWaveIndex(), state);
+        }
+        if (enemies.size() != state.getEnemyCount()) {
+            return describe("ennemis", enemies.size(), state.getEnemyCount(), state);
+        }
+        if (towers.size() != state.getTowerCount()) {
+            return describe("tours", towers.size(), state.getTowerCount(), state);
+        }
+        for (int i = 0; i < enemies.size(); i++) {
+            int health = enemies.get(i).getHealth();
+            if (health != state.getEnemyHealth(i)) {
+                return describe("vie de l'ennemi " + i, health, state.getEnemyHealth(i), state);
+            }
+        }
+        for (int i = 0; i < towers.size(); i++) {
+            int health = towers.get(i).getHealth();
+            if (health != state.getTowerHealth(i)) {
+                return describe("vie de la tour " + i, health, state.getTowerHealth(i), state);
+            }
+        }
+        return null;
+    }
+
+    private static String describe(String what, int inGame, int simulated, SimulationState state) {
+        return String.format(Locale.ROOT, "%s %d dans la partie, %d simulé, à %.2f s", what, inGame, simulated,
+                state.getTime());
+    }
+
+    private static Game newGame() {
+        Game game = new Game();
+        game.initHeadless();
+        return game;
+    }
+
+    /**
+     * Place une tour sur une case constructible sur {@code stride}, en alternant les types de la boutique.
+     *
+     * @return Le nombre de tours placées.
+     */
+    private static int placeTowers(Game game, int stride) {
+        if (stride == 0) return 0;
+
+        Map map = game.getMap();
+        Store store = game.getStore();
+        int towerTypes = 0;
+        while (store.getTowerInfo(towerTypes) != null) {
+            towerTypes++;
+        }
+        int constructible = 0;
+        int placed = 0;
+        for (int row = 0; row < map.getHeight(); row++) {
+            for (int column = 0; column < map.getWidth(); column++) {
+                Tile tile = map.getTileAt(column, row);
+                if (tile == null || !tile.isConstructible() || constructible++ % stride != 0) continue;
+                if (game.placeTower(store.getTowerInfo(placed % towerTypes).name, column, row)) {
+                    placed++;
+                }
+            }
+        }
+        return placed;
+    }
+}
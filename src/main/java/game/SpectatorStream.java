@@ -0,0 +1,496 @@
+package game;
+
+import entity.Entity;
+import entity.enemy.Enemy;
+import entity.enemy.EnemyType;
+import entity.tower.Tower;
+import game.map.Level;
+import game.map.Map;
+import game.map.WaveManager;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Flux compact de l'état d'une partie, pour des spectateurs qui la suivent sans la simuler
+ * (voir {@link SpectatorView}). Après chaque mise à jour, seuls les changements depuis la trame
+ * précédente sont écrits ; une image clé complète est écrite régulièrement, à chaque changement
+ * de niveau et à l'arrivée d'un spectateur. Format :
+ * <pre>
+ * int    MAGIC ("TDSP"), short VERSION, puis des trames :
+ * KEYFRAME :
+ *        byte KEYFRAME, varint temps de la partie (millisecondes)
+ *        varint niveau, UTF nom du niveau, UTF nom de la carte
+ *        varint vie du joueur, varint argent, varint vague en cours
+ *        varint nombre de tours, puis pour chacune : tour
+ *        varint nombre d'ennemis, puis pour chacun : ennemi
+ * DELTA :
+ *        byte DELTA, varint temps écoulé depuis la trame précédente (millisecondes)
+ *        byte champs changés (PLAYER_HEALTH, PLAYER_MONEY, WAVE), puis leurs valeurs
+ *        (écart signé de la vie et de l'argent, numéro de la vague)
+ *        varint tours retirées, puis pour chacune : varint écart d'indice
+ *        varint tours placées, puis pour chacune : tour
+ *        varint vies de tours changées, puis pour chacune : varint écart d'indice, varint vie
+ *        varint ennemis retirés, puis pour chacun : varint écart d'indice
+ *        pour chaque ennemi restant, dans l'ordre : écart signé de la distance parcourue
+ *        varint vies d'ennemis changées, puis pour chacune : varint écart d'indice, varint vie
+ *        varint ennemis apparus, puis pour chacun : ennemi
+ * tour   : byte indice dans la boutique, varint colonne, varint ligne, varint vie
+ * ennemi : byte type, varint distance parcourue, varint vie
+ * </pre>
+ * Les ennemis et les tours sont désignés par leur indice dans les listes de la trame précédente
+ * (les nouveaux sont ajoutés à la fin), les distances sont en 1/{@value #DISTANCE_SCALE} de case,
+ * et les entiers sont écrits sur un nombre variable d'octets : un ennemi qui avance coûte
+ * un octet par trame, une trame sans changement n'est pas écrite.
+ * <p>
+ * Les trames sont encodées par la boucle de jeu, puis écrites par un thread par destination ;
+ * un spectateur trop lent pour suivre est déconnecté.
+ */
+public final class SpectatorStream implements Closeable {
+    private static final int MAGIC = 0x54445350; // "TDSP"
+    private static final short VERSION = 1;
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    static final int PLAYER_HEALTH = 1;
+    static final int PLAYER_MONEY = 2;
+    static final int WAVE = 4;
+    static final int DISTANCE_SCALE = 64;             // Précision des distances (fractions de case)
+    private static final double KEYFRAME_INTERVAL = 5; // Durée simulée entre deux images clés (en secondes)
+    private static final int MAX_PENDING_FRAMES = 1024; // Trames en attente d'écriture, par spectateur
+    private static final byte[] END = new byte[0];      // Marque de fin de flux
+
+    /**
+     * Destination du flux, écrite par son propre thread.
+     */
+    private static final class Output {
+        final OutputStream out;
+        final BlockingQueue<byte[]> frames = new ArrayBlockingQueue<>(MAX_PENDING_FRAMES);
+        final boolean lossy;   // Déconnectée si elle ne suit pas, au lieu de ralentir la partie
+        boolean synced;        // Première image clé reçue
+        volatile boolean closed;
+
+        Output(OutputStream out, boolean lossy) {
+            this.out = new BufferedOutputStream(out);
+            this.lossy = lossy;
+        }
+    }
+
+    private final List<Output> outputs = new CopyOnWriteArrayList<>();
+    private volatile boolean keyframeRequested = true;
+    private ServerSocket server;
+
+    // Encodage
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+    private final DataOutputStream frame = new DataOutputStream(buffer);
+    private long bytesWritten;
+
+    // Dernier état transmis
+    private int level = -1;
+    private long time;        // Millisecondes
+    private double keyframeTime;
+    private int health;
+    private int money;
+    private int wave;
+    private final List<Tower> towers = new ArrayList<>();
+    private int[] towerHealth = new int[16];
+    private final List<Enemy> enemies = new ArrayList<>();
+    private int[] enemyDistance = new int[64];
+    private int[] enemyHealth = new int[64];
+
+    // Changements de la trame en cours
+    private final List<Tower> keptTowers = new ArrayList<>();
+    private final List<Enemy> keptEnemies = new ArrayList<>();
+    private int[] changes = new int[64];
+
+    private SpectatorStream() {
+    }
+
+    /**
+     * Enregistre le flux dans un fichier, à rejouer avec {@link SpectatorView}.
+     *
+     * @throws IOException Si le fichier ne peut pas être créé.
+     */
+    public static SpectatorStream toFile(Path file) throws IOException {
+        SpectatorStream stream = new SpectatorStream();
+        stream.open(Files.newOutputStream(file), false);
+        return stream;
+    }
+
+    /**
+     * Diffuse le flux aux spectateurs connectés sur un port de la machine locale.
+     *
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public static SpectatorStream serve(int port) throws IOException {
+        SpectatorStream stream = new SpectatorStream();
+        stream.server = new ServerSocket(port, 16, InetAddress.getLoopbackAddress());
+        Thread.ofVirtual().name("spectator-accept").start(stream::acceptSpectators);
+        return stream;
+    }
+
+    private void acceptSpectators() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                open(socket.getOutputStream(), true);
+                keyframeRequested = true;
+            } catch (IOException e) {
+                // Serveur fermé, ou spectateur déconnecté aussitôt
+            }
+        }
+    }
+
+    private void open(OutputStream out, boolean lossy) throws IOException {
+        Output output = new Output(out, lossy);
+        DataOutputStream header = new DataOutputStream(output.out);
+        header.writeInt(MAGIC);
+        header.writeShort(VERSION);
+        outputs.add(output);
+        Thread.ofVirtual().name("spectator-writer").start(() -> write(output));
+    }
+
+    private void write(Output output) {
+        try (OutputStream out = output.out) {
+            while (true) {
+                byte[] frame = output.frames.take();
+                if (frame == END) break;
+                out.write(frame);
+                if (output.frames.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (IOException | InterruptedException e) {
+            // Spectateur déconnecté
+        } finally {
+            output.closed = true;
+            outputs.remove(output);
+        }
+    }
+
+    /**
+     * Retourne le nombre d'octets de trames encodées depuis le début (hors en-tête).
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Encode les changements depuis la trame précédente et les envoie aux destinations.
+     * À appeler par la boucle de jeu après chaque mise à jour.
+     */
+    public void record(Game game) {
+        if (game.currentLevel >= game.getLevels().size()) return; // Partie terminée
+
+        long now = Math.round(game.getSimulatedTime() * 1000);
+        boolean keyframe = keyframeRequested || game.currentLevel != level
+                || game.getSimulatedTime() - keyframeTime >= KEYFRAME_INTERVAL;
+        buffer.reset();
+        try {
+            frame.writeByte(keyframe ? KEYFRAME : DELTA);
+            writeVarInt(frame, (int) (keyframe ? now : now - time));
+            if (keyframe) {
+                keyframeRequested = false;
+                keyframeTime = game.getSimulatedTime();
+                writeKeyframe(game);
+            } else if (!writeDelta(game)) {
+                return; // Rien n'a changé : le temps écoulé sera compté dans la trame suivante
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Écriture en mémoire
+        }
+        time = now;
+
+        byte[] bytes = buffer.toByteArray();
+        bytesWritten += bytes.length;
+        for (Output output : outputs) {
+            if (!output.synced) {
+                if (!keyframe) continue;
+                output.synced = true;
+            }
+            send(output, bytes);
+        }
+    }
+
+    private void send(Output output, byte[] bytes) {
+        if (output.closed) return;
+        if (output.lossy) {
+            if (!output.frames.offer(bytes)) {
+                output.closed = true;
+                output.frames.clear();
+                output.frames.offer(END);
+            }
+            return;
+        }
+        try {
+            output.frames.put(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeKeyframe(Game game) throws IOException {
+        Level current = game.getLevels().get(game.currentLevel);
+        level = game.currentLevel;
+        health = game.getPlayer().getHealth();
+        money = game.getPlayer().getMoney();
+        wave = game.getWaveManager().getCurrentWaveIndex();
+        writeVarInt(frame, level);
+        frame.writeUTF(current.getName());
+        frame.writeUTF(current.getMapName());
+        writeVarInt(frame, health);
+        writeVarInt(frame, money);
+        writeVarInt(frame, wave);
+
+        towers.clear();
+        towers.addAll(game.getMap().getTowers());
+        towerHealth = ensureCapacity(towerHealth, towers.size());
+        writeVarInt(frame, towers.size());
+        for (int i = 0; i < towers.size(); i++) {
+            writeTower(game.getStore(), towers.get(i));
+            towerHealth[i] = towers.get(i).getHealth();
+        }
+
+        enemies.clear();
+        enemies.addAll(game.getWaveManager().getActiveEnemies());
+        enemyDistance = ensureCapacity(enemyDistance, enemies.size());
+        enemyHealth = ensureCapacity(enemyHealth, enemies.size());
+        writeVarInt(frame, enemies.size());
+        for (int i = 0; i < enemies.size(); i++) {
+            writeEnemy(enemies.get(i), i);
+        }
+    }
+
+    /**
+     * Écrit les changements depuis la trame précédente.
+     *
+     * @return {@code false} si rien n'a changé.
+     */
+    private boolean writeDelta(Game game) throws IOException {
+        boolean changed = false;
+        int playerHealth = game.getPlayer().getHealth();
+        int playerMoney = game.getPlayer().getMoney();
+        int waveIndex = game.getWaveManager().getCurrentWaveIndex();
+        int fields = (playerHealth != health ? PLAYER_HEALTH : 0) | (playerMoney != money ? PLAYER_MONEY : 0)
+                | (waveIndex != wave ? WAVE : 0);
+        frame.writeByte(fields);
+        if ((fields & PLAYER_HEALTH) != 0) writeSignedVarInt(frame, playerHealth - health);
+        if ((fields & PLAYER_MONEY) != 0) writeSignedVarInt(frame, playerMoney - money);
+        if ((fields & WAVE) != 0) writeVarInt(frame, waveIndex);
+        changed |= fields != 0;
+        health = playerHealth;
+        money = playerMoney;
+        wave = waveIndex;
+
+        // Tours : retirées, placées, blessées
+        Map map = game.getMap();
+        int removed = keep(towers, map.getTowers(), keptTowers);
+        writeRemoved(removed);
+        changed |= removed > 0;
+        int placed = map.getTowers().size() - keptTowers.size();
+        compact(towerHealth, removed, towers.size());
+        writeVarInt(frame, placed);
+        int index = 0;
+        for (Tower tower : map.getTowers()) {
+            if (index++ >= keptTowers.size()) {
+                writeTower(game.getStore(), tower);
+            }
+        }
+        changed |= placed > 0;
+        changed |= writeHealthChanges(keptTowers, towerHealth);
+        towers.clear();
+        towers.addAll(map.getTowers());
+        towerHealth = ensureCapacity(towerHealth, towers.size());
+        for (int i = keptTowers.size(); i < towers.size(); i++) {
+            towerHealth[i] = towers.get(i).getHealth();
+        }
+
+        // Ennemis : retirés, déplacés, blessés, apparus
+        WaveManager waveManager = game.getWaveManager();
+        List<Enemy> active = waveManager.getActiveEnemies();
+        removed = keep(enemies, active, keptEnemies);
+        writeRemoved(removed);
+        changed |= removed > 0;
+        compact(enemyDistance, removed, enemies.size());
+        compact(enemyHealth, removed, enemies.size());
+        for (int i = 0; i < keptEnemies.size(); i++) {
+            int distance = quantize(keptEnemies.get(i).getDistanceTraveled());
+            writeSignedVarInt(frame, distance - enemyDistance[i]);
+            changed |= distance != enemyDistance[i];
+            enemyDistance[i] = distance;
+        }
+        changed |= writeHealthChanges(keptEnemies, enemyHealth);
+        int spawned = active.size() - keptEnemies.size();
+        writeVarInt(frame, spawned);
+        changed |= spawned > 0;
+        enemies.clear();
+        enemies.addAll(active);
+        enemyDistance = ensureCapacity(enemyDistance, enemies.size());
+        enemyHealth = ensureCapacity(enemyHealth, enemies.size());
+        for (int i = keptEnemies.size(); i < enemies.size(); i++) {
+            writeEnemy(enemies.get(i), i);
+        }
+        return changed;
+    }
+
+    /**
+     * Sépare les entités de la trame précédente encore présentes, dans l'ordre, de celles retirées.
+     * Les entités actuelles sont celles de la trame précédente moins les retirées, plus les nouvelles
+     * à la fin ; une entité trouvée dans le désordre est traitée comme retirée puis ajoutée.
+     *
+     * @return Le nombre d'entités retirées, dont les indices sont dans {@link #changes}.
+     */
+    private <T> int keep(List<T> previous, Iterable<T> current, List<T> kept) {
+        kept.clear();
+        changes = ensureCapacity(changes, previous.size());
+        int removed = 0;
+        Iterator<T> iterator = current.iterator();
+        T next = iterator.hasNext() ? iterator.next() : null;
+        for (int i = 0; i < previous.size(); i++) {
+            if (next != null && previous.get(i) == next) {
+                kept.add(next);
+                next = iterator.hasNext() ? iterator.next() : null;
+            } else {
+                changes[removed++] = i;
+            }
+        }
+        return removed;
+    }
+
+    private void writeRemoved(int removed) throws IOException {
+        writeVarInt(frame, removed);
+        int previous = 0;
+        for (int i = 0; i < removed; i++) {
+            writeVarInt(frame, changes[i] - previous);
+            previous = changes[i];
+        }
+    }
+
+    /**
+     * Retire des valeurs par entité celles des entités retirées, dont les indices sont dans {@link #changes}.
+     */
+    private void compact(int[] values, int removed, int size) {
+        if (removed == 0) return;
+        int write = 0;
+        int r = 0;
+        for (int i = 0; i < size; i++) {
+            if (r < removed && changes[r] == i) {
+                r++;
+            } else {
+                values[write++] = values[i];
+            }
+        }
+    }
+
+    private boolean writeHealthChanges(List<? extends Entity> kept, int[] healths) throws IOException {
+        int count = 0;
+        changes = ensureCapacity(changes, kept.size());
+        for (int i = 0; i < kept.size(); i++) {
+            if (kept.get(i).getHealth() != healths[i]) {
+                changes[count++] = i;
+            }
+        }
+        writeVarInt(frame, count);
+        int previous = 0;
+        for (int c = 0; c < count; c++) {
+            int i = changes[c];
+            healths[i] = kept.get(i).getHealth();
+            writeVarInt(frame, i - previous);
+            writeVarInt(frame, Math.max(0, healths[i]));
+            previous = i;
+        }
+        return count > 0;
+    }
+
+    private void writeTower(Store store, Tower tower) throws IOException {
+        String name = store.getTowerName(tower);
+        int type = 0;
+        while (!store.getTowerInfo(type).name.equals(name)) {
+            type++;
+        }
+        frame.writeByte(type);
+        writeVarInt(frame, (int) tower.getPosition().getX());
+        writeVarInt(frame, (int) tower.getPosition().getY());
+        writeVarInt(frame, Math.max(0, tower.getHealth()));
+    }
+
+    private void writeEnemy(Enemy enemy, int index) throws IOException {
+        enemyDistance[index] = quantize(enemy.getDistanceTraveled());
+        enemyHealth[index] = enemy.getHealth();
+        frame.writeByte(EnemyType.of(enemy).ordinal());
+        writeVarInt(frame, enemyDistance[index]);
+        writeVarInt(frame, Math.max(0, enemyHealth[index]));
+    }
+
+    private static int quantize(double distance) {
+        return (int) Math.round(distance * DISTANCE_SCALE);
+    }
+
+    private static int[] ensureCapacity(int[] values, int size) {
+        return values.length >= size ? values : Arrays.copyOf(values, Math.max(size, values.length * 2));
+    }
+
+    /**
+     * Termine le flux : les trames en attente sont écrites, puis les destinations fermées.
+     */
+    @Override
+    public void close() throws IOException {
+        if (server != null) {
+            server.close();
+        }
+        for (Output output : outputs) {
+            try {
+                output.frames.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------- Entiers de taille variable
+
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    static int readSignedVarInt(DataInput in) throws IOException {
+        int value = readVarInt(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
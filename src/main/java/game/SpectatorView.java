@@ -0,0 +1,284 @@
+package game;
+
+import entity.Entity;
+import entity.Player;
+import entity.enemy.Enemy;
+import entity.enemy.EnemyType;
+import entity.tower.Tower;
+import game.map.Map;
+import game.map.Tile;
+import game.map.Viewport;
+import graphic.StdDraw;
+
+import java.awt.*;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spectateur d'une partie : reconstruit la scène à partir d'un flux {@link SpectatorStream}
+ * (fichier ou diffusion locale) et l'affiche, sans simuler la partie. Les tours et les ennemis
+ * sont de vraies entités, placées et blessées d'après le flux, et dessinées comme dans le jeu.
+ */
+public final class SpectatorView {
+    private static final double TIME_X = 900;   // Position du temps de la partie, comme la prévision du jeu
+    private static final double TIME_Y = 690;
+    private static final long FRAME_INTERVAL = 16_000_000; // Durée minimale entre deux images (en nanosecondes)
+
+    private final DataInputStream in;
+    private final Store store = new Store();
+    private final Player player = new Player();
+    private Map map;
+    private String levelName;
+    private String mapName;
+    private int wave;
+    private long time; // Temps de la partie (en millisecondes)
+    private final List<Tower> towers = new ArrayList<>();
+    private final List<Enemy> enemies = new ArrayList<>();
+    private int[] removed = new int[64];
+
+    /**
+     * @param in Le flux, en-tête compris.
+     * @throws IOException Si l'en-tête est invalide.
+     */
+    public SpectatorView(InputStream in) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        if (this.in.readInt() != 0x54445350 || this.in.readShort() != 1) {
+            throw new IOException("Not a spectator stream");
+        }
+    }
+
+    /**
+     * Ouvre un flux enregistré dans un fichier, ou diffusé sur la machine locale ("hôte:port").
+     */
+    public static SpectatorView open(String source) throws IOException {
+        int colon = source.lastIndexOf(':');
+        if (colon > 0 && !Files.exists(Path.of(source))) {
+            Socket socket = new Socket(source.substring(0, colon), Integer.parseInt(source.substring(colon + 1)));
+            return new SpectatorView(socket.getInputStream());
+        }
+        return new SpectatorView(Files.newInputStream(Path.of(source)));
+    }
+
+    public double getTime() {
+        return time / 1000.0;
+    }
+
+    public int getWave() {
+        return wave;
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public List<Tower> getTowers() {
+        return towers;
+    }
+
+    public List<Enemy> getEnemies() {
+        return enemies;
+    }
+
+    /**
+     * Lit et applique la trame suivante.
+     *
+     * @return {@code false} à la fin du flux.
+     * @throws IOException Si le flux est invalide ou la connexion perdue.
+     */
+    public boolean readFrame() throws IOException {
+        int type;
+        try {
+            type = in.readByte();
+        } catch (EOFException e) {
+            return false;
+        }
+        if (type == SpectatorStream.KEYFRAME) {
+            time = SpectatorStream.readVarInt(in);
+            readKeyframe();
+        } else if (type == SpectatorStream.DELTA) {
+            if (map == null) throw new IOException("Delta before the first keyframe");
+            time += SpectatorStream.readVarInt(in);
+            readDelta();
+        } else {
+            throw new IOException("Unknown frame type: " + type);
+        }
+        return true;
+    }
+
+    private void readKeyframe() throws IOException {
+        SpectatorStream.readVarInt(in); // Niveau
+        String level = in.readUTF();
+        String mapFile = in.readUTF();
+        if (map == null || !level.equals(levelName) || !mapFile.equals(mapName)) {
+            map = new Map(level, mapFile);
+            map.loadMap();
+            levelName = level;
+            mapName = mapFile;
+        }
+        player.restore(SpectatorStream.readVarInt(in), SpectatorStream.readVarInt(in));
+        wave = SpectatorStream.readVarInt(in);
+
+        for (Tower tower : towers) {
+            map.removeTower(tower);
+        }
+        towers.clear();
+        for (int i = SpectatorStream.readVarInt(in); i > 0; i--) {
+            readTower();
+        }
+
+        for (Enemy enemy : enemies) {
+            map.removeEnemy(enemy);
+        }
+        enemies.clear();
+        for (int i = SpectatorStream.readVarInt(in); i > 0; i--) {
+            readEnemy();
+        }
+    }
+
+    private void readDelta() throws IOException {
+        int fields = in.readByte();
+        int health = player.getHealth();
+        int money = player.getMoney();
+        if ((fields & SpectatorStream.PLAYER_HEALTH) != 0) health += SpectatorStream.readSignedVarInt(in);
+        if ((fields & SpectatorStream.PLAYER_MONEY) != 0) money += SpectatorStream.readSignedVarInt(in);
+        if ((fields & SpectatorStream.WAVE) != 0) wave = SpectatorStream.readVarInt(in);
+        player.restore(health, money);
+
+        for (Tower tower : readRemoved(towers)) {
+            map.removeTower(tower);
+        }
+        for (int i = SpectatorStream.readVarInt(in); i > 0; i--) {
+            readTower();
+        }
+        readHealthChanges(towers);
+
+        for (Enemy enemy : readRemoved(enemies)) {
+            map.removeEnemy(enemy);
+            enemy.invalidateDrawn();
+        }
+        for (Enemy enemy : enemies) {
+            int delta = SpectatorStream.readSignedVarInt(in);
+            if (delta != 0) {
+                setDistance(enemy, distanceOf(enemy) + delta);
+            }
+        }
+        readHealthChanges(enemies);
+        for (int i = SpectatorStream.readVarInt(in); i > 0; i--) {
+            readEnemy();
+        }
+    }
+
+    /**
+     * Retire d'une liste les entités désignées par le flux, et les retourne.
+     */
+    private <T> List<T> readRemoved(List<T> entities) throws IOException {
+        int count = SpectatorStream.readVarInt(in);
+        if (count == 0) return List.of();
+        if (removed.length < count) {
+            removed = new int[count * 2];
+        }
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            index += SpectatorStream.readVarInt(in);
+            removed[i] = index;
+        }
+        List<T> result = new ArrayList<>(count);
+        for (int i = count - 1; i >= 0; i--) {
+            result.add(entities.remove(removed[i]));
+        }
+        return result;
+    }
+
+    private void readHealthChanges(List<? extends Entity> entities) throws IOException {
+        int index = 0;
+        for (int i = SpectatorStream.readVarInt(in); i > 0; i--) {
+            index += SpectatorStream.readVarInt(in);
+            entities.get(index).setHealth(SpectatorStream.readVarInt(in));
+        }
+    }
+
+    private void readTower() throws IOException {
+        String name = store.getTowerInfo(in.readByte()).name;
+        int column = SpectatorStream.readVarInt(in);
+        int row = SpectatorStream.readVarInt(in);
+        Tower tower = store.createTower(name, new Point2D(column + 0.5, row + 0.5), map);
+        tower.setHealth(SpectatorStream.readVarInt(in));
+        Tile tile = map.getTileAt(column, row);
+        if (tile != null) {
+            tile.setTower(tower);
+        }
+        map.addTower(tower);
+        towers.add(tower);
+    }
+
+    private void readEnemy() throws IOException {
+        EnemyType type = EnemyType.values()[in.readByte()];
+        Enemy enemy = type.create(map.getSpawnPoint(), map.getPath());
+        enemy.setGameMap(map);
+        setDistance(enemy, SpectatorStream.readVarInt(in));
+        enemy.setHealth(SpectatorStream.readVarInt(in));
+        map.addEnemy(enemy);
+        enemies.add(enemy);
+    }
+
+    // Les distances sont transmises en entiers ; celle affichée est toujours exactement l'entier reçu
+    private static int distanceOf(Enemy enemy) {
+        return (int) Math.round(enemy.getDistanceTraveled() * SpectatorStream.DISTANCE_SCALE);
+    }
+
+    private static void setDistance(Enemy enemy, int quantized) {
+        enemy.setDistanceTraveled((double) quantized / SpectatorStream.DISTANCE_SCALE);
+    }
+
+    /**
+     * Affiche la partie jusqu'à la fin du flux.
+     *
+     * @param paced {@code true} pour rejouer au rythme de la partie (enregistrement),
+     *              {@code false} pour afficher les trames dès leur arrivée (diffusion en direct).
+     */
+    public void play(boolean paced) throws IOException {
+        StdDraw.setCanvasSize(1024, 720);
+        StdDraw.setXscale(-12, 1012);
+        StdDraw.setYscale(-10, 710);
+        StdDraw.enableDoubleBuffering();
+
+        long start = System.nanoTime();
+        long lastFrame = 0;
+        while (readFrame()) {
+            if (paced) {
+                long wait = start + time * 1_000_000 - System.nanoTime();
+                if (wait > 0) {
+                    StdDraw.pause((int) (wait / 1_000_000));
+                }
+            } else if (in.available() > 0) {
+                continue; // En retard : rattrape le direct avant d'afficher
+            }
+            if (System.nanoTime() - lastFrame >= FRAME_INTERVAL) {
+                draw();
+                lastFrame = System.nanoTime();
+            }
+        }
+        draw();
+    }
+
+    private void draw() {
+        StdDraw.invalidate();
+        StdDraw.beginFrame();
+        StdDraw.beginClip(Viewport.GAME_AREA_CENTER_X, Viewport.GAME_AREA_CENTER_Y,
+                Viewport.GAME_AREA_HALF_SIZE, Viewport.GAME_AREA_HALF_SIZE);
+        map.draw();
+        StdDraw.endClip();
+        player.draw();
+        StdDraw.setPenColor(Color.BLACK);
+        StdDraw.text(TIME_X, TIME_Y, String.format("Spectateur, vague %d, %.1f s", wave + 1, getTime()));
+        StdDraw.endFrame();
+    }
+}
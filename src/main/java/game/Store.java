@@ -2,6 +2,7 @@ package game;
 
 import entity.tower.Tower;
 import game.map.Map;
+import graphic.CachedLayer;
 import graphic.StdDraw;
 
 import entity.tower.*;
@@ -23,6 +24,9 @@ public class Store {
     private static final double TOWER_SPACING = 100;
     private static final double ICON_SIZE = 20;
 
+    private static final Color UNAFFORDABLE_COLOR = new Color(150, 150, 150); // Tours trop chères
+    private static final Color SELECTION_COLOR = new Color(0, 160, 0);        // Cadre de la tour sélectionnée
+
     // Liste des tours disponibles dans le magasin
     private final TowerInfo[] availableTowers = {
         new TowerInfo("Archer", 30, 5, 1, 2, Element.NONE, 20),
@@ -33,6 +37,15 @@ public class Store {
     };
     private Map gameMap;
 
+    // Rendu du magasin, refait uniquement quand la sélection ou les tours abordables changent.
+    // Le nom de la première tour dépasse du cadre : la zone pré-rendue s'étend jusqu'à lui.
+    private static final double LAYER_TOP = FIRST_TOWER_Y + 95;
+    private static final double LAYER_BOTTOM = STORE_CENTER_Y - STORE_HALF_HEIGHT - 2;
+    private final CachedLayer storeLayer = new CachedLayer(STORE_CENTER_X, (LAYER_TOP + LAYER_BOTTOM) / 2,
+            STORE_HALF_WIDTH + 2, (LAYER_TOP - LAYER_BOTTOM) / 2);
+    private int displayedSelection = -2;   // Index de la tour sélectionnée lors du dernier rendu
+    private int displayedAffordable = -1;  // Masque des tours abordables lors du dernier rendu
+
     /**
      * Met à jour la carte liée au magasin.
      *
@@ -53,6 +66,7 @@ public class Store {
         public double range;     // Portée
         public Element element;  // Élément de la tour
         public int cost;         // Coût de la tour
+        private String[] labels; // Textes affichés dans le magasin, formatés une seule fois
 
         /**
          * Constructeur pour initialiser une tour.
@@ -83,6 +97,24 @@ public class Store {
         public Element getElement() {
             return this.element;
         }
+
+        /**
+         * Retourne les textes décrivant la tour dans le magasin.
+         * Ils ne sont formatés qu'au premier appel.
+         *
+         * @return Le nom, les statistiques et le coût de la tour.
+         */
+        private String[] getLabels() {
+            if (labels == null) {
+                labels = new String[] {
+                    name,
+                    String.format("PV: %d | ATK: %.1f", pv, atk),
+                    String.format("SPD: %.1f | PO: %.1f", spd, range),
+                    String.format("Cost: %d", cost)
+                };
+            }
+            return labels;
+        }
     }
 
     /**
@@ -94,40 +126,96 @@ public class Store {
         // Pas de mise à jour nécessaire pour le moment
     }
 
+    /**
+     * Marque le magasin comme à redessiner si la sélection ou les tours abordables
+     * ont changé depuis le dernier affichage.
+     *
+     * @param money L'argent actuel du joueur.
+     */
+    public void invalidateIfChanged(int money) {
+        int selection = indexOf(selectedTower);
+        int affordable = 0;
+        for (int i = 0; i < availableTowers.length; i++) {
+            if (money >= availableTowers[i].cost) {
+                affordable |= 1 << i;
+            }
+        }
+
+        if (selection != displayedSelection || affordable != displayedAffordable) {
+            displayedSelection = selection;
+            displayedAffordable = affordable;
+            storeLayer.invalidate();
+        }
+    }
+
     /**
      * Dessine le magasin et les tours disponibles.
+     * Le rendu n'est refait que si le magasin a été invalidé depuis le dernier affichage.
      */
     public void draw() {
+        storeLayer.draw(this::drawStore);
+    }
+
+    /**
+     * Dessine le contenu du magasin.
+     */
+    private void drawStore() {
         // Dessine le cadre du magasin
         StdDraw.setPenColor(Color.BLACK);
         StdDraw.rectangle(STORE_CENTER_X, STORE_CENTER_Y, STORE_HALF_WIDTH, STORE_HALF_HEIGHT);
 
         // Dessine chaque tour
         for (int i = 0; i < availableTowers.length; i++) {
-            drawTowerOption(STORE_CENTER_X - 100, FIRST_TOWER_Y - (i * TOWER_SPACING), availableTowers[i]);
+            drawTowerOption(STORE_CENTER_X - 100, FIRST_TOWER_Y - (i * TOWER_SPACING), availableTowers[i],
+                    (displayedAffordable & (1 << i)) != 0, i == displayedSelection);
         }
     }
 
     /**
      * Dessine une option de tour dans le magasin.
      *
-     * @param x    Position X de la tour.
-     * @param y    Position Y de la tour.
-     * @param tower Les informations de la tour.
+     * @param x          Position X de la tour.
+     * @param y          Position Y de la tour.
+     * @param tower      Les informations de la tour.
+     * @param affordable Indique si le joueur peut acheter la tour.
+     * @param selected   Indique si la tour est sélectionnée.
      */
-    private void drawTowerOption(double x, double y, TowerInfo tower) {
+    private void drawTowerOption(double x, double y, TowerInfo tower, boolean affordable, boolean selected) {
+        // Encadre l'icône de la tour sélectionnée
+        if (selected) {
+            StdDraw.setPenColor(SELECTION_COLOR);
+            StdDraw.square(x, y, ICON_SIZE + 4);
+            StdDraw.square(x, y, ICON_SIZE + 6);
+        }
+
         // Dessine l'icône de la tour
         StdDraw.setPenColor(tower.element.getColor());
         StdDraw.filledSquare(x, y, ICON_SIZE);
 
-        // Affiche les détails de la tour
-        StdDraw.setPenColor(Color.BLACK);
+        // Affiche les détails de la tour, grisés si elle est trop chère
+        StdDraw.setPenColor(affordable ? Color.BLACK : UNAFFORDABLE_COLOR);
+        String[] labels = tower.getLabels();
         double textX = x + 120;
         double spacing = 40;
-        StdDraw.text(textX, y + spacing * 2, tower.name);
-        StdDraw.text(textX, y + spacing, String.format("PV: %d | ATK: %.1f", tower.pv, tower.atk));
-        StdDraw.text(textX, y, String.format("SPD: %.1f | PO: %.1f", tower.spd, tower.range));
-        StdDraw.text(textX, y - spacing, String.format("Cost: %d", tower.cost));
+        StdDraw.text(textX, y + spacing * 2, labels[0]);
+        StdDraw.text(textX, y + spacing, labels[1]);
+        StdDraw.text(textX, y, labels[2]);
+        StdDraw.text(textX, y - spacing, labels[3]);
+    }
+
+    /**
+     * Retourne l'index d'une tour dans la liste des tours disponibles.
+     *
+     * @param tower Les informations de la tour.
+     * @return L'index de la tour, ou -1 si elle n'est pas dans le magasin.
+     */
+    private int indexOf(TowerInfo tower) {
+        for (int i = 0; i < availableTowers.length; i++) {
+            if (availableTowers[i] == tower) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
@@ -153,6 +241,23 @@ public class Store {
         return tower;
     }
 
+    /**
+     * Retourne le nom sous lequel une tour est vendue, inverse de {@link #createTower}.
+     *
+     * @param tower La tour.
+     * @return Le nom de la tour dans le magasin.
+     */
+    public String getTowerName(Tower tower) {
+        return switch (tower) {
+            case ArcherTower t -> "Archer";
+            case WindCasterTower t -> "Wind Caster";
+            case WaterCasterTower t -> "Water Caster";
+            case EarthCasterTower t -> "Earth Caster";
+            case FireCasterTower t -> "Fire Caster";
+            default -> throw new IllegalArgumentException("Unknown tower class: " + tower.getClass().getName());
+        };
+    }
+
     /**
      * Retourne les informations d'une tour à un index donné.
      *
@@ -0,0 +1,184 @@
+package game;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Échéancier hiérarchique ("timing wheel") : associe des éléments à une date d'échéance
+ * et restitue, à chaque avancée du temps, les seuls éléments arrivés à échéance.
+ * Planifier un élément coûte O(1) et un élément qui attend longtemps n'est manipulé
+ * qu'une fois par niveau de roue, au lieu d'être examiné à chaque itération de la boucle de jeu.
+ * <p>
+ * Le temps est découpé en pas de durée fixe. Le premier niveau compte {@value #SLOTS} cases d'un pas,
+ * chaque niveau suivant {@value #SLOTS} cases {@value #SLOTS} fois plus longues. Les éléments
+ * d'une case d'un niveau supérieur sont redistribués dans les niveaux inférieurs quand leur case
+ * est atteinte. Il n'y a pas d'annulation : l'appelant ignore les éléments devenus sans objet.
+ *
+ * @param <T> Le type des éléments planifiés.
+ */
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;  // Cases par niveau
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;               // SLOTS^LEVELS pas avant le dernier niveau
+
+    /**
+     * Élément planifié, chaîné aux autres éléments de sa case.
+     */
+    private static final class Entry<T> {
+        T item;
+        long deadline;   // Échéance, en pas
+        Entry<T> next;
+    }
+
+    private final double tickDuration;   // Durée d'un pas (en secondes)
+    private final Entry<T>[][] slots;    // Premier élément de chaque case, par niveau
+    private Entry<T> due;                // Éléments déjà échus, à restituer
+    private Entry<T> free;               // Entrées réutilisables
+    private long currentTick;            // Dernier pas traité
+    private int size;                    // Nombre d'éléments planifiés
+    private int dueCount;                // Nombre d'éléments dans la liste des échus
+
+    /**
+     * Crée un échéancier vide, au temps 0.
+     *
+     * @param tickDuration Précision de l'échéancier (en secondes) : une échéance est restituée
+     *                     au plus tard un pas après sa date.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(double tickDuration) {
+        if (!(tickDuration > 0)) {
+            throw new IllegalArgumentException("tickDuration must be positive");
+        }
+        this.tickDuration = tickDuration;
+        this.slots = (Entry<T>[][]) new Entry<?>[LEVELS][SLOTS];
+    }
+
+    /**
+     * Planifie un élément.
+     *
+     * @param item Élément à restituer à l'échéance.
+     * @param time Date d'échéance (en secondes), arrondie au pas supérieur.
+     */
+    public void schedule(T item, double time) {
+        Entry<T> entry = free;
+        if (entry != null) {
+            free = entry.next;
+        } else {
+            entry = new Entry<>();
+        }
+        entry.item = item;
+        entry.deadline = (long) Math.ceil(time / tickDuration);
+        size++;
+        insert(entry);
+    }
+
+    private void insert(Entry<T> entry) {
+        long delay = entry.deadline - currentTick;
+        if (delay <= 0) {
+            entry.next = due;
+            due = entry;
+            dueCount++;
+            return;
+        }
+
+        // Niveau le plus bas dont la roue couvre le délai ; au-delà, le dernier niveau
+        // (l'élément y sera redistribué autant de fois que nécessaire)
+        int level = 0;
+        while (level < LEVELS - 1 && delay >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        int slot = (int) (entry.deadline >>> (SLOT_BITS * level)) & SLOT_MASK;
+        entry.next = slots[level][slot];
+        slots[level][slot] = entry;
+    }
+
+    /**
+     * Avance jusqu'à une date et restitue les éléments arrivés à échéance.
+     *
+     * @param time Nouvelle date (en secondes) ; une date antérieure à la précédente est ignorée.
+     * @param sink Reçoit chaque élément échu, dans un ordre quelconque.
+     */
+    public void advance(double time, Consumer<? super T> sink) {
+        long target = (long) Math.floor(time / tickDuration);
+        while (currentTick < target) {
+            if (size == dueCount) {
+                currentTick = target; // Rien à redistribuer : saut direct
+                break;
+            }
+            currentTick++;
+            int slot = (int) currentTick & SLOT_MASK;
+            if (slot == 0) {
+                cascade(1);
+            }
+            Entry<T> entry = slots[0][slot];
+            slots[0][slot] = null;
+            while (entry != null) {
+                Entry<T> next = entry.next;
+                insert(entry);
+                entry = next;
+            }
+        }
+        drainDue(sink);
+    }
+
+    /**
+     * Redistribue la case courante d'un niveau dans les niveaux inférieurs,
+     * après avoir fait de même pour le niveau supérieur si sa case change aussi.
+     */
+    private void cascade(int level) {
+        if (level >= LEVELS) return;
+
+        int slot = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        if (slot == 0) {
+            cascade(level + 1);
+        }
+        Entry<T> entry = slots[level][slot];
+        slots[level][slot] = null;
+        while (entry != null) {
+            Entry<T> next = entry.next;
+            insert(entry);
+            entry = next;
+        }
+    }
+
+    private void drainDue(Consumer<? super T> sink) {
+        while (due != null) {
+            Entry<T> entry = due;
+            due = entry.next;
+            dueCount--;
+            T item = entry.item;
+            entry.item = null;
+            entry.next = free;
+            free = entry;
+            size--;
+            sink.accept(item); // Peut replanifier des éléments
+        }
+    }
+
+    /**
+     * Retourne la date du dernier pas traité (en secondes).
+     */
+    public double getTime() {
+        return currentTick * tickDuration;
+    }
+
+    /**
+     * Retourne le nombre d'éléments planifiés et non encore restitués.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Oublie tous les éléments planifiés, sans changer la date courante.
+     */
+    public void clear() {
+        for (Entry<T>[] level : slots) {
+            Arrays.fill(level, null);
+        }
+        due = null;
+        dueCount = 0;
+        size = 0;
+    }
+}
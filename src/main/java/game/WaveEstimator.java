@@ -0,0 +1,252 @@
+package game;
+
+import entity.enemy.Enemy;
+import entity.enemy.EnemyType;
+import entity.tower.Tower;
+import game.map.Map;
+import game.map.PathCoverage;
+import game.map.Wave;
+import game.map.WaveManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * Estimation de l'issue des vagues restantes d'un niveau, sans simulation pas à pas.
+ * <p>
+ * Chaque ennemi avance à vitesse constante sur le chemin : ses dates d'entrée et de sortie de la portée
+ * de chaque tour se déduisent des portions du chemin couvertes ({@link PathCoverage}). Les ennemis sont
+ * traités dans leur ordre d'apparition : chacun reçoit, dans l'ordre chronologique, les tirs que
+ * les tours peuvent encore placer pendant qu'il est à leur portée, à au moins un délai entre deux
+ * attaques des tirs déjà prévus, avec les dégâts de {@link Tower#calculateDamage}. Un ennemi qui n'est pas tué
+ * avant la fin du chemin inflige ses dégâts au joueur. Chaque vague commence quand l'estimation
+ * de la précédente est terminée.
+ * <p>
+ * Ne sont pas pris en compte : les attaques des ennemis sur les tours et les politiques de choix de
+ * cible des tours (une tour qui vise l'ennemi le plus avancé est traitée comme les autres).
+ */
+public class WaveEstimator {
+    /**
+     * Issue estimée des vagues restantes.
+     */
+    public static final class Estimate {
+        public final int leaks;             // Ennemis arrivés à la base
+        public final int kills;             // Ennemis tués
+        public final int remainingHealth;   // Vie du joueur à la fin du niveau
+        public final double endTime;        // Date de fin du niveau (temps du niveau, en secondes)
+
+        Estimate(int leaks, int kills, int remainingHealth, double endTime) {
+            this.leaks = leaks;
+            this.kills = kills;
+            this.remainingHealth = remainingHealth;
+            this.endTime = endTime;
+        }
+    }
+
+    // Caractéristiques des ennemis, lues sur un exemplaire de chaque type
+    private final EnumMap<EnemyType, Enemy> prototypes = new EnumMap<>(EnemyType.class);
+
+    // Tours de l'estimation en cours
+    private final List<Tower> towers = new ArrayList<>();
+    private final List<double[]> windows = new ArrayList<>();  // Portions du chemin à portée, par tour
+    private double[] readyAt = new double[8];                   // Date du premier tir possible, par tour
+    private double[][] shots = new double[8][16];               // Dates des tirs déjà prévus, triées, par tour
+    private int[] shotCount = new int[8];
+    private double[] nextShot = new double[8];                  // Prochain tir sur l'ennemi en cours, par tour
+    private double pathLength;
+
+    // Résultat de l'estimation en cours
+    private int leaks;
+    private int kills;
+    private int health;
+
+    /**
+     * Estime l'issue des vagues restantes du niveau en cours.
+     *
+     * @param map          La carte, avec ses tours.
+     * @param waveManager  Le gestionnaire des vagues, avec les ennemis actifs.
+     * @param playerHealth La vie actuelle du joueur.
+     * @param extraTower   Une tour supplémentaire, pas encore placée (aperçu de placement), ou {@code null}.
+     * @return L'issue estimée.
+     */
+    public Estimate estimate(Map map, WaveManager waveManager, int playerHealth, Tower extraTower) {
+        List<Point2D> path = map.getPath();
+        double now = waveManager.getTime();
+        prepareTowers(map, path, extraTower, now);
+
+        leaks = 0;
+        kills = 0;
+        health = playerHealth;
+
+        // Ennemis déjà sur le chemin
+        double end = now;
+        for (Enemy enemy : waveManager.getActiveEnemies()) {
+            if (enemy.getHealth() <= 0) continue;
+            end = Math.max(end, resolve(enemy, now, enemy.getDistanceTraveled(), enemy.getHealth()));
+        }
+
+        // Apparitions restantes, vague par vague
+        List<Wave> waves = waveManager.getWaves();
+        for (int w = waveManager.getCurrentWaveIndex(); w < waves.size(); w++) {
+            boolean current = w == waveManager.getCurrentWaveIndex();
+            double waveStart = current && waveManager.isWaveStarted() ? waveManager.getWaveStartTime() : end;
+            List<SpawnInfo> schedule = waves.get(w).getSpawnSchedule();
+            for (int i = current ? waveManager.getCurrentSpawnIndex() : 0; i < schedule.size(); i++) {
+                SpawnInfo spawn = schedule.get(i);
+                Enemy prototype = prototype(spawn.getType(), path);
+                double spawnTime = Math.max(now, waveStart + spawn.getTime());
+                end = Math.max(end, resolve(prototype, spawnTime, 0, prototype.getMaxHealth()));
+            }
+        }
+        return new Estimate(leaks, kills, health, end);
+    }
+
+    private Enemy prototype(EnemyType type, List<Point2D> path) {
+        Enemy prototype = prototypes.get(type);
+        if (prototype == null) {
+            prototype = type.create(new Point2D(0, 0), path);
+            prototypes.put(type, prototype);
+        }
+        return prototype;
+    }
+
+    private void prepareTowers(Map map, List<Point2D> path, Tower extraTower, double now) {
+        towers.clear();
+        towers.addAll(map.getTowers());
+        if (extraTower != null) {
+            towers.add(extraTower);
+        }
+        if (readyAt.length < towers.size()) {
+            int capacity = towers.size() * 2;
+            readyAt = new double[capacity];
+            nextShot = new double[capacity];
+            shotCount = new int[capacity];
+            shots = Arrays.copyOf(shots, capacity);
+            for (int t = 0; t < capacity; t++) {
+                if (shots[t] == null) {
+                    shots[t] = new double[16];
+                }
+            }
+        }
+
+        pathLength = 0;
+        for (int i = 1; i < path.size(); i++) {
+            pathLength += path.get(i - 1).distance(path.get(i));
+        }
+
+        windows.clear();
+        for (int t = 0; t < towers.size(); t++) {
+            Tower tower = towers.get(t);
+            // Portions déjà calculées au placement ; celles de l'aperçu sont gardées avec sa tour
+            double[] coverage = tower.getPathCoverage();
+            if (coverage == null) {
+                coverage = PathCoverage.compute(path, tower.getPosition(), tower.getRange());
+                tower.setPathCoverage(coverage);
+            }
+            windows.add(coverage);
+            // Une tour qui vient d'être placée attend son délai, comme dans le jeu
+            readyAt[t] = tower == extraTower ? now + tower.attackSpeed : Math.max(now, tower.getCooldownEnd());
+            shotCount[t] = 0;
+        }
+    }
+
+    /**
+     * Résout le passage d'un ennemi : tirs des tours dans l'ordre chronologique jusqu'à sa mort
+     * ou son arrivée à la base.
+     *
+     * @param enemy     Un ennemi du type (pour ses caractéristiques et les dégâts des tours).
+     * @param startTime Date à laquelle l'ennemi est à la distance de départ.
+     * @param distance  Distance déjà parcourue sur le chemin.
+     * @param hp        Points de vie au départ.
+     * @return La date de sa mort ou de son arrivée à la base.
+     */
+    private double resolve(Enemy enemy, double startTime, double distance, int hp) {
+        double speed = enemy.getSpeed();
+        double arrival = speed > 0 ? startTime + (pathLength - distance) / speed : Double.POSITIVE_INFINITY;
+
+        for (int t = 0; t < towers.size(); t++) {
+            nextShot[t] = firstShot(t, startTime, distance, speed, arrival);
+        }
+
+        while (hp > 0) {
+            int shooter = -1;
+            for (int t = 0; t < towers.size(); t++) {
+                if (nextShot[t] <= arrival && (shooter < 0 || nextShot[t] < nextShot[shooter])) {
+                    shooter = t;
+                }
+            }
+            if (shooter < 0) break;
+
+            Tower tower = towers.get(shooter);
+            double time = nextShot[shooter];
+            hp -= (int) tower.calculateDamage(enemy);
+            addShot(shooter, time);
+            if (hp <= 0) {
+                kills++;
+                return time;
+            }
+            nextShot[shooter] = firstShot(shooter, startTime, distance, speed, arrival);
+        }
+
+        leaks++;
+        health = Math.max(0, health - enemy.getAttackPower());
+        return arrival;
+    }
+
+    /**
+     * Retourne la date du premier tir possible d'une tour sur un ennemi : pendant que l'ennemi est
+     * à sa portée, et à au moins un délai entre deux attaques de chacun des tirs déjà prévus
+     * (sur cet ennemi ou sur d'autres). L'infini si l'ennemi ne passe plus à sa portée.
+     */
+    private double firstShot(int t, double startTime, double distance, double speed, double arrival) {
+        if (speed <= 0) return Double.POSITIVE_INFINITY;
+
+        double cooldown = towers.get(t).attackSpeed;
+        double[] window = windows.get(t);
+        for (int i = 0; i < window.length; i += 2) {
+            double exit = Math.min(arrival, startTime + (Math.min(window[i + 1], pathLength) - distance) / speed);
+            double entry = startTime + Math.max(0, window[i] - distance) / speed;
+            double shot = Math.max(readyAt[t], entry);
+
+            // Décale le tir après chaque tir prévu trop proche
+            int next = firstShotAfter(t, shot - cooldown);
+            while (next < shotCount[t] && shots[t][next] < shot + cooldown) {
+                shot = shots[t][next] + cooldown;
+                next++;
+            }
+            if (shot <= exit) {
+                return shot;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Retourne l'indice du premier tir prévu d'une tour strictement après une date.
+     */
+    private int firstShotAfter(int t, double time) {
+        int low = 0;
+        int high = shotCount[t];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (shots[t][middle] <= time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void addShot(int t, double time) {
+        if (shotCount[t] == shots[t].length) {
+            shots[t] = Arrays.copyOf(shots[t], shotCount[t] * 2);
+        }
+        int index = firstShotAfter(t, time);
+        System.arraycopy(shots[t], index, shots[t], index + 1, shotCount[t] - index);
+        shots[t][index] = time;
+        shotCount[t]++;
+    }
+}
@@ -0,0 +1,28 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Retrait d'un ennemi : tué par les tours ou arrivé à la base.
+ */
+@Name("game.EnemyDeath")
+@Label("Enemy Death")
+@Category({"Tower Defense", "Gameplay"})
+public final class EnemyDeathEvent extends Event {
+    @Label("Enemy Type")
+    public String enemyType;
+
+    @Label("Reached Base")
+    public boolean reachedBase;
+
+    @Label("Distance Traveled")
+    @Description("Distance along the path (tiles)")
+    public double distanceTraveled;
+
+    @Label("Wave Index")
+    public int waveIndex;
+}
@@ -0,0 +1,23 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Apparition d'un ennemi.
+ */
+@Name("game.EnemySpawn")
+@Label("Enemy Spawn")
+@Category({"Tower Defense", "Gameplay"})
+public final class EnemySpawnEvent extends Event {
+    @Label("Enemy Type")
+    public String enemyType;
+
+    @Label("Wave File")
+    public String waveFile;
+
+    @Label("Wave Index")
+    public int waveIndex;
+}
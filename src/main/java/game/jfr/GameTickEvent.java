@@ -0,0 +1,32 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Une mise à jour de la simulation.
+ */
+@Name("game.GameTick")
+@Label("Game Tick")
+@Category({"Tower Defense", "Simulation"})
+public final class GameTickEvent extends Event {
+    @Label("Level Name")
+    public String levelName;
+
+    @Label("Simulated Time")
+    @Description("Game time at the end of the update (seconds)")
+    public double simulatedTime;
+
+    @Label("Delta Time")
+    @Description("Game time covered by the update (seconds)")
+    public double deltaTime;
+
+    @Label("Active Enemies")
+    public int activeEnemies;
+
+    @Label("Towers")
+    public int towers;
+}
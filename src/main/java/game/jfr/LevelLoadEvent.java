@@ -0,0 +1,23 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Lecture d'un niveau : fichier de niveau et fichiers de ses vagues ({@code Level}).
+ */
+@Name("game.LevelLoad")
+@Label("Level Load")
+@Category({"Tower Defense", "Loading"})
+public final class LevelLoadEvent extends Event {
+    @Label("Level Name")
+    public String levelName;
+
+    @Label("Map Name")
+    public String mapName;
+
+    @Label("Wave Count")
+    public int waveCount;
+}
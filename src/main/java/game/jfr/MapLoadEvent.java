@@ -0,0 +1,26 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Chargement d'une carte : lecture, validation, recherche du chemin et index des tours ({@code Map.loadMap}).
+ */
+@Name("game.MapLoad")
+@Label("Map Load")
+@Category({"Tower Defense", "Loading"})
+public final class MapLoadEvent extends Event {
+    @Label("Level Name")
+    public String levelName;
+
+    @Label("Map File")
+    public String mapFile;
+
+    @Label("Width")
+    public int width;
+
+    @Label("Height")
+    public int height;
+}
@@ -0,0 +1,25 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Recherche du chemin des ennemis entre l'apparition et la base d'une carte.
+ */
+@Name("game.PathSearch")
+@Label("Path Search")
+@Category({"Tower Defense", "Loading"})
+public final class PathSearchEvent extends Event {
+    @Label("Map File")
+    public String mapFile;
+
+    @Label("Paths Found")
+    public int pathsFound;
+
+    @Label("Path Length")
+    @Description("Number of tiles on the chosen path")
+    public int pathLength;
+}
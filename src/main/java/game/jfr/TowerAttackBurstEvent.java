@@ -0,0 +1,26 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Attaques des tours prêtes pendant une mise à jour.
+ */
+@Name("game.TowerAttackBurst")
+@Label("Tower Attack Burst")
+@Category({"Tower Defense", "Gameplay"})
+public final class TowerAttackBurstEvent extends Event {
+    @Label("Ready Towers")
+    public int readyTowers;
+
+    @Label("Attacks")
+    public int attacks;
+
+    @Label("Damage")
+    public int damage;
+
+    @Label("Kills")
+    public int kills;
+}
@@ -0,0 +1,31 @@
+package game.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Une vague, de sa première apparition à la disparition de ses derniers ennemis.
+ */
+@Name("game.Wave")
+@Label("Wave")
+@Category({"Tower Defense", "Gameplay"})
+public final class WaveEvent extends Event {
+    @Label("Level Name")
+    public String levelName;
+
+    @Label("Wave File")
+    public String waveFile;
+
+    @Label("Wave Index")
+    public int waveIndex;
+
+    @Label("Spawns")
+    public int spawns;
+
+    @Label("Simulated Duration")
+    @Description("Wave duration in game time (seconds)")
+    public double simulatedDuration;
+}
@@ -0,0 +1,157 @@
+package game.lockstep;
+
+import exception.DesyncException;
+import exception.GameException;
+import game.Game;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Partie coopérative à deux en lockstep : chaque client fait tourner la même simulation
+ * et n'échange que les actions des joueurs.
+ * <p>
+ * Le temps est découpé en tours de {@value #STEPS_PER_TURN} mises à jour de durée fixe.
+ * Une action faite pendant le tour {@code t} est envoyée aussitôt et exécutée par les deux clients
+ * au début du tour {@code t + }{@value #INPUT_DELAY}, ce qui laisse le temps au message d'arriver ;
+ * un tour ne commence qu'une fois le message de l'autre joueur reçu. Les actions d'un même tour
+ * sont exécutées dans l'ordre des numéros de joueur, pour que les deux clients fassent
+ * exactement les mêmes opérations.
+ * <p>
+ * Chaque message porte l'empreinte de l'état de son auteur ({@link Game#getStateChecksum()})
+ * au tour où il a été envoyé ; elle est comparée à celle de l'état local au même tour, et une
+ * différence lève une {@link DesyncException}.
+ */
+public final class LockstepSession {
+    public static final int STEPS_PER_TURN = 6;   // Mises à jour de durée fixe par tour (0,1 s)
+    public static final int INPUT_DELAY = 2;      // Tours entre l'envoi d'une action et son exécution
+    private static final int HISTORY = INPUT_DELAY + 1;
+
+    private final Game game;
+    private final Transport transport;
+    private final int playerId;                                   // 0 pour l'hôte, 1 pour l'invité
+    private final List<PlayerAction> pendingActions = new ArrayList<>(); // Actions à envoyer au prochain tour
+    private final Turn[] sentTurns = new Turn[HISTORY];           // Messages envoyés, par tour d'exécution
+    private final long[] checksums = new long[HISTORY];           // Empreintes de l'état local, par tour
+    private int turn;                                             // Prochain tour à jouer
+    private boolean turnSent;                                     // Message du tour en cours déjà envoyé
+
+    /**
+     * @param game      La partie, chargée de la même façon chez les deux joueurs.
+     * @param transport Le canal vers l'autre joueur.
+     * @param playerId  0 pour l'hôte, 1 pour l'invité.
+     */
+    public LockstepSession(Game game, Transport transport, int playerId) {
+        if (playerId != 0 && playerId != 1) {
+            throw new IllegalArgumentException("Player id must be 0 or 1");
+        }
+        this.game = game;
+        this.transport = transport;
+        this.playerId = playerId;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * Retourne le numéro du prochain tour à jouer.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Durée simulée d'un tour (en secondes).
+     */
+    public static double getTurnDuration() {
+        return STEPS_PER_TURN * Game.FIXED_STEP;
+    }
+
+    /**
+     * Programme l'achat et le placement d'une tour, exécuté chez les deux joueurs
+     * dans {@value #INPUT_DELAY} tours.
+     */
+    public void queue(PlayerAction action) {
+        pendingActions.add(action);
+    }
+
+    /**
+     * Joue le prochain tour : envoie les actions locales, attend celles de l'autre joueur,
+     * vérifie les empreintes, exécute les actions du tour puis avance la partie.
+     *
+     * @param timeoutMillis Attente maximale du message de l'autre joueur (en millisecondes).
+     * @return {@code true} si le tour a été joué, {@code false} si le message n'est pas encore arrivé
+     *         (l'appel suivant reprend l'attente) ou si la partie est terminée.
+     * @throws DesyncException Si l'état de l'autre joueur diffère de l'état local.
+     * @throws GameException   Si la connexion est perdue.
+     */
+    public boolean advanceTurn(long timeoutMillis) {
+        if (!game.isRunning()) return false;
+
+        try {
+            if (!turnSent) {
+                checksums[turn % HISTORY] = game.getStateChecksum();
+                Turn sent = new Turn(turn + INPUT_DELAY, playerId, turn, checksums[turn % HISTORY], pendingActions);
+                pendingActions.clear();
+                transport.send(sent);
+                sentTurns[sent.getNumber() % HISTORY] = sent;
+                turnSent = true;
+            }
+
+            // Les premiers tours n'ont pas d'actions : aucun message n'a pu être envoyé pour eux
+            Turn local = null;
+            Turn remote = null;
+            if (turn >= INPUT_DELAY) {
+                remote = transport.receive(timeoutMillis);
+                if (remote == null) return false;
+                if (remote.getNumber() != turn) {
+                    throw new GameException("Unexpected turn " + remote.getNumber() + ", expected " + turn);
+                }
+                long localChecksum = checksums[remote.getCheckedTurn() % HISTORY];
+                if (remote.getChecksum() != localChecksum) {
+                    throw new DesyncException(remote.getCheckedTurn(), localChecksum, remote.getChecksum());
+                }
+                local = sentTurns[turn % HISTORY];
+            }
+
+            if (local != null) {
+                execute(playerId == 0 ? local : remote);
+                execute(playerId == 0 ? remote : local);
+            }
+            game.stepFixed(STEPS_PER_TURN);
+            turn++;
+            turnSent = false;
+            return true;
+        } catch (IOException e) {
+            throw new GameException("Connection to the other player lost", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void execute(Turn turn) {
+        for (PlayerAction action : turn.getActions()) {
+            // Une action impossible est refusée de la même façon chez les deux joueurs
+            // (case prise, argent insuffisant, tour inconnue)
+            try {
+                game.placeTower(action.getTowerName(), action.getColumn(), action.getRow());
+            } catch (IllegalArgumentException e) {
+                // Ignorée
+            }
+        }
+    }
+
+    /**
+     * Ferme la connexion avec l'autre joueur.
+     */
+    public void close() {
+        try {
+            transport.close();
+        } catch (IOException e) {
+            // Connexion déjà perdue
+        }
+    }
+}
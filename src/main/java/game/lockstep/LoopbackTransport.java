@@ -0,0 +1,56 @@
+package game.lockstep;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport entre deux clients de la même JVM, par files en mémoire : pour les essais,
+ * ou pour deux parties jouées côte à côte. Les messages ne sont pas copiés ({@link Turn} est immuable).
+ */
+public final class LoopbackTransport implements Transport {
+    private static final Turn CLOSED = new Turn(-1, -1, -1, 0, List.of()); // Marque de fermeture
+
+    private final LinkedBlockingQueue<Turn> inbox = new LinkedBlockingQueue<>();
+    private LoopbackTransport peer;
+    private volatile boolean closed;
+
+    private LoopbackTransport() {
+    }
+
+    /**
+     * Crée les deux extrémités reliées d'un canal.
+     */
+    public static LoopbackTransport[] pair() {
+        LoopbackTransport first = new LoopbackTransport();
+        LoopbackTransport second = new LoopbackTransport();
+        first.peer = second;
+        second.peer = first;
+        return new LoopbackTransport[]{first, second};
+    }
+
+    @Override
+    public void send(Turn turn) throws IOException {
+        if (closed || peer.closed) throw new EOFException("Transport closed");
+        peer.inbox.add(turn);
+    }
+
+    @Override
+    public Turn receive(long timeoutMillis) throws IOException, InterruptedException {
+        Turn turn = inbox.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (turn == CLOSED) {
+            inbox.add(CLOSED); // Les appels suivants échouent aussi
+            throw new EOFException("Transport closed");
+        }
+        return turn;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        peer.inbox.add(CLOSED);
+    }
+}
@@ -0,0 +1,48 @@
+package game.lockstep;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Action d'un joueur échangée entre les clients : l'achat et le placement d'une tour,
+ * comme un clic sur la carte avec une tour sélectionnée dans la boutique.
+ */
+public final class PlayerAction {
+    private final String towerName;
+    private final int column;
+    private final int row;
+
+    public PlayerAction(String towerName, int column, int row) {
+        this.towerName = towerName;
+        this.column = column;
+        this.row = row;
+    }
+
+    public String getTowerName() {
+        return towerName;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeUTF(towerName);
+        out.writeShort(column);
+        out.writeShort(row);
+    }
+
+    static PlayerAction read(DataInput in) throws IOException {
+        return new PlayerAction(in.readUTF(), in.readShort(), in.readShort());
+    }
+
+    @Override
+    public String toString() {
+        return towerName + " (" + column + ", " + row + ")";
+    }
+}
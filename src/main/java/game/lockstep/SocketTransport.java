@@ -0,0 +1,72 @@
+package game.lockstep;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * Transport par une connexion TCP, entre deux machines d'un réseau local.
+ * Les messages sont envoyés dès leur écriture (algorithme de Nagle désactivé) : un tour
+ * ne pèse que quelques dizaines d'octets, c'est la latence qui compte.
+ */
+public final class SocketTransport implements Transport {
+    private final Socket socket;
+    private final DataInputStream in;
+    private final DataOutputStream out;
+
+    private SocketTransport(Socket socket) throws IOException {
+        this.socket = socket;
+        socket.setTcpNoDelay(true);
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+    }
+
+    /**
+     * Attend la connexion de l'autre joueur sur un port.
+     */
+    public static SocketTransport host(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port)) {
+            return new SocketTransport(server.accept());
+        }
+    }
+
+    /**
+     * Se connecte à la partie d'un autre joueur.
+     */
+    public static SocketTransport join(String host, int port) throws IOException {
+        return new SocketTransport(new Socket(host, port));
+    }
+
+    @Override
+    public synchronized void send(Turn turn) throws IOException {
+        turn.write(out);
+        out.flush();
+    }
+
+    @Override
+    public Turn receive(long timeoutMillis) throws IOException {
+        // N'attend que le début d'un message ; une fois commencé, il est lu en entier
+        if (in.available() == 0) {
+            socket.setSoTimeout((int) Math.max(1, timeoutMillis));
+            in.mark(1);
+            try {
+                if (in.read() < 0) throw new IOException("Connection closed");
+            } catch (SocketTimeoutException e) {
+                return null;
+            }
+            in.reset();
+        }
+        socket.setSoTimeout(0);
+        return Turn.read(in);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+}
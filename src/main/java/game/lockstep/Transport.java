@@ -0,0 +1,25 @@
+package game.lockstep;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Canal entre deux clients d'une partie en lockstep. Les messages arrivent dans l'ordre d'envoi.
+ */
+public interface Transport extends Closeable {
+    /**
+     * Envoie un message à l'autre client.
+     *
+     * @throws IOException Si la connexion est perdue.
+     */
+    void send(Turn turn) throws IOException;
+
+    /**
+     * Attend le prochain message de l'autre client.
+     *
+     * @param timeoutMillis Attente maximale (en millisecondes) ; 0 pour ne pas attendre.
+     * @return Le message, ou {@code null} si aucun n'est arrivé à temps.
+     * @throws IOException Si la connexion est perdue.
+     */
+    Turn receive(long timeoutMillis) throws IOException, InterruptedException;
+}
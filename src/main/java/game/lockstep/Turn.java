@@ -0,0 +1,74 @@
+package game.lockstep;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Message d'un joueur pour un tour de jeu : ses actions à exécuter au début de ce tour,
+ * et l'empreinte de son état au tour où il l'a envoyé, pour détecter une désynchronisation.
+ */
+public final class Turn {
+    private final int number;          // Tour où les actions sont exécutées
+    private final int playerId;
+    private final int checkedTurn;     // Tour dont l'état a donné l'empreinte
+    private final long checksum;
+    private final List<PlayerAction> actions;
+
+    public Turn(int number, int playerId, int checkedTurn, long checksum, List<PlayerAction> actions) {
+        this.number = number;
+        this.playerId = playerId;
+        this.checkedTurn = checkedTurn;
+        this.checksum = checksum;
+        this.actions = List.copyOf(actions);
+    }
+
+    public int getNumber() {
+        return number;
+    }
+
+    public int getPlayerId() {
+        return playerId;
+    }
+
+    public int getCheckedTurn() {
+        return checkedTurn;
+    }
+
+    public long getChecksum() {
+        return checksum;
+    }
+
+    public List<PlayerAction> getActions() {
+        return actions;
+    }
+
+    /**
+     * Écrit le message : une vingtaine d'octets, plus une dizaine par action.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(number);
+        out.writeByte(playerId);
+        out.writeInt(checkedTurn);
+        out.writeLong(checksum);
+        out.writeShort(actions.size());
+        for (PlayerAction action : actions) {
+            action.write(out);
+        }
+    }
+
+    static Turn read(DataInput in) throws IOException {
+        int number = in.readInt();
+        int playerId = in.readByte();
+        int checkedTurn = in.readInt();
+        long checksum = in.readLong();
+        int count = in.readUnsignedShort();
+        List<PlayerAction> actions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            actions.add(PlayerAction.read(in));
+        }
+        return new Turn(number, playerId, checkedTurn, checksum, actions);
+    }
+}
@@ -0,0 +1,189 @@
+package game.map;
+
+import entity.enemy.Enemy;
+import graphic.StdDraw;
+
+import java.awt.Color;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dessin simplifié des foules d'ennemis : lorsqu'une case contient trop d'ennemis,
+ * ils sont remplacés par un seul symbole (nombre d'ennemis et barre de vie cumulée)
+ * ou par une case de carte de densité. Le coût du dessin dépend alors du nombre de cases
+ * et non du nombre d'ennemis. Quand la vue est assez zoomée, chaque ennemi est dessiné.
+ */
+public class CrowdRenderer {
+	/**
+	 * Représentation des cases trop peuplées.
+	 */
+	public enum Mode {
+		GLYPH,   // Un symbole par case, avec le nombre d'ennemis et leur vie cumulée
+		HEATMAP  // Une couleur par case, selon le nombre d'ennemis
+	}
+
+	private static final int CROWD_THRESHOLD = 5;      // Nombre d'ennemis à partir duquel une case est regroupée
+	private static final double MAX_CROWD_ZOOM = 2;    // Zoom à partir duquel chaque ennemi est dessiné
+	private static final int HEATMAP_SATURATION = 40;  // Nombre d'ennemis de la couleur la plus intense
+	private static final Color[] HEAT_COLORS = new Color[16];
+	private static final Color GLYPH_COLOR = new Color(60, 60, 60);
+
+	static {
+		for (int i = 0; i < HEAT_COLORS.length; i++) {
+			HEAT_COLORS[i] = new Color(255, 40, 0, 80 + i * 10);
+		}
+	}
+
+	private final Map gameMap;
+	private final int mapWidth;
+	// Contenu de chaque case pour l'image en cours, indexé par y * largeur + x
+	private final int[] counts;
+	private final long[] health;
+	private final long[] maxHealth;
+	// Contenu de chaque case regroupée lors du dernier dessin (0 si la case n'était pas regroupée)
+	private final int[] drawnCounts;
+	private final long[] drawnHealth;
+	private Mode mode = Mode.GLYPH;
+	private Mode drawnMode = Mode.GLYPH;
+	private boolean active; // Regroupement actif pour l'image en cours (vue peu zoomée)
+
+	public CrowdRenderer(Map gameMap) {
+		this.gameMap = gameMap;
+		this.mapWidth = gameMap.getWidth();
+		int size = mapWidth * gameMap.getHeight();
+		this.counts = new int[size];
+		this.health = new long[size];
+		this.maxHealth = new long[size];
+		this.drawnCounts = new int[size];
+		this.drawnHealth = new long[size];
+	}
+
+	public Mode getMode() {
+		return mode;
+	}
+
+	public void setMode(Mode mode) {
+		this.mode = mode;
+	}
+
+	/**
+	 * Compte les ennemis de chaque case pour l'image à venir.
+	 * Doit être appelée avant {@link #isCrowded}, {@link #invalidateChangedRegions()} et {@link #draw()}.
+	 */
+	public void prepare(List<Enemy> enemies) {
+		Arrays.fill(counts, 0);
+		active = gameMap.getViewport().getZoom() < MAX_CROWD_ZOOM;
+		if (!active) return;
+
+		Arrays.fill(health, 0);
+		Arrays.fill(maxHealth, 0);
+		for (Enemy enemy : enemies) {
+			int index = indexOf(enemy);
+			if (index >= 0) {
+				counts[index]++;
+				health[index] += enemy.getHealth();
+				maxHealth[index] += enemy.getMaxHealth();
+			}
+		}
+	}
+
+	/**
+	 * Vérifie si un ennemi est dessiné par le symbole de sa case plutôt qu'individuellement.
+	 */
+	public boolean isCrowded(Enemy enemy) {
+		if (!active) return false;
+		int index = indexOf(enemy);
+		return index >= 0 && counts[index] >= CROWD_THRESHOLD;
+	}
+
+	private boolean isCrowded(int index) {
+		return active && counts[index] >= CROWD_THRESHOLD;
+	}
+
+	private int indexOf(Enemy enemy) {
+		int x = (int) Math.floor(enemy.getPosition().getX());
+		int y = (int) Math.floor(enemy.getPosition().getY());
+		if (x < 0 || x >= mapWidth || y < 0 || y >= counts.length / mapWidth) return -1;
+		return y * mapWidth + x;
+	}
+
+	/**
+	 * Marque comme à redessiner les cases visibles dont le symbole apparaît, disparaît ou change.
+	 * Seules les cases visibles ont été dessinées : les autres n'ont rien à effacer.
+	 */
+	public void invalidateChangedRegions() {
+		boolean modeChanged = mode != drawnMode;
+		Viewport viewport = gameMap.getViewport();
+		for (int y = viewport.getFirstRow(); y <= viewport.getLastRow(); y++) {
+			for (int x = viewport.getFirstColumn(); x <= viewport.getLastColumn(); x++) {
+				int index = y * mapWidth + x;
+				int count = isCrowded(index) ? counts[index] : 0;
+				if (count == 0 && drawnCounts[index] == 0) continue;
+				if (modeChanged || count != drawnCounts[index] || health[index] != drawnHealth[index]) {
+					invalidateTile(index);
+				}
+			}
+		}
+	}
+
+	private void invalidateTile(int index) {
+		Viewport viewport = gameMap.getViewport();
+		double tileSize = viewport.getTileSize();
+		StdDraw.invalidate(viewport.toScreenX(index % mapWidth + 0.5), viewport.toScreenY(index / mapWidth + 0.5),
+				tileSize / 2, tileSize / 2);
+	}
+
+	/**
+	 * Dessine le symbole des cases regroupées visibles dans la zone de jeu.
+	 */
+	public void draw() {
+		drawnMode = mode;
+		Arrays.fill(drawnCounts, 0);
+		if (!active) return;
+
+		Viewport viewport = gameMap.getViewport();
+		for (int y = viewport.getFirstRow(); y <= viewport.getLastRow(); y++) {
+			for (int x = viewport.getFirstColumn(); x <= viewport.getLastColumn(); x++) {
+				int index = y * mapWidth + x;
+				if (!isCrowded(index)) continue;
+
+				double screenX = viewport.toScreenX(x + 0.5);
+				double screenY = viewport.toScreenY(y + 0.5);
+				if (mode == Mode.HEATMAP) {
+					drawHeat(screenX, screenY, viewport.getTileSize(), counts[index]);
+				} else {
+					drawGlyph(screenX, screenY, viewport.getTileSize(), counts[index], health[index], maxHealth[index]);
+				}
+				drawnCounts[index] = counts[index];
+				drawnHealth[index] = health[index];
+			}
+		}
+	}
+
+	private void drawGlyph(double x, double y, double tileSize, int count, long health, long maxHealth) {
+		StdDraw.setPenColor(GLYPH_COLOR);
+		StdDraw.filledCircle(x, y, tileSize * 0.3);
+		StdDraw.setPenColor(Color.WHITE);
+		StdDraw.text(x, y, Integer.toString(count));
+
+		// Barre de vie cumulée de tous les ennemis de la case, dans la case
+		double barWidth = tileSize * 0.7;
+		double barHeight = Math.max(3, tileSize * 0.07);
+		double barY = y + tileSize * 0.4;
+		StdDraw.setPenColor(Color.RED);
+		StdDraw.filledRectangle(x, barY, barWidth / 2, barHeight / 2);
+		StdDraw.setPenColor(Color.GREEN);
+		double healthWidth = maxHealth > 0 ? barWidth * health / maxHealth : 0;
+		StdDraw.filledRectangle(x - (barWidth - healthWidth) / 2, barY, healthWidth / 2, barHeight / 2);
+		StdDraw.setPenColor(Color.BLACK);
+		StdDraw.rectangle(x, barY, barWidth / 2, barHeight / 2);
+	}
+
+	private void drawHeat(double x, double y, double tileSize, int count) {
+		int level = Math.min(HEAT_COLORS.length - 1, count * HEAT_COLORS.length / HEATMAP_SATURATION);
+		StdDraw.setPenColor(HEAT_COLORS[level]);
+		StdDraw.filledSquare(x, y, tileSize / 2);
+		StdDraw.setPenColor(Color.BLACK);
+		StdDraw.text(x, y, Integer.toString(count));
+	}
+}
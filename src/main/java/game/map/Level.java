@@ -1,6 +1,7 @@
 package game.map;
 
 import exception.GameException;
+import game.jfr.LevelLoadEvent;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
@@ -11,12 +12,35 @@ import java.util.List;
 public class Level {
 	private String name;
 	private String mapName;
+	private List<String> mapLayout; // Lignes de la carte, ou null pour la lire dans son fichier
 	private List<Wave> waves;
 	
 	public Level(String name) {
+		LevelLoadEvent event = new LevelLoadEvent();
+		event.begin();
 		this.name = name;
 		this.waves = new ArrayList<>();
 		loadLevelFile(name);
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.levelName = name;
+			event.mapName = mapName;
+			event.waveCount = waves.size();
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Crée un niveau qui n'est pas lu dans un fichier, par exemple pour un test de charge.
+	 *
+	 * @param mapLayout Lignes de la carte, ou null pour lire la carte mapName dans son fichier.
+	 */
+	public Level(String name, String mapName, List<String> mapLayout, List<Wave> waves) {
+		this.name = name;
+		this.mapName = mapName;
+		this.mapLayout = mapLayout;
+		this.waves = waves;
 	}
 	
 	private void loadLevelFile(String levelName) {
@@ -46,4 +70,11 @@ public class Level {
 	public List<Wave> getWaves() {
 		return waves;
 	}
+	
+	/**
+	 * Crée la carte du niveau, à charger avec {@link Map#loadMap()}.
+	 */
+	public Map createMap() {
+		return new Map(name, mapName, mapLayout);
+	}
 }
\ No newline at end of file
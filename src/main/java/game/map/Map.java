@@ -5,6 +5,8 @@ import entity.tower.Tower;
 import exception.*;
 import game.Point2D;
 import game.Store;
+import game.jfr.MapLoadEvent;
+import game.jfr.PathSearchEvent;
 import graphic.StdDraw;
 
 import java.awt.*;
@@ -15,6 +17,7 @@ import java.util.List;
 import java.util.ArrayList;
 import java.util.Set;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 
 public class Map {
 	private Tile[][] tiles;
@@ -22,19 +25,37 @@ public class Map {
 	private Point2D basePoint;
 	private List<Point2D> path;
 	private List<Enemy> enemies;
-	private List<Tower> towers;
+	private Set<Tower> towers; // Ensemble ordonné : retrait d'une tour en temps constant
+	private TowerCoverage towerCoverage; // Tours à portée de chaque case du chemin
 	private final String levelFile;
 	private final String mapFile;
+	private final List<String> layout; // Lignes de la carte, ou null pour lire son fichier
+	private Viewport viewport; // Vue de la carte dans la zone de jeu
+	private PathProgressIndex progressIndex; // Ennemis actifs triés par avancement, ou null
+	private WaveManager waveManager; // Horloge du niveau, ou null
+	private int towerVersion; // Incrémenté à chaque ajout ou retrait de tour
+	private final List<PlacementHeatmap> heatmaps = new ArrayList<>(); // Intérêt des cases, une carte par portée
 	
 	public Map(String levelFile, String mapFile) {
+		this(levelFile, mapFile, null);
+	}
+	
+	/**
+	 * @param layout Lignes de la carte, vérifiées comme celles d'un fichier, ou null pour lire
+	 *               le fichier mapFile.
+	 */
+	public Map(String levelFile, String mapFile, List<String> layout) {
 		this.levelFile = levelFile;
 		this.mapFile = mapFile;
+		this.layout = layout;
 		this.enemies = new ArrayList<>();
-		this.towers = new ArrayList<>();
+		this.towers = new LinkedHashSet<>();
 	}
 	
 	public void loadMap() {
-		List<String> lines = loadMapFile(mapFile);
+		MapLoadEvent event = new MapLoadEvent();
+		event.begin();
+		List<String> lines = layout != null ? layout : loadMapFile(mapFile);
 		validateMapDimensions(lines);
 		
 		int height = lines.size();
@@ -67,6 +88,17 @@ public class Map {
 		
 		validateSpawnAndBase(spawnCount, baseCount);
 		calculatePath();
+		viewport = new Viewport(width, height);
+		towerCoverage = new TowerCoverage(width, height, path);
+		
+		event.end();
+		if (event.shouldCommit()) {
+			event.levelName = levelFile;
+			event.mapFile = mapFile;
+			event.width = width;
+			event.height = height;
+			event.commit();
+		}
 	}
 	
 	private void validateMapDimensions(List<String> lines) {
@@ -111,7 +143,16 @@ public class Map {
 			throw new InvalidMapPathException(levelFile, mapFile, "Missing spawn or base point");
 		}
 		
+		PathSearchEvent event = new PathSearchEvent();
+		event.begin();
 		List<List<Point2D>> allPaths = findAllPaths();
+		event.end();
+		if (event.shouldCommit()) {
+			event.mapFile = mapFile;
+			event.pathsFound = allPaths.size();
+			event.pathLength = allPaths.isEmpty() ? 0 : allPaths.get(0).size();
+			event.commit();
+		}
 		
 		if (allPaths.isEmpty()) {
 			throw new InvalidMapPathException(levelFile, mapFile, "No path found from spawn to base");
@@ -179,7 +220,38 @@ public class Map {
 	}
 	
 	public void removeTower(Tower tower) {
-		towers.remove(tower);
+		if (!towers.remove(tower)) return;
+		towerVersion++;
+		
+		Tile tile = getTileAt((int) tower.getPosition().getX(), (int) tower.getPosition().getY());
+		if (tile != null && tile.getTower() == tower) {
+			tile.setTower(null);
+		}
+		towerCoverage.removeTower(tower);
+		for (PlacementHeatmap heatmap : heatmaps) {
+			heatmap.update(tower);
+		}
+		tower.invalidateDrawn(); // Efface la tour de l'écran
+	}
+	
+	public TowerCoverage getTowerCoverage() {
+		return towerCoverage;
+	}
+	
+	/**
+	 * Retourne l'intérêt des cases pour une tour d'une portée donnée, calculé à la première demande
+	 * puis tenu à jour lorsqu'une tour est placée ou détruite.
+	 */
+	public PlacementHeatmap getPlacementHeatmap(double range) {
+		// Peu de portées différentes : une recherche linéaire suffit
+		for (PlacementHeatmap heatmap : heatmaps) {
+			if (heatmap.getRange() == range) {
+				return heatmap;
+			}
+		}
+		PlacementHeatmap heatmap = new PlacementHeatmap(this, range);
+		heatmaps.add(heatmap);
+		return heatmap;
 	}
 	
 	public List<Enemy> getEnemies() {
@@ -190,11 +262,38 @@ public class Map {
 		return new ArrayList<>(towers);
 	}
 	
+	/**
+	 * Retourne un numéro qui change à chaque ajout ou retrait de tour, pour invalider
+	 * les calculs qui dépendent des tours en place.
+	 */
+	public int getTowerVersion() {
+		return towerVersion;
+	}
+	
 	public Point2D getSpawnPoint() {
 		//System.out.println("Spawn point: " + spawnPoint); // Debug
 		return spawnPoint;
 	}
 	
+	public PathProgressIndex getProgressIndex() {
+		return progressIndex;
+	}
+	
+	public void setProgressIndex(PathProgressIndex progressIndex) {
+		this.progressIndex = progressIndex;
+	}
+	
+	/**
+	 * Retourne le temps écoulé depuis le début du niveau (en secondes), 0 sans gestionnaire de vagues.
+	 */
+	public double getTime() {
+		return waveManager != null ? waveManager.getTime() : 0;
+	}
+	
+	public void setWaveManager(WaveManager waveManager) {
+		this.waveManager = waveManager;
+	}
+	
 	public List<Point2D> getPath() {
 		return new ArrayList<>(path);
 	}
@@ -224,12 +323,11 @@ public class Map {
 		return null;
 	}
 	
+	/**
+	 * Met à jour les ennemis placés directement sur la carte (spectateur). Les tours n'ont rien
+	 * à décompter : leurs délais sont des dates du niveau (voir {@link #getTime()}).
+	 */
 	public void update(double deltaTime) {
-		// Mise à jour des tours et ennemis
-		for (Tower tower : towers) {
-			tower.update(deltaTime);
-		}
-		
 		// Copie la liste pour éviter les ConcurrentModificationException
 		List<Enemy> currentEnemies = new ArrayList<>(enemies);
 		for (Enemy enemy : currentEnemies) {
@@ -240,36 +338,16 @@ public class Map {
 	public void draw() {
 		if (tiles == null) return;
 		
-		// Calcul de la taille d'une case en fonction des dimensions de la carte
-		double mapWidth = tiles[0].length;
-		double mapHeight = tiles.length;
-		
-		// Définir la zone de jeu (zone violette dans le sujet)
-		double gameAreaWidth = 700;  // comme spécifié dans le sujet
-		double gameAreaHeight = 700;
-		double gameAreaX = 350;  // centre de la zone de jeu
-		double gameAreaY = 350;
+		double squareSize = viewport.getTileSize();
 		
-		// Calcul de la taille d'une case pour qu'elle s'adapte à la zone de jeu
-		double squareSize = Math.min(gameAreaWidth / mapWidth, gameAreaHeight / mapHeight);
-		
-		// Calcul de l'offset pour centrer la carte dans la zone de jeu
-		double offsetX = gameAreaX - (mapWidth * squareSize) / 2;
-		double offsetY = gameAreaY - (mapHeight * squareSize) / 2;
-		
-		// Dessin des cases
-		for (int y = 0; y < tiles.length; y++) {
-			for (int x = 0; x < tiles[0].length; x++) {
-				// Calcul de la position réelle de la case
-				double tileX = offsetX + x * squareSize;
-				double tileY = offsetY + y * squareSize;
-				
-				// Mise à jour de la position de la tile
-				tiles[y][x].getPosition().setX(tileX);
-				tiles[y][x].getPosition().setY(tileY);
+		// Dessin des seules cases visibles dans la zone de jeu
+		for (int y = viewport.getFirstRow(); y <= viewport.getLastRow(); y++) {
+			double tileY = viewport.toScreenY(y);
+			for (int x = viewport.getFirstColumn(); x <= viewport.getLastColumn(); x++) {
+				double tileX = viewport.toScreenX(x);
 				
 				// Dessin de la tile
-				tiles[y][x].draw(squareSize);
+				tiles[y][x].draw(tileX, tileY, squareSize);
 				
 				// Dessiner les lignes de la grille
 				StdDraw.setPenColor(Color.BLACK);
@@ -278,7 +356,7 @@ public class Map {
 			}
 		}
 		
-		// Dessiner les ennemis et tours
+		// Dessiner les ennemis et tours (chaque entité ignore son dessin si elle est hors de la vue)
 		for (Enemy enemy : enemies) {
 			enemy.draw();
 		}
@@ -288,33 +366,31 @@ public class Map {
 		}
 	}
 	
+	public void invalidateChangedRegions() {
+		for (Tower tower : towers) {
+			tower.invalidateIfChanged();
+		}
+	}
+	
+	public Viewport getViewport() {
+		return viewport;
+	}
+	
+	public double getTileSize() {
+		return viewport.getTileSize();
+	}
+	
 	public Point2D getScreenPosition(Point2D gridPosition) {
-		double mapWidth = tiles[0].length;
-		double mapHeight = tiles.length;
-		double gameAreaWidth = 700;
-		double gameAreaHeight = 700;
-		double squareSize = Math.min(gameAreaWidth / mapWidth, gameAreaHeight / mapHeight);
-		double offsetX = 350 - (mapWidth * squareSize) / 2;
-		double offsetY = 350 - (mapHeight * squareSize) / 2;
-		
-		return new Point2D(
-				offsetX + gridPosition.getX() * squareSize,
-				offsetY + gridPosition.getY() * squareSize
-		);
+		return viewport.toScreen(gridPosition);
 	}
 	
 	public Tile getTileAtScreenPosition(double screenX, double screenY) {
-		double mapWidth = tiles[0].length;
-		double mapHeight = tiles.length;
-		double gameAreaWidth = 700;
-		double gameAreaHeight = 700;
-		double squareSize = Math.min(gameAreaWidth / mapWidth, gameAreaHeight / mapHeight);
-		double offsetX = 350 - (mapWidth * squareSize) / 2;
-		double offsetY = 350 - (mapHeight * squareSize) / 2;
+		// Les parties de la carte hors de la zone de jeu ne sont pas affichées
+		if (!viewport.isInGameArea(screenX, screenY)) return null;
 		
 		// Convertir les coordonnées écran en coordonnées grille
-		int gridX = (int)((screenX - offsetX) / squareSize);
-		int gridY = (int)((screenY - offsetY) / squareSize);
+		int gridX = (int) Math.floor(viewport.toGridX(screenX));
+		int gridY = (int) Math.floor(viewport.toGridY(screenY));
 		
 		return getTileAt(gridX, gridY);
 	}
@@ -323,25 +399,11 @@ public class Map {
 		if (tile == null) return false;
 		
 		// Vérifie si la case est constructible et libre
-		return tile.getType() == Tile.Type.CONSTRUCTIBLE &&
-				towers.stream().noneMatch(t ->
-						t.getPosition().getX() == tile.getPosition().getX() &&
-								t.getPosition().getY() == tile.getPosition().getY());
+		return tile.isConstructible() && !tile.hasTower();
 	}
 	
 	public Point2D getGridPosition(double screenX, double screenY) {
-		double mapWidth = tiles[0].length;
-		double mapHeight = tiles.length;
-		double gameAreaWidth = 700;
-		double gameAreaHeight = 700;
-		double squareSize = Math.min(gameAreaWidth / mapWidth, gameAreaHeight / mapHeight);
-		double offsetX = 350 - (mapWidth * squareSize) / 2;
-		double offsetY = 350 - (mapHeight * squareSize) / 2;
-		
-		return new Point2D(
-				(screenX - offsetX) / squareSize,
-				(screenY - offsetY) / squareSize
-		);
+		return viewport.toGrid(screenX, screenY);
 	}
 	
 	public int getWidth() {
@@ -354,8 +416,15 @@ public class Map {
 	
 	public void addTower(Tower tower) {
 		towers.add(tower);
+		towerVersion++;
+		// Portions du chemin à portée, calculées une fois pour toutes : la tour ne bouge pas
+		tower.setPathCoverage(PathCoverage.compute(path, tower.getPosition(), tower.getRange()));
+		towerCoverage.addTower(tower);
+		for (PlacementHeatmap heatmap : heatmaps) {
+			heatmap.update(tower);
+		}
 		// Trouver et mettre à jour la case correspondante
-		Tile tile = getTileAtScreenPosition(tower.getPosition().getX(), tower.getPosition().getY());
+		Tile tile = getTileAt((int) tower.getPosition().getX(), (int) tower.getPosition().getY());
 		if (tile != null) {
 			tile.setTower(tower);
 		}
@@ -363,10 +432,10 @@ public class Map {
 	
 	public void drawPlacementPreview(Tile hoveredTile, Store.TowerInfo selectedTower) {
 		if (hoveredTile != null && selectedTower != null) {
-			double tileSize = 700.0 / Math.max(getWidth(), getHeight());
-			Point2D pos = hoveredTile.getPosition();
+			double tileSize = viewport.getTileSize();
+			Point2D pos = viewport.toScreen(hoveredTile.getPosition());
 			
-			if (hoveredTile.isConstructible() && !hoveredTile.hasTower()) {
+			if (canPlaceTower(hoveredTile)) {
 				// Afficher un aperçu vert
 				StdDraw.setPenColor(new Color(0, 255, 0, 128));
 			} else {
@@ -0,0 +1,73 @@
+package game.map;
+
+import game.Point2D;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Portions du chemin des ennemis couvertes par un disque (la portée d'une tour),
+ * exprimées en distance parcourue depuis le spawn. Un ennemi est à portée si et seulement si
+ * sa distance parcourue tombe dans l'un des intervalles.
+ */
+public final class PathCoverage {
+	private PathCoverage() {
+	}
+	
+	/**
+	 * Calcule les intervalles de distance parcourue où le chemin est à portée d'un point.
+	 *
+	 * @param path   Le chemin, en coordonnées de la grille.
+	 * @param center Le centre de la portée, en coordonnées de la grille.
+	 * @param radius La portée, en cases.
+	 * @return Les bornes des intervalles triés et disjoints, à plat : début0, fin0, début1, fin1...
+	 *         Le dernier intervalle s'étend à l'infini s'il atteint la fin du chemin,
+	 *         les ennemis arrivés à la base restant sur le dernier point.
+	 */
+	public static double[] compute(List<Point2D> path, Point2D center, double radius) {
+		double[] bounds = new double[8];
+		int count = 0;
+		double accumulated = 0;
+		
+		for (int i = 1; i < path.size(); i++) {
+			Point2D a = path.get(i - 1);
+			Point2D b = path.get(i);
+			double dx = b.getX() - a.getX();
+			double dy = b.getY() - a.getY();
+			double length = Math.sqrt(dx * dx + dy * dy);
+			if (length == 0) continue;
+			
+			// Points a + t (b - a) du segment à distance <= radius du centre : A t² + B t + C <= 0
+			double fx = a.getX() - center.getX();
+			double fy = a.getY() - center.getY();
+			double qa = dx * dx + dy * dy;
+			double qb = 2 * (fx * dx + fy * dy);
+			double qc = fx * fx + fy * fy - radius * radius;
+			double discriminant = qb * qb - 4 * qa * qc;
+			if (discriminant >= 0) {
+				double root = Math.sqrt(discriminant);
+				double t0 = Math.max(0, (-qb - root) / (2 * qa));
+				double t1 = Math.min(1, (-qb + root) / (2 * qa));
+				if (t0 <= t1) {
+					double start = accumulated + t0 * length;
+					double end = accumulated + t1 * length;
+					if (count > 0 && start <= bounds[count - 1] + 1e-9) {
+						bounds[count - 1] = Math.max(bounds[count - 1], end); // Prolonge l'intervalle précédent
+					} else {
+						if (count == bounds.length) {
+							bounds = Arrays.copyOf(bounds, count * 2);
+						}
+						bounds[count++] = start;
+						bounds[count++] = end;
+					}
+				}
+			}
+			accumulated += length;
+		}
+		
+		if (count > 0 && bounds[count - 1] >= accumulated - 1e-9) {
+			bounds[count - 1] = Double.POSITIVE_INFINITY;
+		}
+		return Arrays.copyOf(bounds, count);
+	}
+}
@@ -0,0 +1,92 @@
+package game.map;
+
+import entity.enemy.Enemy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ennemis actifs triés par distance parcourue sur le chemin, du moins avancé au plus avancé.
+ * Comme tous les ennemis suivent le même chemin, l'ordre change peu d'une mise à jour
+ * à l'autre (seuls les dépassements entre ennemis de vitesses différentes le modifient) :
+ * un tri par insertion le rétablit en temps quasi linéaire.
+ * Permet de trouver l'ennemi le plus avancé dans un intervalle de distance par recherche dichotomique.
+ */
+public class PathProgressIndex {
+	private final List<Enemy> enemies = new ArrayList<>();
+	
+	public void add(Enemy enemy) {
+		enemies.add(upperBound(enemy.getDistanceTraveled()), enemy);
+	}
+	
+	public void remove(Enemy enemy) {
+		// Cherche à partir de la position attendue, puis de part et d'autre (ex aequo)
+		int index = upperBound(enemy.getDistanceTraveled()) - 1;
+		for (int i = index; i >= 0; i--) {
+			if (enemies.get(i) == enemy) {
+				enemies.remove(i);
+				return;
+			}
+		}
+		enemies.remove(enemy);
+	}
+	
+	public void clear() {
+		enemies.clear();
+	}
+	
+	public int size() {
+		return enemies.size();
+	}
+	
+	/**
+	 * Rétablit l'ordre après le déplacement des ennemis.
+	 */
+	public void reorder() {
+		for (int i = 1; i < enemies.size(); i++) {
+			Enemy enemy = enemies.get(i);
+			double distance = enemy.getDistanceTraveled();
+			int j = i - 1;
+			if (enemies.get(j).getDistanceTraveled() <= distance) continue;
+			while (j >= 0 && enemies.get(j).getDistanceTraveled() > distance) {
+				enemies.set(j + 1, enemies.get(j));
+				j--;
+			}
+			enemies.set(j + 1, enemy);
+		}
+	}
+	
+	/**
+	 * Retourne l'ennemi le plus avancé dont la distance parcourue est dans l'un des intervalles.
+	 *
+	 * @param bounds Intervalles triés et disjoints, à plat (voir {@link PathCoverage#compute}).
+	 * @return L'ennemi le plus avancé dans les intervalles, ou {@code null} s'il n'y en a pas.
+	 */
+	public Enemy furthestWithin(double[] bounds) {
+		// Les intervalles sont parcourus du plus avancé au moins avancé : le premier trouvé est le bon
+		for (int i = bounds.length - 2; i >= 0; i -= 2) {
+			int index = upperBound(bounds[i + 1]) - 1;
+			if (index >= 0 && enemies.get(index).getDistanceTraveled() >= bounds[i]) {
+				return enemies.get(index);
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Retourne la position du premier ennemi dont la distance parcourue dépasse une valeur.
+	 */
+	private int upperBound(double distance) {
+		int low = 0;
+		int high = enemies.size();
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (enemies.get(middle).getDistanceTraveled() <= distance) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
@@ -0,0 +1,198 @@
+package game.map;
+
+import entity.tower.Tower;
+import game.Point2D;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Intérêt de chaque case constructible pour une tour d'une portée donnée : la longueur de chemin
+ * qu'elle couvrirait et qu'aucune tour en place ne couvre encore.
+ * <p>
+ * Les portions du chemin à portée de chaque case sont calculées une seule fois, à la création.
+ * Quand une tour est placée ou détruite, seules les cases dont les portions recoupent celles
+ * de la tour sont réévaluées.
+ */
+public class PlacementHeatmap {
+	private final Map map;
+	private final double range;
+	private final int width;
+	private final double pathLength;
+	private final double[][] coverage;   // Portions du chemin à portée, par case (null si non constructible)
+	private final double[] first;        // Début de la première portion, par case
+	private final double[] last;         // Fin de la dernière portion, par case
+	private final double[] value;        // Longueur de chemin couverte par la case et pas encore par une tour
+	private double maxValue;             // Plus grande longueur couverte par une case, sans tour en place
+	private double[] covered = new double[0]; // Union des portions couvertes par les tours, à plat
+	private int version;                 // Incrémenté à chaque changement des valeurs
+
+	public PlacementHeatmap(Map map, double range) {
+		this.map = map;
+		this.range = range;
+		this.width = map.getWidth();
+
+		List<Point2D> path = map.getPath();
+		double length = 0;
+		for (int i = 1; i < path.size(); i++) {
+			length += path.get(i - 1).distance(path.get(i));
+		}
+		this.pathLength = length;
+
+		int tiles = width * map.getHeight();
+		coverage = new double[tiles][];
+		first = new double[tiles];
+		last = new double[tiles];
+		value = new double[tiles];
+		for (int index = 0; index < tiles; index++) {
+			Tile tile = map.getTileAt(index % width, index / width);
+			if (tile == null || !tile.isConstructible()) continue;
+
+			Point2D center = new Point2D(index % width + 0.5, index / width + 0.5);
+			coverage[index] = PathCoverage.compute(path, center, range);
+			if (coverage[index].length > 0) {
+				first[index] = coverage[index][0];
+				last[index] = Math.min(coverage[index][coverage[index].length - 1], pathLength);
+			}
+			maxValue = Math.max(maxValue, uncoveredLength(coverage[index]));
+		}
+
+		update(null);
+	}
+
+	public double getRange() {
+		return range;
+	}
+
+	/**
+	 * Retourne l'intérêt d'une case, entre 0 et 1 (rapporté à la meilleure case sans tour en place).
+	 *
+	 * @return L'intérêt, ou 0 si la case n'est pas constructible.
+	 */
+	public double getValue(int x, int y) {
+		return maxValue > 0 ? value[y * width + x] / maxValue : 0;
+	}
+
+	/**
+	 * Retourne un numéro incrémenté à chaque changement des valeurs, pour savoir s'il faut redessiner.
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Réévalue les cases concernées par une tour placée ou détruite.
+	 *
+	 * @param tower La tour, avec ses portions de chemin à portée ; {@code null} pour tout réévaluer.
+	 */
+	public final void update(Tower tower) {
+		covered = union(map.getTowers());
+
+		// Portions du chemin où les valeurs peuvent changer
+		double[] changed = null;
+		double from = Double.NEGATIVE_INFINITY;
+		double to = Double.POSITIVE_INFINITY;
+		if (tower != null) {
+			changed = tower.getPathCoverage();
+			if (changed == null || changed.length == 0) return; // La tour n'atteint pas le chemin
+			from = changed[0];
+			to = changed[changed.length - 1];
+		}
+
+		for (int index = 0; index < coverage.length; index++) {
+			double[] intervals = coverage[index];
+			if (intervals == null || intervals.length == 0) continue;
+			if (last[index] < from || first[index] > to) continue;
+			if (changed != null && !overlaps(intervals, changed)) continue;
+
+			value[index] = uncoveredLength(intervals);
+		}
+		version++;
+	}
+
+	/**
+	 * Indique si deux listes de portions triées ont une partie commune.
+	 */
+	private static boolean overlaps(double[] a, double[] b) {
+		int i = 0;
+		int j = 0;
+		while (i < a.length && j < b.length) {
+			if (a[i + 1] < b[j]) {
+				i += 2;
+			} else if (b[j + 1] < a[i]) {
+				j += 2;
+			} else {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Retourne l'union triée et disjointe des portions couvertes par des tours.
+	 */
+	private double[] union(List<Tower> towers) {
+		List<double[]> intervals = new ArrayList<>();
+		for (Tower tower : towers) {
+			double[] bounds = tower.getPathCoverage();
+			if (bounds == null) continue;
+			for (int i = 0; i < bounds.length; i += 2) {
+				intervals.add(new double[]{bounds[i], Math.min(bounds[i + 1], pathLength)});
+			}
+		}
+		intervals.sort((a, b) -> Double.compare(a[0], b[0]));
+
+		double[] merged = new double[intervals.size() * 2];
+		int size = 0;
+		for (double[] interval : intervals) {
+			if (size > 0 && interval[0] <= merged[size - 1]) {
+				merged[size - 1] = Math.max(merged[size - 1], interval[1]);
+			} else {
+				merged[size++] = interval[0];
+				merged[size++] = interval[1];
+			}
+		}
+		return Arrays.copyOf(merged, size);
+	}
+
+	/**
+	 * Retourne la longueur des portions qui ne sont pas déjà couvertes par une tour.
+	 */
+	private double uncoveredLength(double[] intervals) {
+		double length = 0;
+		int c = firstCoveredEndingAfter(intervals.length > 0 ? intervals[0] : 0);
+		for (int i = 0; i < intervals.length; i += 2) {
+			double start = intervals[i];
+			double end = Math.min(intervals[i + 1], pathLength);
+			if (end <= start) continue;
+			length += end - start;
+
+			// Retire les parties couvertes par les tours (portions triées des deux côtés)
+			while (c < covered.length && covered[c + 1] <= start) {
+				c += 2;
+			}
+			for (int k = c; k < covered.length && covered[k] < end; k += 2) {
+				length -= Math.min(end, covered[k + 1]) - Math.max(start, covered[k]);
+			}
+		}
+		return length;
+	}
+
+	/**
+	 * Retourne l'indice de la première portion couverte qui se termine après une distance.
+	 */
+	private int firstCoveredEndingAfter(double distance) {
+		int low = 0;
+		int high = covered.length / 2;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (covered[2 * middle + 1] <= distance) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return 2 * low;
+	}
+}
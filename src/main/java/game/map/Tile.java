@@ -70,20 +70,14 @@ public class Tile {
 		return tower != null;
 	}
 	
-	public void draw(double squareSize) {
-		// Dessin du carré de la case
+	public void draw(double screenX, double screenY, double squareSize) {
+		// Dessin du carré de la case, à partir de son coin à l'écran
+		// (la tour éventuelle est dessinée par la carte, au-dessus de toutes les cases)
 		StdDraw.setPenColor(type.getColor());
 		StdDraw.filledSquare(
-				position.getX() + squareSize/2,
-				position.getY() + squareSize/2,
+				screenX + squareSize/2,
+				screenY + squareSize/2,
 				squareSize/2
 		);
-		
-		// Si une tour est présente sur la case, la dessiner
-		if (tower != null) {
-			// On utilise déjà la position stockée dans la tour car elle a été correctement
-			// initialisée au centre de la case lors de la création
-			tower.draw();
-		}
 	}
 }
\ No newline at end of file
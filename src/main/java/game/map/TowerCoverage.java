@@ -0,0 +1,124 @@
+package game.map;
+
+import entity.tower.Tower;
+import game.Point2D;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tours susceptibles d'être à portée d'un ennemi, pour chaque case du chemin et chaque portée.
+ * Une table est créée à la première demande pour une portée donnée (une par type d'ennemi
+ * en pratique), puis tenue à jour lorsqu'une tour est placée ou détruite.
+ * Les listes contiennent les tours à portée d'au moins un point de la case : l'ennemi
+ * vérifie ensuite la portée exacte depuis sa position, sur cette liste courte.
+ */
+public class TowerCoverage {
+	// Distance maximale entre le centre d'une case et l'un de ses points
+	private static final double HALF_DIAGONAL = Math.sqrt(2) / 2;
+
+	private final int width;
+	private final int height;
+	private final boolean[] pathCells;               // Cases traversées par le chemin
+	private final Set<Tower> towers = new LinkedHashSet<>(); // Tours en place
+	private final List<Double> ranges = new ArrayList<>();
+	private final List<List<List<Tower>>> layers = new ArrayList<>(); // Une table par portée, indexée par case
+
+	public TowerCoverage(int width, int height, List<Point2D> path) {
+		this.width = width;
+		this.height = height;
+		this.pathCells = new boolean[width * height];
+		for (Point2D point : path) {
+			pathCells[indexOf(point.getX(), point.getY())] = true;
+		}
+	}
+
+	private int indexOf(double x, double y) {
+		int column = Math.max(0, Math.min(width - 1, (int) Math.floor(x)));
+		int row = Math.max(0, Math.min(height - 1, (int) Math.floor(y)));
+		return row * width + column;
+	}
+
+	/**
+	 * Retourne les tours pouvant être à portée d'une position du chemin.
+	 *
+	 * @param position La position, en coordonnées de la grille.
+	 * @param range    La portée, en cases.
+	 * @return Les tours candidates, à ne pas modifier ; vide si la position n'est pas sur le chemin.
+	 */
+	public List<Tower> towersNear(Point2D position, double range) {
+		int index = indexOf(position.getX(), position.getY());
+		if (!pathCells[index]) return Collections.emptyList();
+
+		List<Tower> cell = layerFor(range).get(index);
+		return cell != null ? cell : Collections.emptyList();
+	}
+
+	public void addTower(Tower tower) {
+		towers.add(tower);
+		for (int i = 0; i < layers.size(); i++) {
+			updateLayer(layers.get(i), ranges.get(i), tower, true);
+		}
+	}
+
+	public void removeTower(Tower tower) {
+		towers.remove(tower);
+		for (int i = 0; i < layers.size(); i++) {
+			updateLayer(layers.get(i), ranges.get(i), tower, false);
+		}
+	}
+
+	private List<List<Tower>> layerFor(double range) {
+		// Peu de portées différentes : une recherche linéaire suffit
+		for (int i = 0; i < ranges.size(); i++) {
+			if (ranges.get(i) == range) {
+				return layers.get(i);
+			}
+		}
+
+		List<List<Tower>> layer = new ArrayList<>(Collections.nCopies(width * height, null));
+		for (Tower tower : towers) {
+			updateLayer(layer, range, tower, true);
+		}
+		ranges.add(range);
+		layers.add(layer);
+		return layer;
+	}
+
+	/**
+	 * Ajoute une tour aux cases du chemin qu'elle peut atteindre, ou l'en retire.
+	 */
+	private void updateLayer(List<List<Tower>> layer, double range, Tower tower, boolean add) {
+		double reach = range + HALF_DIAGONAL;
+		Point2D position = tower.getPosition();
+		int minColumn = Math.max(0, (int) Math.floor(position.getX() - reach));
+		int maxColumn = Math.min(width - 1, (int) Math.floor(position.getX() + reach));
+		int minRow = Math.max(0, (int) Math.floor(position.getY() - reach));
+		int maxRow = Math.min(height - 1, (int) Math.floor(position.getY() + reach));
+
+		for (int y = minRow; y <= maxRow; y++) {
+			for (int x = minColumn; x <= maxColumn; x++) {
+				int index = y * width + x;
+				if (!pathCells[index]) continue;
+
+				double dx = x + 0.5 - position.getX();
+				double dy = y + 0.5 - position.getY();
+				if (dx * dx + dy * dy > reach * reach) continue;
+
+				List<Tower> cell = layer.get(index);
+				if (add) {
+					if (cell == null) {
+						cell = new ArrayList<>(4);
+						layer.set(index, cell);
+					}
+					cell.add(tower);
+				} else if (cell != null) {
+					cell.remove(tower);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,165 @@
+package game.map;
+
+import game.Point2D;
+
+/**
+ * Vue de la carte dans la zone de jeu : conversion grille <-> écran, zoom, déplacement
+ * et zone visible. La transformation (taille d'une case et décalage) n'est recalculée
+ * que lorsque le zoom ou le déplacement changent.
+ */
+public final class Viewport {
+	// Zone de jeu (zone violette dans le sujet)
+	public static final double GAME_AREA_CENTER_X = 350;
+	public static final double GAME_AREA_CENTER_Y = 350;
+	public static final double GAME_AREA_HALF_SIZE = 350;
+
+	private static final double MAX_ZOOM = 8;
+
+	private final int mapWidth;
+	private final int mapHeight;
+	private double zoom = 1;      // 1 = toute la carte est visible
+	private double centerX;       // Point de la grille affiché au centre de la zone de jeu
+	private double centerY;
+	private int version;          // Incrémenté à chaque changement de la vue
+
+	// Transformation en cache : écran = décalage + grille * taille d'une case
+	private double squareSize;
+	private double offsetX;
+	private double offsetY;
+
+	// Cases visibles, bornes incluses
+	private int firstColumn;
+	private int lastColumn;
+	private int firstRow;
+	private int lastRow;
+
+	public Viewport(int mapWidth, int mapHeight) {
+		this.mapWidth = mapWidth;
+		this.mapHeight = mapHeight;
+		this.centerX = mapWidth / 2.0;
+		this.centerY = mapHeight / 2.0;
+		updateTransform();
+	}
+
+	private void updateTransform() {
+		// Taille d'une case pour que la carte entière tienne dans la zone de jeu, puis zoom
+		double fitSize = Math.min(2 * GAME_AREA_HALF_SIZE / mapWidth, 2 * GAME_AREA_HALF_SIZE / mapHeight);
+		squareSize = fitSize * zoom;
+
+		// Empêche de déplacer la carte au-delà de ses bords
+		centerX = clampCenter(centerX, mapWidth);
+		centerY = clampCenter(centerY, mapHeight);
+		offsetX = GAME_AREA_CENTER_X - centerX * squareSize;
+		offsetY = GAME_AREA_CENTER_Y - centerY * squareSize;
+
+		firstColumn = Math.max(0, (int) Math.floor(toGridX(GAME_AREA_CENTER_X - GAME_AREA_HALF_SIZE)));
+		lastColumn = Math.min(mapWidth - 1, (int) Math.floor(toGridX(GAME_AREA_CENTER_X + GAME_AREA_HALF_SIZE)));
+		firstRow = Math.max(0, (int) Math.floor(toGridY(GAME_AREA_CENTER_Y - GAME_AREA_HALF_SIZE)));
+		lastRow = Math.min(mapHeight - 1, (int) Math.floor(toGridY(GAME_AREA_CENTER_Y + GAME_AREA_HALF_SIZE)));
+		version++;
+	}
+
+	private double clampCenter(double center, int size) {
+		double halfVisible = GAME_AREA_HALF_SIZE / squareSize;
+		if (halfVisible * 2 >= size) {
+			return size / 2.0; // La carte tient entièrement : elle reste centrée
+		}
+		return Math.max(halfVisible, Math.min(size - halfVisible, center));
+	}
+
+	/**
+	 * Zoome d'un facteur donné en gardant fixe le point de la carte sous la position écran donnée.
+	 */
+	public void zoomAt(double factor, double screenX, double screenY) {
+		double newZoom = Math.max(1, Math.min(MAX_ZOOM, zoom * factor));
+		if (newZoom == zoom) return;
+
+		double gridX = toGridX(screenX);
+		double gridY = toGridY(screenY);
+		double newSquareSize = squareSize * newZoom / zoom;
+		zoom = newZoom;
+		centerX = gridX - (screenX - GAME_AREA_CENTER_X) / newSquareSize;
+		centerY = gridY - (screenY - GAME_AREA_CENTER_Y) / newSquareSize;
+		updateTransform();
+	}
+
+	/**
+	 * Déplace la vue d'un déplacement donné en pixels : la carte suit le déplacement.
+	 */
+	public void pan(double screenDeltaX, double screenDeltaY) {
+		if (screenDeltaX == 0 && screenDeltaY == 0) return;
+
+		centerX -= screenDeltaX / squareSize;
+		centerY -= screenDeltaY / squareSize;
+		updateTransform();
+	}
+
+	public double getTileSize() {
+		return squareSize;
+	}
+
+	public double getZoom() {
+		return zoom;
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public double toScreenX(double gridX) {
+		return offsetX + gridX * squareSize;
+	}
+
+	public double toScreenY(double gridY) {
+		return offsetY + gridY * squareSize;
+	}
+
+	public double toGridX(double screenX) {
+		return (screenX - offsetX) / squareSize;
+	}
+
+	public double toGridY(double screenY) {
+		return (screenY - offsetY) / squareSize;
+	}
+
+	public Point2D toScreen(Point2D gridPosition) {
+		return new Point2D(toScreenX(gridPosition.getX()), toScreenY(gridPosition.getY()));
+	}
+
+	public Point2D toGrid(double screenX, double screenY) {
+		return new Point2D(toGridX(screenX), toGridY(screenY));
+	}
+
+	/**
+	 * Vérifie si une position écran est dans la zone de jeu.
+	 */
+	public boolean isInGameArea(double screenX, double screenY) {
+		return Math.abs(screenX - GAME_AREA_CENTER_X) <= GAME_AREA_HALF_SIZE &&
+				Math.abs(screenY - GAME_AREA_CENTER_Y) <= GAME_AREA_HALF_SIZE;
+	}
+
+	/**
+	 * Vérifie si un dessin centré sur une position de la grille, d'une demi-taille donnée
+	 * en pixels, apparaît au moins en partie dans la zone de jeu.
+	 */
+	public boolean isVisible(Point2D gridPosition, double halfSize) {
+		return Math.abs(toScreenX(gridPosition.getX()) - GAME_AREA_CENTER_X) <= GAME_AREA_HALF_SIZE + halfSize &&
+				Math.abs(toScreenY(gridPosition.getY()) - GAME_AREA_CENTER_Y) <= GAME_AREA_HALF_SIZE + halfSize;
+	}
+
+	public int getFirstColumn() {
+		return firstColumn;
+	}
+
+	public int getLastColumn() {
+		return lastColumn;
+	}
+
+	public int getFirstRow() {
+		return firstRow;
+	}
+
+	public int getLastRow() {
+		return lastRow;
+	}
+}
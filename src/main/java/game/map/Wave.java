@@ -10,11 +10,11 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Wave {
 	private List<SpawnInfo> spawnSchedule;
-	private double elapsedTime;
 	private int currentEnemyIndex;
 	private final String levelFile;
 	private final String waveFile;
@@ -24,11 +24,20 @@ public class Wave {
 		this.levelFile = levelFile;
 		this.waveFile = waveFile;
 		this.spawnSchedule = new ArrayList<>();
-		this.elapsedTime = 0;
 		this.currentEnemyIndex = 0;
 		loadWaveFromFile(waveFile);
 	}
 	
+	/**
+	 * Crée une vague qui n'est pas lue dans un fichier, à partir d'apparitions triées par date.
+	 */
+	public Wave(String levelFile, String waveFile, List<SpawnInfo> spawnSchedule) {
+		this.levelFile = levelFile;
+		this.waveFile = waveFile;
+		this.spawnSchedule = new ArrayList<>(spawnSchedule);
+		this.currentEnemyIndex = 0;
+	}
+	
 	private void loadWaveFromFile(String filename) {
 		try (BufferedReader reader = new BufferedReader(
 				new FileReader("resources/waves/" + filename + ".wve"))) {
@@ -63,23 +72,26 @@ public class Wave {
 		}
 	}
 	
-	public Enemy update(double deltaTime) {
-		elapsedTime += deltaTime;
-		
-		if (currentEnemyIndex < spawnSchedule.size()) {
-			SpawnInfo nextSpawn = spawnSchedule.get(currentEnemyIndex);
-			
-			if (elapsedTime >= nextSpawn.getTime()) {
-				currentEnemyIndex++;
-				return createEnemy(
-						nextSpawn.getType(),
-						nextSpawn.getLineNumber(),
-						nextSpawn.getLineContent()
-				);
-			}
-		}
-		
-		return null;
+	/**
+	 * Retourne la date de la prochaine apparition, depuis le début de la vague (en secondes).
+	 * Ne doit pas être appelée si la vague est terminée ({@link #isComplete()}).
+	 */
+	public double getNextSpawnTime() {
+		return spawnSchedule.get(currentEnemyIndex).getTime();
+	}
+	
+	/**
+	 * Crée l'ennemi de la prochaine apparition et passe à la suivante.
+	 * Le moment de l'apparition est décidé par l'appelant (voir {@link WaveManager}).
+	 */
+	public Enemy spawnNext() {
+		SpawnInfo nextSpawn = spawnSchedule.get(currentEnemyIndex);
+		currentEnemyIndex++;
+		return createEnemy(
+				nextSpawn.getType(),
+				nextSpawn.getLineNumber(),
+				nextSpawn.getLineContent()
+		);
 	}
 	
 	private Enemy createEnemy(EnemyType type, int lineNumber, String lineContent) {
@@ -87,15 +99,7 @@ public class Wave {
 		List<Point2D> path = gameMap.getPath();
 		
 		try {
-			Enemy enemy = switch (type) {
-				case MINION -> new MinionEnemy(spawnPoint, path);
-				case WIND_GROGNARD -> new WindGrognardEnemy(spawnPoint, path);
-				case FIRE_GROGNARD -> new FireGrognardEnemy(spawnPoint, path);
-				case WATER_BRUTE -> new WaterBruteEnemy(spawnPoint, path);
-				case EARTH_BRUTE -> new EarthBruteEnemy(spawnPoint, path);
-				case BOSS -> new BossEnemy(spawnPoint, path);
-				default -> null;
-			};
+			Enemy enemy = type != null ? type.create(spawnPoint, path) : null;
 			if(enemy == null) {
 				throw new UnknownEnemyException(
 						"Unknown enemy type: " + type,
@@ -107,13 +111,41 @@ public class Wave {
 			}
 			
 			enemy.setGameMap(gameMap);
-			System.out.println("Created enemy at " + spawnPoint + " with path size: " + path.size());
 			return enemy;
 		} catch (Exception e) {
 			throw new RuntimeException("Failed to create enemy of type: " + type, e);
 		}
 	}
 	
+	public String getLevelFile() {
+		return levelFile;
+	}
+	
+	public String getWaveFile() {
+		return waveFile;
+	}
+	
+	/**
+	 * Retourne les apparitions de la vague, triées par date.
+	 */
+	public List<SpawnInfo> getSpawnSchedule() {
+		return Collections.unmodifiableList(spawnSchedule);
+	}
+	
+	/**
+	 * Retourne le nombre d'apparitions déjà effectuées.
+	 */
+	public int getSpawnIndex() {
+		return currentEnemyIndex;
+	}
+	
+	/**
+	 * Reprend la vague après un nombre donné d'apparitions, au chargement d'une sauvegarde.
+	 */
+	public void setSpawnIndex(int spawnIndex) {
+		this.currentEnemyIndex = Math.max(0, Math.min(spawnSchedule.size(), spawnIndex));
+	}
+	
 	public boolean isComplete() {
 		return currentEnemyIndex >= spawnSchedule.size();
 	}
@@ -4,6 +4,11 @@ import java.util.List;
 
 import entity.Player;
 import entity.enemy.Enemy;
+import entity.enemy.EnemyType;
+import game.TimingWheel;
+import game.jfr.EnemyDeathEvent;
+import game.jfr.EnemySpawnEvent;
+import game.jfr.WaveEvent;
 import java.util.List;
 import java.util.ArrayList;
 
@@ -11,17 +16,34 @@ public class WaveManager {
 	private List<Wave> waves;
 	private int currentWaveIndex;
 	private List<Enemy> activeEnemies;
+	private List<Enemy> drawnEnemies; // Ennemis affichés lors du dernier dessin
+	private CrowdRenderer crowdRenderer; // Dessin regroupé des cases trop peuplées
+	private final PathProgressIndex progressIndex; // Ennemis actifs triés par avancement
 	private boolean isWaveComplete;
 	
+	// Apparitions : seule la prochaine apparition de la vague en cours est planifiée
+	public static final double SPAWN_RESOLUTION = 0.01; // Précision des apparitions (en secondes)
+	private final TimingWheel<Wave> spawnWheel = new TimingWheel<>(SPAWN_RESOLUTION);
+	private final List<Enemy> spawnedEnemies = new ArrayList<>(); // Ennemis apparus lors de la dernière mise à jour
+	private double time;            // Temps écoulé depuis le début du niveau
+	private double waveStartTime;   // Début de la vague en cours
+	private boolean isWaveStarted;
+	private WaveEvent waveEvent; // Événement JFR de la vague en cours, commencé à sa première mise à jour
+	
 	public WaveManager() {
 		this.waves = new ArrayList<>();
 		this.currentWaveIndex = 0;
 		this.activeEnemies = new ArrayList<>();
+		this.drawnEnemies = new ArrayList<>();
+		this.progressIndex = new PathProgressIndex();
 		this.isWaveComplete = false;
 	}
 	
 	public void setWaves(List<Wave> waves, Map gameMap) {
 		this.waves = waves;
+		this.crowdRenderer = new CrowdRenderer(gameMap);
+		gameMap.setProgressIndex(progressIndex);
+		gameMap.setWaveManager(this);
 		// Configure la map pour chaque vague
 		for (Wave wave : waves) {
 			wave.gameMap = gameMap;
@@ -35,42 +57,237 @@ public class WaveManager {
 		}
 		
 		Wave currentWave = waves.get(currentWaveIndex);
-		Enemy newEnemy = currentWave.update(deltaTime);
-		
-		if (newEnemy != null) {
-			newEnemy.setGameMap(currentWave.gameMap);
-			System.out.println("New enemy created"); // Debug
-			activeEnemies.add(newEnemy);
+		if (!isWaveStarted) {
+			isWaveStarted = true;
+			waveStartTime = time;
+			waveEvent = new WaveEvent();
+			waveEvent.begin();
+			scheduleNextSpawn(currentWave);
 		}
 		
 		// Mettre à jour les ennemis actifs et supprimer les morts
-		activeEnemies.removeIf(enemy -> enemy.getHealth() <= 0);
+		activeEnemies.removeIf(enemy -> {
+			if (enemy.getHealth() <= 0) {
+				enemy.markRemoved();
+				progressIndex.remove(enemy);
+				recordDeath(enemy);
+				return true;
+			}
+			return false;
+		});
 		activeEnemies.forEach(enemy -> enemy.update(deltaTime));
 		
+		// Fait apparaître les ennemis dont la date est atteinte, y compris plusieurs dans la même mise à jour
+		time += deltaTime;
+		spawnedEnemies.clear();
+		spawnWheel.advance(time, this::spawn);
+		progressIndex.reorder();
+		
 		// Passer à la vague suivante si la vague actuelle est terminée
 		if (currentWave.isComplete() && activeEnemies.isEmpty()) {
+			recordWave(currentWave);
 			currentWaveIndex++;
+			isWaveStarted = false;
+		}
+	}
+	
+	private void spawn(Wave wave) {
+		double spawnTime = waveStartTime + wave.getNextSpawnTime();
+		Enemy newEnemy = wave.spawnNext();
+		newEnemy.setGameMap(wave.gameMap);
+		// Avance l'ennemi du temps écoulé depuis sa date d'apparition, exacte même après un grand pas
+		newEnemy.update(time - spawnTime);
+		activeEnemies.add(newEnemy);
+		progressIndex.add(newEnemy);
+		spawnedEnemies.add(newEnemy);
+		scheduleNextSpawn(wave);
+		
+		EnemySpawnEvent event = new EnemySpawnEvent();
+		if (event.isEnabled()) {
+			event.enemyType = EnemyType.of(newEnemy).getName();
+			event.waveFile = wave.getWaveFile();
+			event.waveIndex = currentWaveIndex;
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Termine l'événement JFR de la vague en cours. Une vague reprise d'une sauvegarde n'en a pas.
+	 */
+	private void recordWave(Wave wave) {
+		if (waveEvent == null) return;
+		waveEvent.end();
+		if (waveEvent.shouldCommit()) {
+			waveEvent.levelName = wave.getLevelFile();
+			waveEvent.waveFile = wave.getWaveFile();
+			waveEvent.waveIndex = currentWaveIndex;
+			waveEvent.spawns = wave.getSpawnIndex();
+			waveEvent.simulatedDuration = time - waveStartTime;
+			waveEvent.commit();
+		}
+		waveEvent = null;
+	}
+	
+	private void recordDeath(Enemy enemy) {
+		EnemyDeathEvent event = new EnemyDeathEvent();
+		if (event.isEnabled()) {
+			event.enemyType = EnemyType.of(enemy).getName();
+			event.reachedBase = enemy.hasReachedBase();
+			event.distanceTraveled = enemy.getDistanceTraveled();
+			event.waveIndex = currentWaveIndex;
+			event.commit();
+		}
+	}
+	
+	private void scheduleNextSpawn(Wave wave) {
+		if (!wave.isComplete()) {
+			spawnWheel.schedule(wave, waveStartTime + wave.getNextSpawnTime());
 		}
-		//System.out.println("Active enemies: " + activeEnemies.size());
 	}
 	
 	public List<Enemy> getActiveEnemies() {
 		return activeEnemies;
 	}
 	
+	/**
+	 * Retourne les ennemis apparus lors de la dernière mise à jour.
+	 */
+	public List<Enemy> getSpawnedEnemies() {
+		return spawnedEnemies;
+	}
+	
+	/**
+	 * Retourne le temps restant avant la prochaine apparition (en secondes) : 0 si la prochaine
+	 * mise à jour commence une vague, l'infini s'il n'y a plus d'apparition prévue.
+	 */
+	public double getTimeToNextSpawn() {
+		if (currentWaveIndex >= waves.size()) return Double.POSITIVE_INFINITY;
+		if (!isWaveStarted) return 0;
+		
+		Wave currentWave = waves.get(currentWaveIndex);
+		if (currentWave.isComplete()) {
+			// La vague suivante commence dès que les derniers ennemis ont disparu
+			return activeEnemies.isEmpty() ? 0 : Double.POSITIVE_INFINITY;
+		}
+		return Math.max(0, waveStartTime + currentWave.getNextSpawnTime() - time);
+	}
+	
+	/**
+	 * Retourne le temps écoulé depuis le début du niveau (en secondes).
+	 */
+	public double getTime() {
+		return time;
+	}
+	
+	public List<Wave> getWaves() {
+		return waves;
+	}
+	
+	public int getCurrentWaveIndex() {
+		return currentWaveIndex;
+	}
+	
+	/**
+	 * Retourne le nombre d'apparitions déjà effectuées dans la vague en cours.
+	 */
+	public int getCurrentSpawnIndex() {
+		return currentWaveIndex < waves.size() ? waves.get(currentWaveIndex).getSpawnIndex() : 0;
+	}
+	
+	public boolean isWaveStarted() {
+		return isWaveStarted;
+	}
+	
+	public double getWaveStartTime() {
+		return waveStartTime;
+	}
+	
+	/**
+	 * Restaure l'avancement du niveau au chargement d'une sauvegarde. Les vagues doivent venir
+	 * d'être chargées ({@link #setWaves}) et aucune mise à jour ne doit avoir eu lieu.
+	 *
+	 * @param waveIndex     Indice de la vague en cours.
+	 * @param time          Temps écoulé depuis le début du niveau.
+	 * @param waveStarted   Indique si la vague en cours a commencé.
+	 * @param waveStartTime Début de la vague en cours.
+	 * @param spawnIndex    Nombre d'apparitions déjà effectuées dans la vague en cours.
+	 * @param enemies       Ennemis actifs, déjà placés sur leur chemin.
+	 */
+	public void restore(int waveIndex, double time, boolean waveStarted, double waveStartTime,
+						int spawnIndex, List<Enemy> enemies) {
+		this.currentWaveIndex = waveIndex;
+		this.time = time;
+		this.isWaveStarted = waveStarted;
+		this.waveStartTime = waveStartTime;
+		this.waveEvent = null;
+		for (int i = 0; i < waves.size(); i++) {
+			waves.get(i).setSpawnIndex(i < waveIndex ? Integer.MAX_VALUE : i == waveIndex ? spawnIndex : 0);
+		}
+		
+		spawnWheel.clear();
+		spawnWheel.advance(time, wave -> { });
+		if (waveStarted && waveIndex < waves.size()) {
+			scheduleNextSpawn(waves.get(waveIndex));
+		}
+		
+		activeEnemies.clear();
+		progressIndex.clear();
+		for (Enemy enemy : enemies) {
+			activeEnemies.add(enemy);
+			progressIndex.add(enemy);
+		}
+	}
+	
 	public boolean isComplete() {
 		return isWaveComplete && activeEnemies.isEmpty();
 	}
 	
+	public PathProgressIndex getProgressIndex() {
+		return progressIndex;
+	}
+	
+	public CrowdRenderer getCrowdRenderer() {
+		return crowdRenderer;
+	}
+	
+	public void invalidateChangedRegions() {
+		// Efface les ennemis retirés depuis le dernier dessin
+		for (Enemy enemy : drawnEnemies) {
+			if (enemy.isRemoved()) {
+				enemy.invalidateDrawn();
+			}
+		}
+		
+		// Les ennemis des cases regroupées ne sont plus dessinés un par un
+		crowdRenderer.prepare(activeEnemies);
+		for (Enemy enemy : activeEnemies) {
+			if (crowdRenderer.isCrowded(enemy)) {
+				enemy.invalidateDrawn();
+			} else {
+				enemy.invalidateIfChanged();
+			}
+		}
+		crowdRenderer.invalidateChangedRegions();
+	}
+	
 	public void draw() {
-		// Dessiner les ennemis actifs
+		// Dessiner les ennemis actifs visibles dans la zone de jeu, hors des cases regroupées
+		drawnEnemies.clear();
 		for (Enemy enemy : activeEnemies) {
-			enemy.draw();
+			if (enemy.isVisible() && !crowdRenderer.isCrowded(enemy)) {
+				enemy.draw();
+				drawnEnemies.add(enemy);
+			}
 		}
+		crowdRenderer.draw();
 	}
 	
 	public void removeEnemy(Enemy enemy, Player player) {
-		activeEnemies.remove(enemy);
+		if (activeEnemies.remove(enemy)) {
+			progressIndex.remove(enemy);
+			recordDeath(enemy);
+		}
+		enemy.markRemoved();
 		if (enemy.getHealth() <= 0) {
 			player.addMoney(enemy.getReward());
 		}
@@ -0,0 +1,356 @@
+package game.metrics;
+
+import exception.GameException;
+import game.Element;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToIntFunction;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Mesures d'une ou plusieurs parties, lues pendant qu'elles tournent : par JMX
+ * ({@link #registerMBean()}) ou au format texte de Prometheus ({@link #writePrometheus}, servi par
+ * {@link MetricsServer}).
+ * <p>
+ * Les compteurs sont des {@link LongAdder}, mis à jour sans verrou ni contention depuis la boucle
+ * de combat ; plusieurs parties peuvent partager les mêmes mesures, qui s'additionnent. Les
+ * jauges (ennemis actifs, vague, argent, vie) sont tenues par partie ({@link #openGame}) :
+ * Prometheus les reçoit étiquetées par session, JMX en agrège les valeurs.
+ * Prometheus calcule les débits avec {@code rate()} sur les compteurs ; JMX les donne directement.
+ */
+public final class GameMetrics implements GameMetricsMXBean {
+    public static final String OBJECT_NAME = "game:type=Metrics";
+    private static final Element[] ELEMENTS = Element.values();
+
+    private final LongAdder spawns = new LongAdder();
+    private final LongAdder kills = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder[] damage = new LongAdder[ELEMENTS.length];
+    private final Histogram tickDuration = new Histogram(
+            10e-6, 25e-6, 50e-6, 100e-6, 250e-6, 500e-6, 1e-3, 2.5e-3, 5e-3, 10e-3, 25e-3);
+    private final Histogram renderDuration = new Histogram(
+            0.5e-3, 1e-3, 2e-3, 4e-3, 8e-3, 16e-3, 33e-3, 66e-3, 100e-3);
+
+    // Jauges des parties en cours ; ajouts et retraits rares, lectures à chaque publication
+    private final List<GameState> games = new CopyOnWriteArrayList<>();
+
+    // Débits pour JMX, échantillonnés à la lecture
+    private final Rate spawnRate = new Rate();
+    private final Rate killRate = new Rate();
+    private final Rate[] damageRates = new Rate[ELEMENTS.length];
+
+    /**
+     * Jauges d'une partie, écrites à chaque mise à jour.
+     */
+    public static final class GameState {
+        private final String session;   // Étiquette de la partie, ou null pour une partie seule
+        private volatile int activeEnemies;
+        private volatile int waveIndex;
+        private volatile int playerMoney;
+        private volatile int playerHealth;
+
+        private GameState(String session) {
+            this.session = session;
+        }
+    }
+
+    public GameMetrics() {
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            damage[i] = new LongAdder();
+            damageRates[i] = new Rate();
+        }
+    }
+
+    // ---------------------------------------------------------------- Parties
+
+    /**
+     * Commence le relevé des jauges d'une partie.
+     *
+     * @param session L'étiquette de la partie (numéro de session), ou {@code null} pour une partie seule.
+     * @return Les jauges de la partie, à passer à {@link #recordTick}.
+     */
+    public GameState openGame(String session) {
+        GameState game = new GameState(session);
+        games.add(game);
+        return game;
+    }
+
+    /**
+     * Termine le relevé des jauges d'une partie : elles ne sont plus publiées.
+     */
+    public void closeGame(GameState game) {
+        games.remove(game);
+    }
+
+    // ---------------------------------------------------------------- Mesures (boucle de jeu)
+
+    public void recordSpawns(int count) {
+        spawns.add(count);
+    }
+
+    public void recordKills(int count) {
+        kills.add(count);
+    }
+
+    public void recordLeak() {
+        leaks.increment();
+    }
+
+    /**
+     * Compte les dégâts d'une attaque de tour.
+     *
+     * @param element L'élément de la tour.
+     * @param amount  Les dégâts infligés.
+     */
+    public void recordDamage(Element element, int amount) {
+        damage[element.ordinal()].add(amount);
+    }
+
+    /**
+     * Compte une mise à jour de la simulation et relève l'état de la partie à sa fin.
+     *
+     * @param game  Les jauges de la partie (voir {@link #openGame}).
+     * @param nanos Durée de la mise à jour (en nanosecondes).
+     */
+    public void recordTick(GameState game, long nanos, int activeEnemies, int waveIndex, int playerMoney,
+                           int playerHealth) {
+        tickDuration.observe(nanos);
+        game.activeEnemies = activeEnemies;
+        game.waveIndex = waveIndex;
+        game.playerMoney = playerMoney;
+        game.playerHealth = playerHealth;
+    }
+
+    /**
+     * Compte le dessin d'une image.
+     *
+     * @param nanos Durée du dessin (en nanosecondes).
+     */
+    public void recordRender(long nanos) {
+        renderDuration.observe(nanos);
+    }
+
+    // ---------------------------------------------------------------- Publication
+
+    /**
+     * Publie les mesures dans le serveur JMX de la plateforme, sous {@value #OBJECT_NAME}.
+     *
+     * @throws GameException Si un autre objet est déjà publié sous ce nom.
+     */
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            throw new GameException("Failed to register metrics MBean", e);
+        }
+    }
+
+    /**
+     * Écrit les mesures au format texte de Prometheus (version 0.0.4).
+     */
+    public void writePrometheus(StringBuilder out) {
+        gauge(out, "td_games", "Games currently measured", games.size());
+        gameGauge(out, "td_active_enemies", "Enemies currently on the path", game -> game.activeEnemies);
+        gameGauge(out, "td_wave_index", "Index of the current wave in the level", game -> game.waveIndex);
+        gameGauge(out, "td_player_money", "Player money", game -> game.playerMoney);
+        gameGauge(out, "td_player_health", "Player health", game -> game.playerHealth);
+        counter(out, "td_enemy_spawns_total", "Enemies spawned", spawns.sum());
+        counter(out, "td_enemy_kills_total", "Enemies killed by towers", kills.sum());
+        counter(out, "td_enemy_leaks_total", "Enemies that reached the base", leaks.sum());
+
+        header(out, "td_tower_damage_total", "Damage dealt by towers, by element", "counter");
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            out.append("td_tower_damage_total{element=\"").append(ELEMENTS[i].name().toLowerCase(Locale.ROOT))
+                    .append("\"} ").append(damage[i].sum()).append('\n');
+        }
+
+        histogram(out, "td_tick_duration_seconds", "Duration of one simulation update", tickDuration);
+        histogram(out, "td_render_duration_seconds", "Duration of one frame draw", renderDuration);
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "gauge");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Écrit une jauge par partie, étiquetée par sa session (sans étiquette pour une partie seule).
+     */
+    private void gameGauge(StringBuilder out, String name, String help, ToIntFunction<GameState> value) {
+        header(out, name, help, "gauge");
+        for (GameState game : games) {
+            out.append(name);
+            if (game.session != null) {
+                out.append("{session=\"").append(game.session).append("\"}");
+            }
+            out.append(' ').append(value.applyAsInt(game)).append('\n');
+        }
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "counter");
+        out.append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void histogram(StringBuilder out, String name, String help, Histogram histogram) {
+        header(out, name, help, "histogram");
+        long cumulative = 0;
+        for (int i = 0; i < histogram.getBucketCount(); i++) {
+            cumulative += histogram.getBucket(i);
+            double bound = histogram.getBound(i);
+            out.append(name).append("_bucket{le=\"")
+                    .append(bound == Double.POSITIVE_INFINITY ? "+Inf" : String.format(Locale.ROOT, "%g", bound))
+                    .append("\"} ").append(cumulative).append('\n');
+        }
+        out.append(name).append("_sum ").append(String.format(Locale.ROOT, "%.9f", histogram.getSum())).append('\n');
+        out.append(name).append("_count ").append(cumulative).append('\n');
+    }
+
+    // ---------------------------------------------------------------- JMX
+
+    @Override
+    public int getGames() {
+        return games.size();
+    }
+
+    @Override
+    public int getActiveEnemies() {
+        int total = 0;
+        for (GameState game : games) {
+            total += game.activeEnemies;
+        }
+        return total;
+    }
+
+    @Override
+    public int getWaveIndex() {
+        int max = 0;
+        for (GameState game : games) {
+            max = Math.max(max, game.waveIndex);
+        }
+        return max;
+    }
+
+    @Override
+    public int getPlayerMoney() {
+        int total = 0;
+        for (GameState game : games) {
+            total += game.playerMoney;
+        }
+        return total;
+    }
+
+    @Override
+    public int getPlayerHealth() {
+        int min = games.isEmpty() ? 0 : Integer.MAX_VALUE;
+        for (GameState game : games) {
+            min = Math.min(min, game.playerHealth);
+        }
+        return min;
+    }
+
+    @Override
+    public long getSpawns() {
+        return spawns.sum();
+    }
+
+    @Override
+    public long getKills() {
+        return kills.sum();
+    }
+
+    @Override
+    public long getLeaks() {
+        return leaks.sum();
+    }
+
+    @Override
+    public long getTicks() {
+        return tickDuration.getCount();
+    }
+
+    @Override
+    public double getSpawnsPerSecond() {
+        return spawnRate.sample(spawns.sum());
+    }
+
+    @Override
+    public double getKillsPerSecond() {
+        return killRate.sample(kills.sum());
+    }
+
+    @Override
+    public double getDamagePerSecond() {
+        double total = 0;
+        for (double rate : getDamagePerSecondByElement().values()) {
+            total += rate;
+        }
+        return total;
+    }
+
+    @Override
+    public Map<String, Double> getDamagePerSecondByElement() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (int i = 0; i < ELEMENTS.length; i++) {
+            rates.put(ELEMENTS[i].getName(), damageRates[i].sample(damage[i].sum()));
+        }
+        return rates;
+    }
+
+    @Override
+    public double getTickMeanMillis() {
+        long count = tickDuration.getCount();
+        return count > 0 ? tickDuration.getSum() * 1000 / count : 0;
+    }
+
+    @Override
+    public double getTickP99Millis() {
+        return tickDuration.getQuantile(0.99) * 1000;
+    }
+
+    @Override
+    public double getRenderMeanMillis() {
+        long count = renderDuration.getCount();
+        return count > 0 ? renderDuration.getSum() * 1000 / count : 0;
+    }
+
+    @Override
+    public double getRenderP99Millis() {
+        return renderDuration.getQuantile(0.99) * 1000;
+    }
+
+    /**
+     * Débit d'un compteur, recalculé au plus une fois par seconde à partir des lectures.
+     */
+    private static final class Rate {
+        private static final long WINDOW = 1_000_000_000L; // Durée minimale d'un échantillon (en nanosecondes)
+
+        private long lastValue;
+        private long lastTime = System.nanoTime();
+        private double rate;
+
+        synchronized double sample(long value) {
+            long now = System.nanoTime();
+            if (now - lastTime >= WINDOW) {
+                rate = (value - lastValue) * 1e9 / (now - lastTime);
+                lastValue = value;
+                lastTime = now;
+            }
+            return rate;
+        }
+    }
+}
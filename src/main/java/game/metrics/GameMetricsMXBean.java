@@ -0,0 +1,62 @@
+package game.metrics;
+
+import java.util.Map;
+
+/**
+ * Interface JMX des mesures d'une ou plusieurs parties (voir {@link GameMetrics}), publiée sous
+ * {@value GameMetrics#OBJECT_NAME}. Les débits sont calculés sur la dernière seconde écoulée
+ * entre deux lectures ; les jauges agrègent les parties en cours.
+ */
+public interface GameMetricsMXBean {
+    /**
+     * Nombre de parties en cours dont les jauges sont relevées.
+     */
+    int getGames();
+
+    /**
+     * Ennemis sur le chemin, toutes parties confondues.
+     */
+    int getActiveEnemies();
+
+    /**
+     * Vague la plus avancée parmi les parties.
+     */
+    int getWaveIndex();
+
+    /**
+     * Argent des joueurs, toutes parties confondues.
+     */
+    int getPlayerMoney();
+
+    /**
+     * Vie du joueur le plus menacé parmi les parties (0 sans partie).
+     */
+    int getPlayerHealth();
+
+    long getSpawns();
+
+    long getKills();
+
+    long getLeaks();
+
+    long getTicks();
+
+    double getSpawnsPerSecond();
+
+    double getKillsPerSecond();
+
+    double getDamagePerSecond();
+
+    /**
+     * Dégâts infligés par seconde par les tours, par élément.
+     */
+    Map<String, Double> getDamagePerSecondByElement();
+
+    double getTickMeanMillis();
+
+    double getTickP99Millis();
+
+    double getRenderMeanMillis();
+
+    double getRenderP99Millis();
+}
@@ -0,0 +1,101 @@
+package game.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme de durées à bornes fixes, au sens de Prometheus : chaque mesure est comptée
+ * dans le premier intervalle dont la borne supérieure la contient. Les compteurs sont des
+ * {@link LongAdder} : une mesure ne bloque ni ne ralentit les autres threads.
+ */
+public final class Histogram {
+    private final long[] boundsNanos;   // Bornes supérieures, croissantes
+    private final LongAdder[] counts;   // Mesures par intervalle, le dernier sans borne
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * @param boundsSeconds Bornes supérieures des intervalles (en secondes), croissantes.
+     */
+    public Histogram(double... boundsSeconds) {
+        boundsNanos = new long[boundsSeconds.length];
+        for (int i = 0; i < boundsSeconds.length; i++) {
+            boundsNanos[i] = Math.round(boundsSeconds[i] * 1e9);
+        }
+        counts = new LongAdder[boundsSeconds.length + 1];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Compte une durée.
+     *
+     * @param nanos La durée (en nanosecondes).
+     */
+    public void observe(long nanos) {
+        int i = 0;
+        while (i < boundsNanos.length && nanos > boundsNanos[i]) {
+            i++;
+        }
+        counts[i].increment();
+        sumNanos.add(nanos);
+    }
+
+    public int getBucketCount() {
+        return counts.length;
+    }
+
+    /**
+     * Retourne la borne supérieure d'un intervalle (en secondes), l'infini pour le dernier.
+     */
+    public double getBound(int bucket) {
+        return bucket < boundsNanos.length ? boundsNanos[bucket] / 1e9 : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Retourne le nombre de mesures dans un intervalle (non cumulé).
+     */
+    public long getBucket(int bucket) {
+        return counts[bucket].sum();
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Retourne la somme des durées mesurées (en secondes).
+     */
+    public double getSum() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    /**
+     * Estime un quantile d'après les intervalles : la borne supérieure de l'intervalle qui l'atteint.
+     *
+     * @param quantile Le quantile, entre 0 et 1 (par exemple 0.99).
+     * @return La durée (en secondes), 0 sans mesure.
+     */
+    public double getQuantile(double quantile) {
+        long[] snapshot = new long[counts.length];
+        long total = 0;
+        for (int i = 0; i < counts.length; i++) {
+            snapshot[i] = counts[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return i < boundsNanos.length ? boundsNanos[i] / 1e9 : boundsNanos[boundsNanos.length - 1] / 1e9;
+            }
+        }
+        return boundsNanos[boundsNanos.length - 1] / 1e9;
+    }
+}
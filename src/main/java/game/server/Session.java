@@ -0,0 +1,152 @@
+package game.server;
+
+import exception.GameException;
+import game.Game;
+import game.metrics.GameMetrics;
+
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Partie sans affichage jouée par un client, sur son propre thread virtuel.
+ * <p>
+ * À chaque pas de temps ({@value #TICK} s de temps réel), la session exécute les commandes reçues,
+ * avance la partie de {@code TICK × vitesse} secondes simulées si elle n'est pas en pause,
+ * puis envoie une ligne d'état. Seul le thread de la session touche à la partie et écrit
+ * vers le client : le thread qui lit les commandes ne fait que les déposer dans une file bornée.
+ * <p>
+ * Protocole, une commande par ligne :
+ * <pre>
+ * PLACE colonne ligne nom   achète une tour (par exemple "PLACE 3 2 Fire Caster")
+ * SPEED n                   vitesse de 1 à {@value #MAX_SPEED}
+ * PAUSE | RESUME            suspend ou reprend la partie
+ * QUIT                      termine la session
+ * </pre>
+ * Réponses : {@code OK commande} ou {@code ERR message}, puis à chaque pas
+ * {@code STATE time=… level=… wave=… health=… money=… enemies=… towers=… speed=… paused=…},
+ * et {@code END …} à la fin de la partie.
+ */
+public final class Session implements Runnable {
+    public static final double TICK = 0.1;                   // Durée d'un pas (en secondes de temps réel)
+    private static final long TICK_NANOS = (long) (TICK * 1e9);
+    private static final int MAX_SPEED = 16;
+    private static final int MAX_PENDING_COMMANDS = 16;      // Au-delà, le client attend
+
+    private final int id;
+    private final SessionManager manager;
+    private final Game game;
+    private final PrintWriter out;
+    private final BlockingQueue<String> commands = new ArrayBlockingQueue<>(MAX_PENDING_COMMANDS);
+    private volatile boolean closed;
+    private int speed = 1;
+    private boolean paused;
+
+    Session(int id, SessionManager manager, PrintWriter out, GameMetrics metrics) {
+        this.id = id;
+        this.manager = manager;
+        this.out = out;
+        this.game = new Game();
+        game.initHeadless();
+        if (metrics != null) {
+            game.setMetrics(metrics, Integer.toString(id));
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Dépose une commande, exécutée au prochain pas. Attend si la file est pleine.
+     *
+     * @param command La ligne de commande.
+     * @throws InterruptedException Si le thread est interrompu pendant l'attente.
+     */
+    public void submit(String command) throws InterruptedException {
+        if (closed) return;
+        commands.put(command);
+    }
+
+    /**
+     * Demande la fin de la session, au prochain pas.
+     */
+    public void close() {
+        closed = true;
+    }
+
+    @Override
+    public void run() {
+        try {
+            out.println("SESSION " + id);
+            long nextTick = System.nanoTime();
+            while (!closed) {
+                for (String command; (command = commands.poll()) != null; ) {
+                    execute(command.trim());
+                }
+                if (!paused && !closed) {
+                    game.advanceHeadless(TICK * speed);
+                }
+                if (closed) break;
+                writeState();
+                if (!game.isRunning()) {
+                    out.printf(Locale.ROOT, "END level=%d health=%d time=%.2f%n",
+                            game.currentLevel, game.getPlayer().getHealth(), game.getSimulatedTime());
+                    break;
+                }
+                out.flush();
+                if (out.checkError()) break; // Client déconnecté
+
+                // Pas à cadence fixe ; un retard n'est pas rattrapé
+                nextTick = Math.max(nextTick + TICK_NANOS, System.nanoTime());
+                TimeUnit.NANOSECONDS.sleep(nextTick - System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            out.println("ERR " + e.getMessage());
+        } finally {
+            closed = true;
+            game.setMetrics(null); // Les jauges de la partie terminée ne sont plus publiées
+            out.flush();
+            manager.remove(this);
+        }
+    }
+
+    private void execute(String command) {
+        String[] parts = command.split("\\s+", 4);
+        try {
+            switch (parts[0].toUpperCase(Locale.ROOT)) {
+                case "PLACE" -> {
+                    if (parts.length < 4) throw new GameException("Usage: PLACE column row tower");
+                    if (!game.placeTower(parts[3], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]))) {
+                        throw new GameException("Cannot place tower here");
+                    }
+                }
+                case "SPEED" -> {
+                    int requested = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+                    if (requested < 1 || requested > MAX_SPEED) throw new GameException("Speed must be 1-" + MAX_SPEED);
+                    speed = requested;
+                }
+                case "PAUSE" -> paused = true;
+                case "RESUME" -> paused = false;
+                case "QUIT" -> closed = true;
+                case "" -> {
+                    return;
+                }
+                default -> throw new GameException("Unknown command: " + parts[0]);
+            }
+            out.println("OK " + command);
+        } catch (GameException | IllegalArgumentException e) {
+            out.println("ERR " + e.getMessage());
+        }
+    }
+
+    private void writeState() {
+        out.printf(Locale.ROOT, "STATE time=%.2f level=%d wave=%d health=%d money=%d enemies=%d towers=%d speed=%d paused=%b%n",
+                game.getSimulatedTime(), game.currentLevel, game.getWaveIndex(), game.getPlayer().getHealth(),
+                game.getPlayer().getMoney(), game.getEnemyCount(), game.getTowerCount(), speed, paused);
+    }
+}
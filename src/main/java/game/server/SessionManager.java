@@ -0,0 +1,151 @@
+package game.server;
+
+import exception.GameException;
+import game.metrics.GameMetrics;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Héberge des parties sans affichage indépendantes dans la même JVM : chaque {@link Session}
+ * tourne sur son propre thread virtuel, de même que la lecture des commandes de chaque client.
+ * Les clients se connectent sur un port local (une session par connexion) ou, pour une seule
+ * session, par l'entrée et la sortie standard.
+ * <p>
+ * La mémoire d'une session est bornée : sa partie, une file de commandes de taille fixe, et
+ * les écritures vers un client lent bloquent la session au lieu de s'accumuler.
+ */
+public final class SessionManager implements AutoCloseable {
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final ConcurrentHashMap<Integer, Session> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger(1);
+    private final AtomicInteger openSessions = new AtomicInteger(); // Places réservées, avant l'ajout à la table
+    private final int maxSessions;
+    private GameMetrics metrics; // Mesures partagées par les parties des sessions, ou null
+
+    /**
+     * @param maxSessions Nombre maximal de sessions simultanées.
+     */
+    public SessionManager(int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Relève les mesures des parties des sessions ouvertes ensuite : compteurs additionnés,
+     * jauges étiquetées par numéro de session.
+     */
+    public void setMetrics(GameMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Ouvre une session et lance sa partie.
+     *
+     * @param out Destination des réponses et des états, écrite par la session seulement.
+     * @return La session, à qui transmettre les commandes du client.
+     * @throws GameException Si le nombre maximal de sessions est atteint.
+     */
+    public Session open(PrintWriter out) {
+        if (openSessions.incrementAndGet() > maxSessions) {
+            openSessions.decrementAndGet();
+            throw new GameException("Too many sessions");
+        }
+        Session session;
+        try {
+            session = new Session(nextId.getAndIncrement(), this, out, metrics);
+        } catch (RuntimeException e) {
+            openSessions.decrementAndGet();
+            throw e;
+        }
+        sessions.put(session.getId(), session);
+        threads.execute(session);
+        return session;
+    }
+
+    void remove(Session session) {
+        if (sessions.remove(session.getId()) != null) {
+            openSessions.decrementAndGet();
+        }
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Accepte des clients sur un port de la machine locale, une session par connexion,
+     * jusqu'à l'interruption du thread appelant.
+     *
+     * @param port Le port.
+     * @throws IOException Si le port ne peut pas être ouvert.
+     */
+    public void serve(int port) throws IOException {
+        try (ServerSocket server = new ServerSocket(port, 512, InetAddress.getLoopbackAddress())) {
+            while (!Thread.currentThread().isInterrupted()) {
+                Socket socket = server.accept();
+                threads.execute(() -> handle(socket));
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            Session session;
+            try {
+                session = open(out);
+            } catch (GameException e) {
+                out.println("ERR " + e.getMessage());
+                return;
+            }
+            readCommands(in, session);
+        } catch (IOException e) {
+            // Client déconnecté : la session s'arrête d'elle-même
+        }
+    }
+
+    /**
+     * Joue une seule session par l'entrée et la sortie standard, jusqu'à la fin de l'entrée.
+     */
+    public void serveStandardStreams() throws IOException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        readCommands(in, open(new PrintWriter(writer)));
+    }
+
+    private static void readCommands(BufferedReader in, Session session) throws IOException {
+        try {
+            for (String line; (line = in.readLine()) != null; ) {
+                session.submit(line);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Ferme toutes les sessions et attend la fin de leurs threads.
+     */
+    @Override
+    public void close() {
+        for (Session session : sessions.values()) {
+            session.close();
+        }
+        threads.close();
+    }
+}
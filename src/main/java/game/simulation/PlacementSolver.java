@@ -0,0 +1,260 @@
+package game.simulation;
+
+import game.Game;
+import game.map.Level;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Recherche d'un ordre de construction de tours qui fait gagner un niveau, par recherche en faisceau
+ * ("beam search") sur des suites de coups (date, type de tour, case).
+ * <p>
+ * À chaque profondeur, chaque état retenu est développé en ses coups possibles : acheter une tour
+ * abordable sur une case libre d'où le chemin est à portée (l'état reste à la même date et peut
+ * acheter à nouveau), ou attendre l'intervalle de décision suivant. Chaque coup est noté en jouant le niveau jusqu'au bout sans
+ * autre achat, sur une copie de l'état ; ces évaluations indépendantes sont réparties sur tous
+ * les cœurs. Seuls les meilleurs états sont conservés pour la profondeur suivante.
+ * <p>
+ * Les notes viennent de {@link SimulationState} ; l'ordre retenu peut être rejoué dans une vraie
+ * partie sans affichage avec {@link #replay}, dont l'issue fait foi.
+ */
+public final class PlacementSolver {
+    private static final double MAX_LEVEL_TIME = 3600; // Au-delà, une évaluation est arrêtée (en secondes)
+
+    /**
+     * Achat d'une tour à une date donnée du niveau.
+     */
+    public static final class Placement {
+        public final double time;
+        public final String towerName;
+        public final int column;
+        public final int row;
+
+        Placement(double time, String towerName, int column, int row) {
+            this.time = time;
+            this.towerName = towerName;
+            this.column = column;
+            this.row = row;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.2f s : %s en (%d, %d)", time, towerName, column, row);
+        }
+    }
+
+    /**
+     * Meilleur ordre de construction trouvé et issue du niveau en le suivant.
+     */
+    public static final class Result {
+        public final List<Placement> placements;
+        public final boolean won;
+        public final int playerHealth;
+        public final int money;
+        public final long evaluations;    // Nombre de parties simulées jusqu'au bout
+        public final double elapsed;      // Durée de la recherche (en secondes)
+
+        Result(List<Placement> placements, SimulationState outcome, long evaluations, double elapsed) {
+            this.placements = placements;
+            this.won = outcome.isLevelComplete() && !outcome.isLost();
+            this.playerHealth = outcome.getPlayerHealth();
+            this.money = outcome.getMoney();
+            this.evaluations = evaluations;
+            this.elapsed = elapsed;
+        }
+    }
+
+    /**
+     * Issue d'un ordre de construction rejoué dans une partie sans affichage.
+     */
+    public static final class Replay {
+        public final boolean won;
+        public final int playerHealth;
+        public final int money;
+        public final int placed;          // Achats acceptés par la partie
+        public final double time;         // Temps simulé à la fin de la partie (en secondes)
+
+        Replay(boolean won, int playerHealth, int money, int placed, double time) {
+            this.won = won;
+            this.playerHealth = playerHealth;
+            this.money = money;
+            this.placed = placed;
+            this.time = time;
+        }
+    }
+
+    /**
+     * État du faisceau : état avant la suite du niveau, achats qui y ont mené et note.
+     */
+    private static final class Node {
+        final SimulationState state;
+        final List<Placement> placements;
+        final String key;                 // Achats triés, pour écarter les permutations
+        SimulationState outcome;
+        double score;
+
+        Node(SimulationState state, List<Placement> placements) {
+            this.state = state;
+            this.placements = placements;
+            List<String> parts = new ArrayList<>();
+            for (Placement placement : placements) {
+                parts.add(String.format("%.3f/%s/%d/%d", placement.time, placement.towerName, placement.column, placement.row));
+            }
+            parts.sort(null);
+            this.key = state.getTime() + "|" + String.join(";", parts);
+        }
+    }
+
+    private final int beamWidth;
+    private final double decisionInterval;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param beamWidth        Nombre d'états conservés à chaque profondeur.
+     * @param decisionInterval Durée entre deux dates d'achat possibles (en secondes).
+     * @param parallelism      Nombre de threads d'évaluation.
+     */
+    public PlacementSolver(int beamWidth, double decisionInterval, int parallelism) {
+        if (beamWidth < 1 || !(decisionInterval > 0) || parallelism < 1) {
+            throw new IllegalArgumentException("Invalid solver parameters");
+        }
+        this.beamWidth = beamWidth;
+        this.decisionInterval = decisionInterval;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Cherche le meilleur ordre de construction à partir d'un état.
+     *
+     * @param initial L'état de départ, qui n'est pas modifié.
+     * @return Le meilleur ordre trouvé.
+     */
+    public Result solve(SimulationState initial) {
+        long start = System.nanoTime();
+        long evaluations = 0;
+
+        Node root = new Node(initial.fork(), List.of());
+        evaluate(List.of(root));
+        evaluations++;
+        Node best = root;
+
+        List<Node> beam = List.of(root);
+        while (!beam.isEmpty()) {
+            List<Node> children = new ArrayList<>();
+            Set<String> seen = new HashSet<>();
+            for (Node node : beam) {
+                expand(node, children, seen);
+            }
+            if (children.isEmpty()) break;
+
+            evaluate(children);
+            evaluations += children.size();
+
+            children.sort(Comparator.comparingDouble((Node node) -> node.score).reversed());
+            if (children.get(0).score > best.score) {
+                best = children.get(0);
+            }
+            beam = new ArrayList<>(children.subList(0, Math.min(beamWidth, children.size())));
+            beam.removeIf(node -> node.state.isOver());
+        }
+
+        return new Result(best.placements, best.outcome, evaluations, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Rejoue un ordre de construction dans une partie sans affichage du niveau seul : chaque tour
+     * est achetée avec {@link Game#placeTower} à sa date, atteinte par mises à jour fixes comme
+     * pendant la recherche, puis la partie est déroulée jusqu'au bout avec {@link Game#runHeadless()},
+     * toujours par mises à jour fixes comme une partie jouée (sans les sauts de {@link game.FastForward}).
+     *
+     * @param levelName  Le nom du niveau (par exemple "level1").
+     * @param money      L'argent de départ du joueur, comme pour {@link SimulationState#forLevel}.
+     * @param placements Les achats, dans l'ordre.
+     * @return L'issue de la partie.
+     * @throws exception.GameException Si le niveau ou sa carte ne peut pas être lu.
+     */
+    public static Replay replay(String levelName, int money, List<Placement> placements) {
+        Game game = new Game();
+        game.initHeadless(List.of(new Level(levelName)));
+        game.getPlayer().restore(game.getPlayer().getHealth(), money);
+
+        int placed = 0;
+        for (Placement placement : placements) {
+            while (game.isRunning() && game.getSimulatedTime() + Game.FIXED_STEP / 2 < placement.time) {
+                game.stepFixed(1);
+            }
+            if (game.placeTower(placement.towerName, placement.column, placement.row)) {
+                placed++;
+            }
+        }
+        game.setFastForwardEnabled(false);
+        game.runHeadless();
+
+        int health = game.getPlayer().getHealth();
+        return new Replay(health > 0, health, game.getPlayer().getMoney(), placed, game.getSimulatedTime());
+    }
+
+    /**
+     * Ajoute les coups possibles depuis un état : chaque achat abordable, puis l'attente.
+     */
+    private void expand(Node node, List<Node> children, Set<String> seen) {
+        SimulationState state = node.state;
+        if (state.isOver()) return;
+
+        for (int kind = 0; kind < state.getTowerKindCount(); kind++) {
+            for (int row = 0; row < state.getMapHeight(); row++) {
+                for (int column = 0; column < state.getMapWidth(); column++) {
+                    if (!state.canPlaceTower(kind, column, row) || !state.reachesPath(kind, column, row)) continue;
+
+                    SimulationState child = state.fork();
+                    child.placeTower(kind, column, row);
+                    List<Placement> placements = new ArrayList<>(node.placements);
+                    placements.add(new Placement(state.getTime(), state.getTowerName(kind), column, row));
+                    add(new Node(child, placements), children, seen);
+                }
+            }
+        }
+
+        SimulationState waiting = state.fork();
+        waiting.advance(decisionInterval);
+        add(new Node(waiting, node.placements), children, seen);
+    }
+
+    private static void add(Node node, List<Node> children, Set<String> seen) {
+        if (seen.add(node.key)) {
+            children.add(node);
+        }
+    }
+
+    /**
+     * Note des états en parallèle : chacun est joué jusqu'à la fin du niveau sur une copie.
+     */
+    private void evaluate(List<Node> nodes) {
+        pool.submit(() -> nodes.parallelStream().forEach(node -> {
+            SimulationState outcome = node.state.fork();
+            outcome.advance(MAX_LEVEL_TIME - outcome.getTime());
+            node.outcome = outcome;
+            node.score = score(outcome);
+        })).join();
+    }
+
+    /**
+     * Note d'une fin de niveau : la vie restante d'abord, puis le temps tenu en cas de défaite,
+     * puis l'argent restant (une victoire moins chère est meilleure).
+     */
+    private static double score(SimulationState outcome) {
+        return outcome.getPlayerHealth() * 1e6 + Math.min(outcome.getTime(), MAX_LEVEL_TIME) * 100 + outcome.getMoney();
+    }
+
+    /**
+     * Arrête les threads d'évaluation.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,245 @@
+package game.simulation;
+
+import entity.enemy.Enemy;
+import entity.enemy.EnemyType;
+import entity.tower.Tower;
+import game.Element;
+import game.Point2D;
+import game.SpawnInfo;
+import game.Store;
+import game.map.Map;
+import game.map.PathCoverage;
+import game.map.Tile;
+import game.map.Wave;
+
+import java.util.List;
+
+/**
+ * Données d'un niveau qui ne changent pas pendant la simulation : carte, chemin, vagues
+ * et caractéristiques des types de tours et d'ennemis. Partagées, sans copie,
+ * par un état de simulation et toutes ses copies.
+ */
+final class Scenario {
+    /**
+     * Politique de choix de cible, reprise des méthodes {@code selectTarget} des tours et des ennemis.
+     */
+    enum Targeting {
+        NONE,           // N'attaque pas
+        NEAREST,        // La plus proche
+        FURTHEST,       // L'ennemi le plus avancé sur le chemin
+        MOST_HEALTH,    // Le plus de points de vie
+        LEAST_HEALTH    // Le moins de points de vie
+    }
+
+    static final double SPLASH_RADIUS = 1.5; // Rayon des attaques de zone des ennemis (en cases)
+    // Marge des tours candidates d'un ennemi autour du centre de sa case, comme dans TowerCoverage
+    static final double HALF_DIAGONAL = Math.sqrt(2) / 2;
+
+    // Carte
+    final int width;
+    final int height;
+    final boolean[] constructible;    // Indexé par ligne * largeur + colonne
+
+    // Chemin : points, longueur du segment qui mène à chacun d'eux et distance parcourue à chacun d'eux
+    final double[] pathX;
+    final double[] pathY;
+    final double[] segmentLength;
+    final double[] pathDistance;
+    final double pathLength;
+    final boolean[] pathCell;         // Cases contenant un point du chemin, comme dans TowerCoverage
+
+    // Vagues : date (depuis le début de la vague) et type de chaque apparition
+    final double[][] spawnTimes;
+    final int[][] spawnTypes;
+
+    // Ennemis, indexés par EnemyType.ordinal()
+    final int[] enemyHealth;
+    final Element[] enemyElement;
+    final double[] enemyPower;
+    final double[] enemyAttackSpeed;
+    final double[] enemyRange;
+    final double[] enemySpeed;
+    final int[] enemyReward;
+    final Targeting[] enemyTargeting;
+    final boolean[] enemySplash;      // Dégâts à toutes les tours proches
+
+    // Tours, indexées comme dans le magasin
+    final String[] towerName;
+    final int[] towerHealth;
+    final Element[] towerElement;
+    final double[] towerPower;
+    final double[] towerAttackSpeed;
+    final double[] towerRange;
+    final int[] towerCost;
+    final Targeting[] towerTargeting;
+    final double[][] towerCoverage;   // Indexé par type * cases + case : intervalles de PathCoverage
+    final boolean[] towerReachesPath; // Indexé par type * cases + case : une partie du chemin est à portée
+
+    /**
+     * Relève les données d'un niveau. Les caractéristiques des tours et des ennemis sont lues
+     * sur un exemplaire de chaque type, pour rester identiques à celles du jeu.
+     */
+    Scenario(Map map, List<Wave> waves, Store store) {
+        width = map.getWidth();
+        height = map.getHeight();
+        constructible = new boolean[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                Tile tile = map.getTileAt(x, y);
+                constructible[y * width + x] = tile != null && tile.isConstructible();
+            }
+        }
+
+        List<Point2D> path = map.getPath();
+        pathX = new double[path.size()];
+        pathY = new double[path.size()];
+        segmentLength = new double[path.size()];
+        pathDistance = new double[path.size()];
+        pathCell = new boolean[width * height];
+        for (int i = 0; i < path.size(); i++) {
+            pathX[i] = path.get(i).getX();
+            pathY[i] = path.get(i).getY();
+            if (i > 0) {
+                // Mêmes calculs que Enemy, pour des positions identiques au bit près
+                segmentLength[i] = path.get(i - 1).distance(path.get(i));
+                pathDistance[i] = pathDistance[i - 1] + segmentLength[i];
+            }
+            pathCell[cellIndex(pathX[i], pathY[i])] = true;
+        }
+        pathLength = path.isEmpty() ? 0 : pathDistance[path.size() - 1];
+
+        spawnTimes = new double[waves.size()][];
+        spawnTypes = new int[waves.size()][];
+        for (int w = 0; w < waves.size(); w++) {
+            List<SpawnInfo> schedule = waves.get(w).getSpawnSchedule();
+            spawnTimes[w] = new double[schedule.size()];
+            spawnTypes[w] = new int[schedule.size()];
+            for (int i = 0; i < schedule.size(); i++) {
+                spawnTimes[w][i] = schedule.get(i).getTime();
+                spawnTypes[w][i] = schedule.get(i).getType().ordinal();
+            }
+        }
+
+        EnemyType[] enemyTypes = EnemyType.values();
+        enemyHealth = new int[enemyTypes.length];
+        enemyElement = new Element[enemyTypes.length];
+        enemyPower = new double[enemyTypes.length];
+        enemyAttackSpeed = new double[enemyTypes.length];
+        enemyRange = new double[enemyTypes.length];
+        enemySpeed = new double[enemyTypes.length];
+        enemyReward = new int[enemyTypes.length];
+        enemyTargeting = new Targeting[enemyTypes.length];
+        enemySplash = new boolean[enemyTypes.length];
+        for (EnemyType type : enemyTypes) {
+            int i = type.ordinal();
+            Enemy prototype = type.create(new Point2D(0, 0), path);
+            enemyHealth[i] = prototype.getMaxHealth();
+            enemyElement[i] = prototype.getElement();
+            enemyPower[i] = prototype.getAttackPower();
+            enemyAttackSpeed[i] = prototype.attackSpeed;
+            enemyRange[i] = prototype.getRange();
+            enemySpeed[i] = prototype.getSpeed();
+            enemyReward[i] = prototype.getReward();
+            // Doit suivre selectTarget et attack de chaque classe d'ennemi
+            enemyTargeting[i] = switch (type) {
+                case MINION -> Targeting.NONE;
+                case BOSS, EARTH_BRUTE, FIRE_GROGNARD -> Targeting.NEAREST;
+                case WATER_BRUTE, WIND_GROGNARD -> Targeting.LEAST_HEALTH;
+            };
+            enemySplash[i] = type == EnemyType.FIRE_GROGNARD || type == EnemyType.WATER_BRUTE;
+        }
+
+        int towerKinds = 0;
+        while (store.getTowerInfo(towerKinds) != null) {
+            towerKinds++;
+        }
+        towerName = new String[towerKinds];
+        towerHealth = new int[towerKinds];
+        towerElement = new Element[towerKinds];
+        towerPower = new double[towerKinds];
+        towerAttackSpeed = new double[towerKinds];
+        towerRange = new double[towerKinds];
+        towerCost = new int[towerKinds];
+        towerTargeting = new Targeting[towerKinds];
+        towerCoverage = new double[towerKinds * width * height][];
+        towerReachesPath = new boolean[towerKinds * width * height];
+        for (int i = 0; i < towerKinds; i++) {
+            towerName[i] = store.getTowerInfo(i).name;
+            Tower prototype = store.createTower(towerName[i], new Point2D(0, 0), null);
+            towerHealth[i] = prototype.getMaxHealth();
+            towerElement[i] = prototype.getElement();
+            towerPower[i] = prototype.getAttackPower();
+            towerAttackSpeed[i] = prototype.attackSpeed;
+            towerRange[i] = prototype.getRange();
+            towerCost[i] = prototype.getCost();
+            // Doit suivre selectTarget de chaque classe de tour
+            towerTargeting[i] = switch (towerName[i]) {
+                case "Archer", "Water Caster" -> Targeting.FURTHEST;
+                case "Earth Caster" -> Targeting.MOST_HEALTH;
+                default -> Targeting.NEAREST;
+            };
+            for (int tile = 0; tile < width * height; tile++) {
+                Point2D center = new Point2D(tile % width + 0.5, tile / width + 0.5);
+                towerCoverage[i * width * height + tile] = PathCoverage.compute(path, center, towerRange[i]);
+                towerReachesPath[i * width * height + tile] = towerCoverage[i * width * height + tile].length > 0;
+            }
+        }
+    }
+
+    /**
+     * Copie un niveau en remplaçant ses vagues ; le reste est partagé avec l'original.
+     *
+     * @param spawnTimes Pour chaque vague, dates des apparitions depuis son début, croissantes.
+     * @param spawnTypes Pour chaque vague, type (EnemyType.ordinal()) de chaque apparition.
+     */
+    Scenario(Scenario base, double[][] spawnTimes, int[][] spawnTypes) {
+        width = base.width;
+        height = base.height;
+        constructible = base.constructible;
+        pathX = base.pathX;
+        pathY = base.pathY;
+        segmentLength = base.segmentLength;
+        pathDistance = base.pathDistance;
+        pathLength = base.pathLength;
+        pathCell = base.pathCell;
+        this.spawnTimes = spawnTimes;
+        this.spawnTypes = spawnTypes;
+        enemyHealth = base.enemyHealth;
+        enemyElement = base.enemyElement;
+        enemyPower = base.enemyPower;
+        enemyAttackSpeed = base.enemyAttackSpeed;
+        enemyRange = base.enemyRange;
+        enemySpeed = base.enemySpeed;
+        enemyReward = base.enemyReward;
+        enemyTargeting = base.enemyTargeting;
+        enemySplash = base.enemySplash;
+        towerName = base.towerName;
+        towerHealth = base.towerHealth;
+        towerElement = base.towerElement;
+        towerPower = base.towerPower;
+        towerAttackSpeed = base.towerAttackSpeed;
+        towerRange = base.towerRange;
+        towerCost = base.towerCost;
+        towerTargeting = base.towerTargeting;
+        towerCoverage = base.towerCoverage;
+        towerReachesPath = base.towerReachesPath;
+    }
+
+    /**
+     * Retourne la case d'une position, ramenée dans la carte comme dans TowerCoverage.
+     */
+    int cellIndex(double x, double y) {
+        int column = Math.max(0, Math.min(width - 1, (int) Math.floor(x)));
+        int row = Math.max(0, Math.min(height - 1, (int) Math.floor(y)));
+        return row * width + column;
+    }
+
+    int towerKind(String name) {
+        for (int i = 0; i < towerName.length; i++) {
+            if (towerName[i].equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown tower type: " + name);
+    }
+}
@@ -0,0 +1,801 @@
+package game.simulation;
+
+import entity.Player;
+import entity.enemy.Enemy;
+import entity.enemy.EnemyType;
+import entity.tower.Tower;
+import game.Element;
+import game.Game;
+import game.Store;
+import game.map.Level;
+import game.map.Map;
+import game.map.WaveManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * État complet d'un niveau en cours (tours, ennemis, vagues, vie et argent du joueur), rangé dans
+ * des tableaux de types primitifs pour être copié en quelques microsecondes avec {@link #fork()}
+ * et avancé indépendamment de la partie : recherche de placement, conseils "que se passerait-il si",
+ * évaluation de coups en parallèle (une copie par thread).
+ * <p>
+ * Les règles sont celles de {@link game.Game}, calculées de la même façon pour que l'état reste
+ * identique au bit près, mise à jour après mise à jour : apparitions et délais entre deux attaques
+ * arrondis au pas de leur échéancier, positions sur le chemin, choix de cible et tours candidates
+ * des ennemis ({@link game.map.TowerCoverage}), attaques dans l'ordre de placement des tours
+ * et d'apparition des ennemis. {@link game.SimulationCheck} le vérifie sur les niveaux fournis.
+ * Une copie n'est pas partagée entre threads ; les données immuables du niveau le sont.
+ */
+public final class SimulationState {
+    /**
+     * Durée simulée d'une mise à jour de {@link #advance(double)} (en secondes), comme dans le jeu.
+     */
+    public static final double FIXED_STEP = 1.0 / 60;
+
+    private Scenario scenario;           // Données immuables, partagées par toutes les copies
+
+    // Joueur
+    private int playerHealth;
+    private int money;
+
+    // Avancement du niveau
+    private double time;                 // Temps écoulé depuis le début du niveau
+    private int waveIndex;
+    private int spawnIndex;              // Apparitions effectuées dans la vague en cours
+    private boolean waveStarted;
+    private double waveStartTime;
+
+    // Tours, dans l'ordre de placement
+    private int towerCount;
+    private int[] towerKind;
+    private double[] towerX;
+    private double[] towerY;
+    private int[] towerHealth;
+    private boolean[] towerReady;
+    private double[] towerCooldownEnd;
+    private int[] towerTarget;           // Identifiant de la cible conservée, -1 si aucune
+    private double[] towerRetargetTime;  // Date de la prochaine recherche complète de cible
+    private long[] occupancy;            // Cases occupées par une tour, un bit par case
+
+    // Ennemis, dans l'ordre d'apparition (identifiants croissants)
+    private int enemyCount;
+    private int nextEnemyId;
+    private int[] enemyId;
+    private int[] enemyType;
+    private int[] enemyHealth;
+    private double[] enemyDistance;
+    private double[] enemyX;
+    private double[] enemyY;
+    private boolean[] enemyReady;
+    private double[] enemyCooldownEnd;
+
+    private SimulationState(Scenario scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Relève l'état du niveau en cours d'une partie. À appeler depuis la boucle de jeu.
+     *
+     * @param map         La carte du niveau, avec ses tours.
+     * @param waveManager Le gestionnaire des vagues, avec les ennemis actifs.
+     * @param player      Le joueur.
+     * @param store       Le magasin, pour les types de tours.
+     * @return Un état indépendant de la partie.
+     */
+    public static SimulationState capture(Map map, WaveManager waveManager, Player player, Store store) {
+        Scenario scenario = new Scenario(map, waveManager.getWaves(), store);
+        SimulationState state = new SimulationState(scenario);
+        state.playerHealth = player.getHealth();
+        state.money = player.getMoney();
+        state.time = waveManager.getTime();
+        state.waveIndex = waveManager.getCurrentWaveIndex();
+        state.spawnIndex = waveManager.getCurrentSpawnIndex();
+        state.waveStarted = waveManager.isWaveStarted();
+        state.waveStartTime = waveManager.getWaveStartTime();
+
+        List<Enemy> enemies = waveManager.getActiveEnemies();
+        state.allocateEnemies(Math.max(16, enemies.size()));
+        for (Enemy enemy : enemies) {
+            int i = state.enemyCount++;
+            state.enemyId[i] = state.nextEnemyId++;
+            state.enemyType[i] = EnemyType.of(enemy).ordinal();
+            state.enemyHealth[i] = enemy.getHealth();
+            state.enemyDistance[i] = enemy.getDistanceTraveled();
+            state.enemyX[i] = enemy.getPosition().getX();
+            state.enemyY[i] = enemy.getPosition().getY();
+            state.enemyReady[i] = enemy.canAttack();
+            state.enemyCooldownEnd[i] = enemy.getCooldownEnd();
+        }
+
+        List<Tower> towers = map.getTowers();
+        state.allocateTowers(Math.max(8, towers.size()));
+        state.occupancy = new long[(scenario.width * scenario.height + 63) >> 6];
+        for (Tower tower : towers) {
+            int i = state.towerCount++;
+            state.towerKind[i] = scenario.towerKind(store.getTowerName(tower));
+            state.towerX[i] = tower.getPosition().getX();
+            state.towerY[i] = tower.getPosition().getY();
+            state.towerHealth[i] = tower.getHealth();
+            state.towerReady[i] = tower.canAttack();
+            state.towerCooldownEnd[i] = tower.getCooldownEnd();
+            state.towerTarget[i] = tower.getLockedTarget() != null ? enemies.indexOf(tower.getLockedTarget()) : -1;
+            state.towerRetargetTime[i] = tower.getRetargetTime();
+            state.setOccupied(state.tileIndex(tower.getPosition().getX(), tower.getPosition().getY()), true);
+        }
+        return state;
+    }
+
+    /**
+     * Prépare l'état du début d'un niveau, sans partie : carte et vagues lues dans
+     * {@code resources/levels}, joueur neuf.
+     *
+     * @param levelName Le nom du niveau (par exemple "level1").
+     * @param money     L'argent de départ du joueur.
+     * @return L'état au temps 0, sans tour.
+     * @throws exception.GameException Si le niveau ou sa carte ne peut pas être lu.
+     */
+    public static SimulationState forLevel(String levelName, int money) {
+        Level level = new Level(levelName);
+        Map map = new Map(level.getName(), level.getMapName());
+        map.loadMap();
+        WaveManager waveManager = new WaveManager();
+        waveManager.setWaves(level.getWaves(), map);
+        Player player = new Player();
+        player.restore(player.getHealth(), money);
+        return capture(map, waveManager, player, new Store());
+    }
+
+    /**
+     * Copie l'état : la copie et l'original évoluent ensuite indépendamment.
+     * Seuls les tableaux des entités présentes sont copiés ; les données du niveau sont partagées.
+     */
+    public SimulationState fork() {
+        SimulationState copy = new SimulationState(scenario);
+        copy.playerHealth = playerHealth;
+        copy.money = money;
+        copy.time = time;
+        copy.waveIndex = waveIndex;
+        copy.spawnIndex = spawnIndex;
+        copy.waveStarted = waveStarted;
+        copy.waveStartTime = waveStartTime;
+
+        int towers = Math.max(towerCount, 1);
+        copy.towerCount = towerCount;
+        copy.towerKind = Arrays.copyOf(towerKind, towers);
+        copy.towerX = Arrays.copyOf(towerX, towers);
+        copy.towerY = Arrays.copyOf(towerY, towers);
+        copy.towerHealth = Arrays.copyOf(towerHealth, towers);
+        copy.towerReady = Arrays.copyOf(towerReady, towers);
+        copy.towerCooldownEnd = Arrays.copyOf(towerCooldownEnd, towers);
+        copy.towerTarget = Arrays.copyOf(towerTarget, towers);
+        copy.towerRetargetTime = Arrays.copyOf(towerRetargetTime, towers);
+        copy.occupancy = occupancy.clone();
+
+        int enemies = Math.max(enemyCount, 1);
+        copy.enemyCount = enemyCount;
+        copy.nextEnemyId = nextEnemyId;
+        copy.enemyId = Arrays.copyOf(enemyId, enemies);
+        copy.enemyType = Arrays.copyOf(enemyType, enemies);
+        copy.enemyHealth = Arrays.copyOf(enemyHealth, enemies);
+        copy.enemyDistance = Arrays.copyOf(enemyDistance, enemies);
+        copy.enemyX = Arrays.copyOf(enemyX, enemies);
+        copy.enemyY = Arrays.copyOf(enemyY, enemies);
+        copy.enemyReady = Arrays.copyOf(enemyReady, enemies);
+        copy.enemyCooldownEnd = Arrays.copyOf(enemyCooldownEnd, enemies);
+        return copy;
+    }
+
+    /**
+     * Copie un état de début de niveau en remplaçant ses vagues, par exemple pour essayer
+     * des vagues générées sur une carte et des tours données.
+     *
+     * @param spawnTimes Pour chaque vague, dates des apparitions depuis son début, croissantes.
+     * @param spawnTypes Pour chaque vague, type de chaque apparition.
+     * @return La copie, au début de sa première vague.
+     */
+    public SimulationState withWaves(double[][] spawnTimes, EnemyType[][] spawnTypes) {
+        int[][] types = new int[spawnTypes.length][];
+        for (int w = 0; w < spawnTypes.length; w++) {
+            types[w] = new int[spawnTypes[w].length];
+            for (int i = 0; i < spawnTypes[w].length; i++) {
+                types[w][i] = spawnTypes[w][i].ordinal();
+            }
+        }
+        SimulationState copy = fork();
+        copy.scenario = new Scenario(scenario, spawnTimes, types);
+        copy.time = 0;
+        copy.waveIndex = 0;
+        copy.spawnIndex = 0;
+        copy.waveStarted = false;
+        copy.waveStartTime = 0;
+        copy.enemyCount = 0;
+        return copy;
+    }
+
+    private void allocateTowers(int capacity) {
+        towerKind = new int[capacity];
+        towerX = new double[capacity];
+        towerY = new double[capacity];
+        towerHealth = new int[capacity];
+        towerReady = new boolean[capacity];
+        towerCooldownEnd = new double[capacity];
+        towerTarget = new int[capacity];
+        towerRetargetTime = new double[capacity];
+    }
+
+    private void allocateEnemies(int capacity) {
+        enemyId = new int[capacity];
+        enemyType = new int[capacity];
+        enemyHealth = new int[capacity];
+        enemyDistance = new double[capacity];
+        enemyX = new double[capacity];
+        enemyY = new double[capacity];
+        enemyReady = new boolean[capacity];
+        enemyCooldownEnd = new double[capacity];
+    }
+
+    private void growTowers() {
+        int capacity = towerKind.length * 2;
+        towerKind = Arrays.copyOf(towerKind, capacity);
+        towerX = Arrays.copyOf(towerX, capacity);
+        towerY = Arrays.copyOf(towerY, capacity);
+        towerHealth = Arrays.copyOf(towerHealth, capacity);
+        towerReady = Arrays.copyOf(towerReady, capacity);
+        towerCooldownEnd = Arrays.copyOf(towerCooldownEnd, capacity);
+        towerTarget = Arrays.copyOf(towerTarget, capacity);
+        towerRetargetTime = Arrays.copyOf(towerRetargetTime, capacity);
+    }
+
+    private void growEnemies() {
+        int capacity = enemyId.length * 2;
+        enemyId = Arrays.copyOf(enemyId, capacity);
+        enemyType = Arrays.copyOf(enemyType, capacity);
+        enemyHealth = Arrays.copyOf(enemyHealth, capacity);
+        enemyDistance = Arrays.copyOf(enemyDistance, capacity);
+        enemyX = Arrays.copyOf(enemyX, capacity);
+        enemyY = Arrays.copyOf(enemyY, capacity);
+        enemyReady = Arrays.copyOf(enemyReady, capacity);
+        enemyCooldownEnd = Arrays.copyOf(enemyCooldownEnd, capacity);
+    }
+
+    private int tileIndex(double x, double y) {
+        return (int) Math.floor(y) * scenario.width + (int) Math.floor(x);
+    }
+
+    private boolean isOccupied(int tile) {
+        return (occupancy[tile >> 6] & (1L << tile)) != 0;
+    }
+
+    private void setOccupied(int tile, boolean occupied) {
+        if (occupied) {
+            occupancy[tile >> 6] |= 1L << tile;
+        } else {
+            occupancy[tile >> 6] &= ~(1L << tile);
+        }
+    }
+
+    // ---------------------------------------------------------------- Coups
+
+    /**
+     * Vérifie si une tour peut être achetée et placée sur une case.
+     *
+     * @param kind   Le type de tour (indice dans le magasin).
+     * @param column La colonne de la case.
+     * @param row    La ligne de la case.
+     */
+    public boolean canPlaceTower(int kind, int column, int row) {
+        if (column < 0 || column >= scenario.width || row < 0 || row >= scenario.height) return false;
+        int tile = row * scenario.width + column;
+        return scenario.constructible[tile] && !isOccupied(tile) && money >= scenario.towerCost[kind];
+    }
+
+    /**
+     * Indique si une tour placée sur une case aurait une partie du chemin à sa portée.
+     */
+    public boolean reachesPath(int kind, int column, int row) {
+        return scenario.towerReachesPath[(kind * scenario.height + row) * scenario.width + column];
+    }
+
+    /**
+     * Achète et place une tour au centre d'une case, comme un clic du joueur.
+     *
+     * @return {@code true} si la tour a été placée.
+     */
+    public boolean placeTower(int kind, int column, int row) {
+        if (!canPlaceTower(kind, column, row)) return false;
+
+        if (towerCount == towerKind.length) {
+            growTowers();
+        }
+        int i = towerCount++;
+        towerKind[i] = kind;
+        towerX[i] = column + 0.5;
+        towerY[i] = row + 0.5;
+        towerHealth[i] = scenario.towerHealth[kind];
+        towerReady[i] = false;
+        towerCooldownEnd[i] = time + scenario.towerAttackSpeed[kind];
+        towerTarget[i] = -1;
+        towerRetargetTime[i] = 0;
+        setOccupied(row * scenario.width + column, true);
+        money -= scenario.towerCost[kind];
+        return true;
+    }
+
+    // ---------------------------------------------------------------- Simulation
+
+    /**
+     * Avance la simulation d'une durée donnée, par mises à jour de {@link #FIXED_STEP},
+     * ou jusqu'à la fin du niveau.
+     */
+    public void advance(double duration) {
+        double end = time + duration;
+        while (!isOver() && time + FIXED_STEP <= end + 1e-9) {
+            step(FIXED_STEP);
+        }
+    }
+
+    /**
+     * Effectue une mise à jour, dans l'ordre de celle du jeu : vagues et déplacements, arrivées
+     * à la base, délais écoulés, attaques des tours puis attaques des ennemis.
+     *
+     * @param deltaTime Temps simulé (en secondes).
+     */
+    public void step(double deltaTime) {
+        if (isOver()) return;
+
+        updateWaves(deltaTime);
+
+        // Arrivées à la base et ennemis morts
+        int kept = 0;
+        for (int e = 0; e < enemyCount; e++) {
+            int type = enemyType[e];
+            if (enemyDistance[e] >= scenario.pathLength) {
+                playerHealth = Math.max(0, playerHealth - (int) scenario.enemyPower[type]);
+            } else if (enemyHealth[e] <= 0) {
+                money += scenario.enemyReward[type];
+            } else {
+                moveEnemy(e, kept++);
+            }
+        }
+        enemyCount = kept;
+
+        long tick = (long) Math.floor(time / Game.COOLDOWN_RESOLUTION);
+        for (int t = 0; t < towerCount; t++) {
+            if (!towerReady[t] && tick >= deadline(towerCooldownEnd[t], Game.COOLDOWN_RESOLUTION)) {
+                towerReady[t] = true;
+            }
+        }
+        for (int e = 0; e < enemyCount; e++) {
+            if (!enemyReady[e] && tick >= deadline(enemyCooldownEnd[e], Game.COOLDOWN_RESOLUTION)) {
+                enemyReady[e] = true;
+            }
+        }
+
+        towerAttacks();
+        enemyAttacks();
+    }
+
+    /**
+     * Retourne le pas d'échéancier auquel une date est atteinte, arrondi au pas supérieur
+     * comme dans {@link game.TimingWheel} : la date est atteinte à la première mise à jour
+     * dont le temps, arrondi au pas inférieur, atteint ce pas.
+     */
+    private static long deadline(double date, double resolution) {
+        return (long) Math.ceil(date / resolution);
+    }
+
+    private void updateWaves(double deltaTime) {
+        if (waveIndex >= scenario.spawnTimes.length) return;
+
+        if (!waveStarted) {
+            waveStarted = true;
+            waveStartTime = time;
+        }
+
+        // Les morts sont retirés sans récompense, comme dans WaveManager
+        int kept = 0;
+        for (int e = 0; e < enemyCount; e++) {
+            if (enemyHealth[e] > 0) {
+                moveEnemy(e, kept);
+                advanceEnemy(kept, scenario.enemySpeed[enemyType[kept]] * deltaTime);
+                kept++;
+            }
+        }
+        enemyCount = kept;
+
+        time += deltaTime;
+        double[] times = scenario.spawnTimes[waveIndex];
+        long tick = (long) Math.floor(time / WaveManager.SPAWN_RESOLUTION);
+        while (spawnIndex < times.length
+                && tick >= deadline(waveStartTime + times[spawnIndex], WaveManager.SPAWN_RESOLUTION)) {
+            spawn(scenario.spawnTypes[waveIndex][spawnIndex], time - (waveStartTime + times[spawnIndex]));
+            spawnIndex++;
+        }
+
+        if (spawnIndex >= times.length && enemyCount == 0) {
+            waveIndex++;
+            spawnIndex = 0;
+            waveStarted = false;
+        }
+    }
+
+    private void spawn(int type, double elapsed) {
+        if (enemyCount == enemyId.length) {
+            growEnemies();
+        }
+        int e = enemyCount++;
+        enemyId[e] = nextEnemyId++;
+        enemyType[e] = type;
+        enemyHealth[e] = scenario.enemyHealth[type];
+        enemyDistance[e] = 0;
+        enemyReady[e] = false;
+        enemyCooldownEnd[e] = time + scenario.enemyAttackSpeed[type];
+        advanceEnemy(e, scenario.enemySpeed[type] * elapsed);
+    }
+
+    private void moveEnemy(int from, int to) {
+        if (from == to) return;
+        enemyId[to] = enemyId[from];
+        enemyType[to] = enemyType[from];
+        enemyHealth[to] = enemyHealth[from];
+        enemyDistance[to] = enemyDistance[from];
+        enemyX[to] = enemyX[from];
+        enemyY[to] = enemyY[from];
+        enemyReady[to] = enemyReady[from];
+        enemyCooldownEnd[to] = enemyCooldownEnd[from];
+    }
+
+    /**
+     * Fait avancer un ennemi sur le chemin et recalcule sa position, avec les mêmes calculs que {@link Enemy}.
+     */
+    private void advanceEnemy(int e, double distance) {
+        enemyDistance[e] += distance;
+        double[] pathDistance = scenario.pathDistance;
+        int last = pathDistance.length - 1;
+        if (last < 0) return;
+
+        // Premier point du chemin atteint à cette distance : l'ennemi est sur le segment qui y mène
+        int low = 1;
+        int high = last + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (pathDistance[middle] >= enemyDistance[e]) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        if (low > last) {
+            enemyX[e] = scenario.pathX[last];
+            enemyY[e] = scenario.pathY[last];
+            return;
+        }
+        double progress = (enemyDistance[e] - pathDistance[low - 1]) / scenario.segmentLength[low];
+        enemyX[e] = scenario.pathX[low - 1] + (scenario.pathX[low] - scenario.pathX[low - 1]) * progress;
+        enemyY[e] = scenario.pathY[low - 1] + (scenario.pathY[low] - scenario.pathY[low - 1]) * progress;
+    }
+
+    private void towerAttacks() {
+        if (enemyCount == 0) return;
+
+        for (int t = 0; t < towerCount; t++) {
+            if (!towerReady[t]) continue;
+
+            int target = acquireTarget(t);
+            if (target < 0) continue;
+
+            int kind = towerKind[t];
+            double damage = scenario.towerPower[kind]
+                    * Element.damageMultiplier(scenario.towerElement[kind], scenario.enemyElement[enemyType[target]]);
+            enemyHealth[target] = Math.max(0, enemyHealth[target] - (int) damage);
+            towerReady[t] = false;
+            towerCooldownEnd[t] = time + scenario.towerAttackSpeed[kind];
+        }
+
+        // Les ennemis tués rapportent leur récompense
+        int kept = 0;
+        for (int e = 0; e < enemyCount; e++) {
+            if (enemyHealth[e] <= 0) {
+                money += scenario.enemyReward[enemyType[e]];
+            } else {
+                moveEnemy(e, kept++);
+            }
+        }
+        enemyCount = kept;
+    }
+
+    /**
+     * Retourne la cible d'une tour, avec la même conservation de cible que {@link Tower}.
+     */
+    private int acquireTarget(int t) {
+        int locked = towerTarget[t] >= 0 ? indexOfEnemy(towerTarget[t]) : -1;
+        boolean targetKept = locked >= 0 && enemyHealth[locked] > 0 && isInRange(t, locked);
+        if (targetKept && time < towerRetargetTime[t]) {
+            return locked;
+        }
+
+        int target = selectTarget(t);
+        towerRetargetTime[t] = time + Tower.DEFAULT_RETARGET_INTERVAL;
+        if (target >= 0 && !isInRange(t, target)) {
+            target = -1;
+        }
+        towerTarget[t] = target >= 0 ? enemyId[target] : -1;
+        return target;
+    }
+
+    private int indexOfEnemy(int id) {
+        // Identifiants croissants dans l'ordre des ennemis
+        int index = Arrays.binarySearch(enemyId, 0, enemyCount, id);
+        return index >= 0 ? index : -1;
+    }
+
+    private boolean isInRange(int t, int e) {
+        return distance(towerX[t], towerY[t], enemyX[e], enemyY[e]) <= scenario.towerRange[towerKind[t]];
+    }
+
+    /**
+     * Choisit la cible d'une tour comme son {@code selectTarget} : premier ennemi trouvé en cas
+     * d'égalité, sauf pour l'ennemi le plus avancé, choisi dans l'index par avancement
+     * ({@link game.map.PathProgressIndex}) parmi les portions du chemin à portée, où le dernier
+     * apparu l'emporte.
+     */
+    private int selectTarget(int t) {
+        Scenario.Targeting targeting = scenario.towerTargeting[towerKind[t]];
+        if (targeting == Scenario.Targeting.FURTHEST) {
+            return selectFurthest(t);
+        }
+        int best = -1;
+        double bestScore = 0;
+        for (int e = 0; e < enemyCount; e++) {
+            if (!isInRange(t, e)) continue;
+
+            double score = switch (targeting) {
+                case MOST_HEALTH -> enemyHealth[e];
+                case LEAST_HEALTH -> -enemyHealth[e];
+                case NEAREST -> -distance(towerX[t], towerY[t], enemyX[e], enemyY[e]);
+                default -> Double.NaN;
+            };
+            if (Double.isNaN(score)) return -1;
+            if (best < 0 || score > bestScore) {
+                best = e;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private int selectFurthest(int t) {
+        double[] bounds = scenario.towerCoverage[
+                (towerKind[t] * scenario.height + (int) Math.floor(towerY[t])) * scenario.width + (int) Math.floor(towerX[t])];
+        int best = -1;
+        for (int e = 0; e < enemyCount; e++) {
+            double distance = enemyDistance[e];
+            if (best >= 0 && distance < enemyDistance[best]) continue;
+            for (int i = 0; i < bounds.length; i += 2) {
+                if (distance >= bounds[i] && distance <= bounds[i + 1]) {
+                    best = e;
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Distance entre deux points, calculée comme {@link game.Point2D#distance}.
+     */
+    private static double distance(double x0, double y0, double x1, double y1) {
+        double dx = x0 - x1;
+        double dy = y0 - y1;
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void enemyAttacks() {
+        for (int e = 0; e < enemyCount; e++) {
+            int type = enemyType[e];
+            if (!enemyReady[e] || enemyHealth[e] <= 0 || scenario.enemyTargeting[type] == Scenario.Targeting.NONE) {
+                continue;
+            }
+
+            int target = selectTowerTarget(e);
+            if (target < 0) continue;
+
+            if (scenario.enemySplash[type]) {
+                for (int t = 0; t < towerCount; t++) {
+                    if (isCandidate(e, t)
+                            && distance(enemyX[e], enemyY[e], towerX[t], towerY[t]) <= Scenario.SPLASH_RADIUS) {
+                        damageTower(e, t);
+                    }
+                }
+            } else {
+                damageTower(e, target);
+            }
+            enemyReady[e] = false;
+            enemyCooldownEnd[e] = time + scenario.enemyAttackSpeed[type];
+            removeDestroyedTowers();
+        }
+    }
+
+    /**
+     * Indique si une tour fait partie des candidates d'un ennemi, comme dans
+     * {@link game.map.TowerCoverage#towersNear} : ennemi sur une case du chemin et tour
+     * à portée du centre de cette case, à une demi-diagonale près.
+     */
+    private boolean isCandidate(int e, int t) {
+        int cell = scenario.cellIndex(enemyX[e], enemyY[e]);
+        if (!scenario.pathCell[cell]) return false;
+
+        double reach = scenario.enemyRange[enemyType[e]] + Scenario.HALF_DIAGONAL;
+        double dx = cell % scenario.width + 0.5 - towerX[t];
+        double dy = cell / scenario.width + 0.5 - towerY[t];
+        return dx * dx + dy * dy <= reach * reach;
+    }
+
+    private int selectTowerTarget(int e) {
+        int type = enemyType[e];
+        double range = scenario.enemyRange[type];
+        int best = -1;
+        double bestScore = 0;
+        for (int t = 0; t < towerCount; t++) {
+            if (!isCandidate(e, t)) continue;
+            double distance = distance(enemyX[e], enemyY[e], towerX[t], towerY[t]);
+            if (distance > range) continue;
+
+            double score = scenario.enemyTargeting[type] == Scenario.Targeting.LEAST_HEALTH
+                    ? -towerHealth[t] : -distance;
+            if (best < 0 || score > bestScore) {
+                best = t;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private void damageTower(int e, int t) {
+        int type = enemyType[e];
+        double damage = scenario.enemyPower[type]
+                * Element.damageMultiplier(scenario.enemyElement[type], scenario.towerElement[towerKind[t]]);
+        towerHealth[t] = Math.max(0, towerHealth[t] - (int) damage);
+    }
+
+    private void removeDestroyedTowers() {
+        int kept = 0;
+        for (int t = 0; t < towerCount; t++) {
+            if (towerHealth[t] <= 0) {
+                setOccupied(tileIndex(towerX[t], towerY[t]), false);
+                continue;
+            }
+            if (kept != t) {
+                towerKind[kept] = towerKind[t];
+                towerX[kept] = towerX[t];
+                towerY[kept] = towerY[t];
+                towerHealth[kept] = towerHealth[t];
+                towerReady[kept] = towerReady[t];
+                towerCooldownEnd[kept] = towerCooldownEnd[t];
+                towerTarget[kept] = towerTarget[t];
+                towerRetargetTime[kept] = towerRetargetTime[t];
+            }
+            kept++;
+        }
+        towerCount = kept;
+    }
+
+    // ---------------------------------------------------------------- Consultation
+
+    /**
+     * Indique si le niveau est terminé, gagné ou perdu.
+     */
+    public boolean isOver() {
+        return isLost() || isLevelComplete();
+    }
+
+    /**
+     * Indique si le joueur n'a plus de vie.
+     */
+    public boolean isLost() {
+        return playerHealth <= 0;
+    }
+
+    /**
+     * Indique si toutes les vagues du niveau sont passées et qu'il ne reste aucun ennemi.
+     */
+    public boolean isLevelComplete() {
+        return waveIndex >= scenario.spawnTimes.length && enemyCount == 0;
+    }
+
+    public double getTime() {
+        return time;
+    }
+
+    public int getPlayerHealth() {
+        return playerHealth;
+    }
+
+    public int getMoney() {
+        return money;
+    }
+
+    public int getWaveIndex() {
+        return waveIndex;
+    }
+
+    public int getWaveCount() {
+        return scenario.spawnTimes.length;
+    }
+
+    public int getTowerCount() {
+        return towerCount;
+    }
+
+    public int getEnemyCount() {
+        return enemyCount;
+    }
+
+    /**
+     * Retourne les points de vie d'une tour, les tours étant rangées dans l'ordre de placement.
+     */
+    public int getTowerHealth(int index) {
+        return towerHealth[index];
+    }
+
+    /**
+     * Retourne le type d'une tour, les tours étant rangées dans l'ordre de placement.
+     */
+    public int getTowerKindAt(int index) {
+        return towerKind[index];
+    }
+
+    /**
+     * Retourne la colonne de la case d'une tour.
+     */
+    public int getTowerColumn(int index) {
+        return (int) Math.floor(towerX[index]);
+    }
+
+    /**
+     * Retourne la ligne de la case d'une tour.
+     */
+    public int getTowerRow(int index) {
+        return (int) Math.floor(towerY[index]);
+    }
+
+    /**
+     * Retourne les points de vie d'un ennemi, les ennemis étant rangés dans l'ordre d'apparition.
+     */
+    public int getEnemyHealth(int index) {
+        return enemyHealth[index];
+    }
+
+    public int getMapWidth() {
+        return scenario.width;
+    }
+
+    public int getMapHeight() {
+        return scenario.height;
+    }
+
+    /**
+     * Retourne le nombre de types de tours du magasin ; un type est désigné par son indice.
+     */
+    public int getTowerKindCount() {
+        return scenario.towerName.length;
+    }
+
+    public String getTowerName(int kind) {
+        return scenario.towerName[kind];
+    }
+
+    public int getTowerCost(int kind) {
+        return scenario.towerCost[kind];
+    }
+
+    /**
+     * Retourne le type d'une tour désigné par son nom dans le magasin.
+     *
+     * @throws IllegalArgumentException Si aucune tour ne porte ce nom.
+     */
+    public int getTowerKind(String name) {
+        return scenario.towerKind(name);
+    }
+}
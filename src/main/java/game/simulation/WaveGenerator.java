@@ -0,0 +1,369 @@
+package game.simulation;
+
+import entity.enemy.EnemyType;
+import exception.GameException;
+import game.Game;
+import game.SpawnInfo;
+import game.map.Level;
+import game.map.Wave;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Génération de vagues par algorithme génétique. Une vague candidate est une suite
+ * d'apparitions (date, type d'ennemi) ; elle est jouée contre des dispositions de tours
+ * de référence, et notée sur l'écart entre sa difficulté mesurée et la difficulté visée :
+ * <ul>
+ *     <li>taux de victoire : part des dispositions qui survivent à la vague ;</li>
+ *     <li>perte de vie : part moyenne de la vie du joueur perdue pendant la vague.</li>
+ * </ul>
+ * Chaque génération garde les meilleures vagues telles quelles et remplace les autres par des
+ * croisements de vagues choisies par tournoi, puis mutées (dates décalées, types changés,
+ * apparitions ajoutées ou retirées). Les évaluations sont réparties sur tous les cœurs.
+ * <p>
+ * Les générations sont notées avec {@link SimulationState} ; la vague retenue est notée à nouveau
+ * dans de vraies parties sans affichage avant d'être écrite, et c'est cette note qui est annoncée.
+ */
+public final class WaveGenerator {
+    private static final double FIRST_SPAWN = 5.0;      // Date de la première apparition possible (en secondes)
+    private static final double MIN_SPACING = 0.1;      // Écart minimal entre deux apparitions
+    private static final double TIME_JITTER = 0.5;      // Écart type d'un décalage de date (en secondes)
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final double ELITE_FRACTION = 0.05;
+    private static final double MAX_WAVE_TIME = 600;    // Au-delà, une évaluation est arrêtée (en secondes)
+
+    /**
+     * Vague candidate, avec ses apparitions triées par date.
+     */
+    public static final class Candidate {
+        final double[] times;
+        final EnemyType[] types;
+        double winRate;
+        double healthLoss;
+        double error;
+
+        Candidate(double[] times, EnemyType[] types) {
+            this.times = times;
+            this.types = types;
+        }
+
+        /**
+         * Retourne la part des dispositions qui survivent à la vague ; mesurée dans de vraies parties
+         * pour les vagues écrites par {@link #generate}.
+         */
+        public double getWinRate() {
+            return winRate;
+        }
+
+        /**
+         * Retourne la part moyenne de la vie perdue pendant la vague ; mesurée dans de vraies parties
+         * pour les vagues écrites par {@link #generate}.
+         */
+        public double getHealthLoss() {
+            return healthLoss;
+        }
+
+        /**
+         * Retourne le contenu du fichier de vague, au format "date|Type" d'une ligne par apparition.
+         */
+        public String toWaveFile() {
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i < times.length; i++) {
+                builder.append(String.format(Locale.ROOT, "%.2f|%s%n", times[i], types[i].getName()));
+            }
+            return builder.toString();
+        }
+    }
+
+    private final Level level;                    // Niveau des dispositions, pour les vraies parties
+    private final List<SimulationState> layouts;  // États de départ, une disposition de tours chacun
+    private final int populationSize;
+    private final int maxSpawns;
+    private final double duration;                // Durée sur laquelle les apparitions sont réparties
+    private final Random random;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param levelName      Le nom du niveau des dispositions (par exemple "level1").
+     * @param layouts        États de début de niveau avec les tours de référence déjà placées.
+     * @param populationSize Nombre de vagues par génération.
+     * @param maxSpawns      Nombre maximal d'apparitions d'une vague.
+     * @param duration       Durée sur laquelle les apparitions sont réparties (en secondes).
+     * @param seed           Graine du générateur aléatoire.
+     * @param parallelism    Nombre de threads d'évaluation.
+     * @throws GameException Si le niveau ne peut pas être lu.
+     */
+    public WaveGenerator(String levelName, List<SimulationState> layouts, int populationSize, int maxSpawns,
+                         double duration, long seed, int parallelism) {
+        if (layouts.isEmpty() || populationSize < 2 || maxSpawns < 1 || !(duration > 0) || parallelism < 1) {
+            throw new IllegalArgumentException("Invalid generator parameters");
+        }
+        this.level = new Level(levelName);
+        this.layouts = List.copyOf(layouts);
+        this.populationSize = populationSize;
+        this.maxSpawns = maxSpawns;
+        this.duration = duration;
+        this.random = new Random(seed);
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Fait évoluer une population de vagues vers une difficulté visée.
+     *
+     * @param targetWinRate    Part visée des dispositions qui survivent, entre 0 et 1.
+     * @param targetHealthLoss Part visée de la vie perdue, entre 0 et 1.
+     * @param generations      Nombre de générations.
+     * @return La meilleure vague trouvée.
+     */
+    public Candidate evolve(double targetWinRate, double targetHealthLoss, int generations) {
+        List<Candidate> population = new ArrayList<>(populationSize);
+        for (int i = 0; i < populationSize; i++) {
+            population.add(randomCandidate());
+        }
+        evaluate(population, targetWinRate, targetHealthLoss);
+
+        int elites = Math.max(1, (int) (populationSize * ELITE_FRACTION));
+        for (int generation = 0; generation < generations; generation++) {
+            population.sort(Comparator.comparingDouble(candidate -> candidate.error));
+            if (population.get(0).error == 0) break;
+
+            List<Candidate> next = new ArrayList<>(population.subList(0, elites));
+            List<Candidate> offspring = new ArrayList<>(populationSize - elites);
+            while (next.size() + offspring.size() < populationSize) {
+                offspring.add(mutate(crossover(select(population), select(population))));
+            }
+            evaluate(offspring, targetWinRate, targetHealthLoss);
+            next.addAll(offspring);
+            population = next;
+        }
+
+        population.sort(Comparator.comparingDouble(candidate -> candidate.error));
+        return population.get(0);
+    }
+
+    /**
+     * Génère une suite de vagues dont la difficulté suit une courbe, et les écrit dans un dossier.
+     *
+     * @param directory        Dossier des fichiers de vague (par exemple {@code resources/waves}).
+     * @param prefix           Début du nom des fichiers, suivi du numéro de la vague.
+     * @param targetWinRate    Taux de victoire visé pour chaque vague.
+     * @param targetHealthLoss Perte de vie visée pour chaque vague.
+     * @param generations      Nombre de générations par vague.
+     * @return Les vagues écrites, dans l'ordre, notées dans de vraies parties.
+     * @throws GameException Si un fichier ne peut pas être écrit.
+     */
+    public List<Candidate> generate(Path directory, String prefix, double[] targetWinRate,
+                                    double[] targetHealthLoss, int generations) {
+        List<Candidate> waves = new ArrayList<>();
+        try {
+            Files.createDirectories(directory);
+            for (int i = 0; i < targetWinRate.length; i++) {
+                Candidate wave = evolve(targetWinRate[i], targetHealthLoss[i], generations);
+                String waveFile = prefix + (i + 1);
+                rescore(wave, waveFile, targetWinRate[i], targetHealthLoss[i]);
+                Files.writeString(directory.resolve(waveFile + ".wve"), wave.toWaveFile());
+                waves.add(wave);
+            }
+        } catch (IOException e) {
+            throw new GameException("Failed to write wave file: " + e.getMessage());
+        }
+        return waves;
+    }
+
+    /**
+     * Arrête les threads d'évaluation.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // ---------------------------------------------------------------- Évaluation
+
+    /**
+     * Joue chaque vague contre chaque disposition de référence, en parallèle.
+     */
+    private void evaluate(List<Candidate> candidates, double targetWinRate, double targetHealthLoss) {
+        pool.submit(() -> candidates.parallelStream().forEach(candidate -> {
+            int wins = 0;
+            double healthLoss = 0;
+            for (SimulationState layout : layouts) {
+                SimulationState state = layout.withWaves(new double[][]{candidate.times}, new EnemyType[][]{candidate.types});
+                state.advance(MAX_WAVE_TIME);
+                if (!state.isLost()) {
+                    wins++;
+                }
+                healthLoss += 1.0 - (double) state.getPlayerHealth() / layout.getPlayerHealth();
+            }
+            score(candidate, wins, healthLoss, targetWinRate, targetHealthLoss);
+        })).join();
+    }
+
+    /**
+     * Joue une vague dans de vraies parties sans affichage, une par disposition : carte du niveau,
+     * mêmes tours placées dans le même ordre, puis cette seule vague jusqu'au bout avec
+     * {@link Game#runHeadless()}, par mises à jour fixes comme une partie jouée (les sauts de
+     * {@link game.FastForward} ne donnent pas exactement la même issue). La note de la vague
+     * est remplacée par celle de ces parties.
+     */
+    private void rescore(Candidate candidate, String waveFile, double targetWinRate, double targetHealthLoss) {
+        List<SpawnInfo> spawns = new ArrayList<>();
+        for (int i = 0; i < candidate.times.length; i++) {
+            String line = String.format(Locale.ROOT, "%.2f|%s", candidate.times[i], candidate.types[i].getName());
+            spawns.add(new SpawnInfo(candidate.times[i], candidate.types[i], i + 1, line));
+        }
+
+        int wins = 0;
+        double healthLoss = 0;
+        for (SimulationState layout : layouts) {
+            Wave wave = new Wave(level.getName(), waveFile, spawns);
+            Game game = new Game();
+            game.initHeadless(List.of(new Level(level.getName(), level.getMapName(), null, List.of(wave))));
+            // Argent illimité, comme pour les dispositions de référence
+            game.getPlayer().restore(layout.getPlayerHealth(), Integer.MAX_VALUE / 2);
+            for (int t = 0; t < layout.getTowerCount(); t++) {
+                game.placeTower(layout.getTowerName(layout.getTowerKindAt(t)),
+                        layout.getTowerColumn(t), layout.getTowerRow(t));
+            }
+            game.setFastForwardEnabled(false);
+            game.runHeadless();
+            if (game.getPlayer().getHealth() > 0) {
+                wins++;
+            }
+            healthLoss += 1.0 - (double) game.getPlayer().getHealth() / layout.getPlayerHealth();
+        }
+        score(candidate, wins, healthLoss, targetWinRate, targetHealthLoss);
+    }
+
+    private void score(Candidate candidate, int wins, double healthLoss, double targetWinRate,
+                       double targetHealthLoss) {
+        candidate.winRate = (double) wins / layouts.size();
+        candidate.healthLoss = healthLoss / layouts.size();
+        double winError = candidate.winRate - targetWinRate;
+        double lossError = candidate.healthLoss - targetHealthLoss;
+        candidate.error = winError * winError + lossError * lossError;
+    }
+
+    // ---------------------------------------------------------------- Opérateurs génétiques
+
+    private Candidate randomCandidate() {
+        int count = 1 + random.nextInt(maxSpawns);
+        double[] times = new double[count];
+        EnemyType[] types = new EnemyType[count];
+        for (int i = 0; i < count; i++) {
+            times[i] = FIRST_SPAWN + random.nextDouble() * duration;
+            types[i] = randomType();
+        }
+        return normalize(times, types);
+    }
+
+    private EnemyType randomType() {
+        EnemyType[] values = EnemyType.values();
+        return values[random.nextInt(values.length)];
+    }
+
+    /**
+     * Choisit la meilleure de quelques vagues tirées au hasard.
+     */
+    private Candidate select(List<Candidate> population) {
+        Candidate best = population.get(random.nextInt(population.size()));
+        for (int i = 1; i < TOURNAMENT_SIZE; i++) {
+            Candidate other = population.get(random.nextInt(population.size()));
+            if (other.error < best.error) {
+                best = other;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Croisement à une date : les apparitions du premier parent avant la date,
+     * celles du second après.
+     */
+    private Candidate crossover(Candidate first, Candidate second) {
+        double cut = FIRST_SPAWN + random.nextDouble() * duration;
+        List<Double> times = new ArrayList<>();
+        List<EnemyType> types = new ArrayList<>();
+        for (int i = 0; i < first.times.length && first.times[i] < cut; i++) {
+            times.add(first.times[i]);
+            types.add(first.types[i]);
+        }
+        for (int i = 0; i < second.times.length; i++) {
+            if (second.times[i] >= cut) {
+                times.add(second.times[i]);
+                types.add(second.types[i]);
+            }
+        }
+        if (times.isEmpty()) {
+            return new Candidate(first.times.clone(), first.types.clone());
+        }
+        double[] childTimes = new double[times.size()];
+        for (int i = 0; i < childTimes.length; i++) {
+            childTimes[i] = times.get(i);
+        }
+        return normalize(childTimes, types.toArray(new EnemyType[0]));
+    }
+
+    /**
+     * Applique une mutation au hasard : décalage d'une date, changement d'un type,
+     * ajout ou retrait d'une apparition.
+     */
+    private Candidate mutate(Candidate candidate) {
+        double[] times = candidate.times.clone();
+        EnemyType[] types = candidate.types.clone();
+        int i = random.nextInt(times.length);
+        switch (random.nextInt(4)) {
+            case 0 -> times[i] += random.nextGaussian() * TIME_JITTER;
+            case 1 -> types[i] = randomType();
+            case 2 -> {
+                if (times.length < maxSpawns) {
+                    times = Arrays.copyOf(times, times.length + 1);
+                    types = Arrays.copyOf(types, types.length + 1);
+                    times[times.length - 1] = FIRST_SPAWN + random.nextDouble() * duration;
+                    types[types.length - 1] = randomType();
+                }
+            }
+            default -> {
+                if (times.length > 1) {
+                    times[i] = times[times.length - 1];
+                    types[i] = types[types.length - 1];
+                    times = Arrays.copyOf(times, times.length - 1);
+                    types = Arrays.copyOf(types, types.length - 1);
+                }
+            }
+        }
+        return normalize(times, types);
+    }
+
+    /**
+     * Trie les apparitions par date, les ramène dans la durée de la vague et les espace
+     * d'au moins {@value #MIN_SPACING} s.
+     */
+    private Candidate normalize(double[] times, EnemyType[] types) {
+        Integer[] order = new Integer[times.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> times[i]));
+
+        double[] sortedTimes = new double[times.length];
+        EnemyType[] sortedTypes = new EnemyType[types.length];
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < order.length; i++) {
+            double time = Math.min(Math.max(times[order[i]], FIRST_SPAWN), FIRST_SPAWN + duration);
+            time = Math.max(time, previous + MIN_SPACING);
+            sortedTimes[i] = Math.round(time * 100) / 100.0; // Précision des fichiers de vague
+            sortedTypes[i] = types[order[i]];
+            previous = sortedTimes[i];
+        }
+        return new Candidate(sortedTimes, sortedTypes);
+    }
+}
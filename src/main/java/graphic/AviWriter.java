@@ -0,0 +1,191 @@
+package graphic;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Écriture d'une vidéo au format AVI (RIFF) contenant un seul flux vidéo,
+ * en images JPEG (MJPEG) ou en images non compressées (BGR 24 bits).
+ * Les images sont écrites au fur et à mesure ; l'index et les tailles de l'en-tête
+ * sont complétés à la fermeture.
+ */
+class AviWriter implements AutoCloseable {
+    private static final int AVIF_HASINDEX = 0x10;
+    private static final int AVIIF_KEYFRAME = 0x10;
+
+    // Position des champs de l'en-tête complétés à la fermeture
+    private static final int RIFF_SIZE_OFFSET = 4;
+    private static final int AVIH_TOTAL_FRAMES_OFFSET = 48;
+    private static final int STRH_LENGTH_OFFSET = 140;
+    private static final int MOVI_SIZE_OFFSET = 216;
+    private static final int MOVI_FOURCC_OFFSET = 220;
+    private static final int HEADER_SIZE = 224;
+
+    private final FileChannel channel;  // Fichier de sortie
+    private final String chunkId;       // Identifiant des blocs d'images
+    private long position;              // Position d'écriture dans le fichier
+    private int[] indexOffsets = new int[1024]; // Position des images, relative au bloc 'movi'
+    private int[] indexSizes = new int[1024];   // Taille des images
+    private int frameCount;             // Nombre d'images écrites
+
+    /**
+     * Crée le fichier vidéo et écrit son en-tête.
+     *
+     * @param file            Le fichier à créer.
+     * @param width           Largeur des images (en pixels).
+     * @param height          Hauteur des images (en pixels).
+     * @param framesPerSecond Nombre d'images par seconde.
+     * @param compressed      {@code true} pour des images JPEG, {@code false} pour des images brutes.
+     * @throws IOException Si le fichier ne peut pas être créé.
+     */
+    AviWriter(File file, int width, int height, int framesPerSecond, boolean compressed) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.chunkId = compressed ? "00dc" : "00db";
+
+        int frameSize = width * height * 3;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        putFourCC(header, "RIFF");
+        header.putInt(0);                         // Taille du fichier, complétée à la fermeture
+        putFourCC(header, "AVI ");
+
+        putFourCC(header, "LIST");
+        header.putInt(192);
+        putFourCC(header, "hdrl");
+        putFourCC(header, "avih");
+        header.putInt(56);
+        header.putInt(1_000_000 / framesPerSecond); // Microsecondes par image
+        header.putInt(frameSize * framesPerSecond);
+        header.putInt(0);
+        header.putInt(AVIF_HASINDEX);
+        header.putInt(0);                         // Nombre d'images, complété à la fermeture
+        header.putInt(0);
+        header.putInt(1);                         // Un seul flux
+        header.putInt(frameSize);
+        header.putInt(width);
+        header.putInt(height);
+        header.putInt(0).putInt(0).putInt(0).putInt(0);
+
+        putFourCC(header, "LIST");
+        header.putInt(116);
+        putFourCC(header, "strl");
+        putFourCC(header, "strh");
+        header.putInt(56);
+        putFourCC(header, "vids");
+        putFourCC(header, compressed ? "MJPG" : "DIB ");
+        header.putInt(0);
+        header.putShort((short) 0).putShort((short) 0);
+        header.putInt(0);
+        header.putInt(1);                         // Échelle
+        header.putInt(framesPerSecond);           // Débit : images par seconde
+        header.putInt(0);
+        header.putInt(0);                         // Durée en images, complétée à la fermeture
+        header.putInt(frameSize);
+        header.putInt(-1);
+        header.putInt(0);
+        header.putShort((short) 0).putShort((short) 0).putShort((short) width).putShort((short) height);
+
+        putFourCC(header, "strf");
+        header.putInt(40);
+        header.putInt(40);
+        header.putInt(width);
+        header.putInt(height);
+        header.putShort((short) 1);
+        header.putShort((short) 24);
+        if (compressed) {
+            putFourCC(header, "MJPG");
+        } else {
+            header.putInt(0);                     // BI_RGB
+        }
+        header.putInt(frameSize);
+        header.putInt(0).putInt(0).putInt(0).putInt(0);
+
+        putFourCC(header, "LIST");
+        header.putInt(0);                         // Taille des images, complétée à la fermeture
+        putFourCC(header, "movi");
+
+        header.flip();
+        write(header);
+    }
+
+    /**
+     * Ajoute une image à la vidéo.
+     *
+     * @param data L'image encodée (JPEG, ou lignes BGR de bas en haut).
+     * @throws IOException Si l'écriture échoue.
+     */
+    void writeFrame(byte[] data) throws IOException {
+        if (frameCount == indexOffsets.length) {
+            indexOffsets = Arrays.copyOf(indexOffsets, frameCount * 2);
+            indexSizes = Arrays.copyOf(indexSizes, frameCount * 2);
+        }
+        indexOffsets[frameCount] = (int) (position - MOVI_FOURCC_OFFSET);
+        indexSizes[frameCount] = data.length;
+        frameCount++;
+
+        ByteBuffer chunk = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        putFourCC(chunk, chunkId);
+        chunk.putInt(data.length);
+        chunk.flip();
+        write(chunk);
+        write(ByteBuffer.wrap(data));
+        if ((data.length & 1) != 0) {
+            write(ByteBuffer.wrap(new byte[1])); // Les blocs RIFF sont alignés sur 2 octets
+        }
+    }
+
+    /**
+     * Écrit l'index des images, complète l'en-tête et ferme le fichier.
+     *
+     * @throws IOException Si l'écriture échoue.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            long moviEnd = position;
+            ByteBuffer index = ByteBuffer.allocate(8 + 16 * frameCount).order(ByteOrder.LITTLE_ENDIAN);
+            putFourCC(index, "idx1");
+            index.putInt(16 * frameCount);
+            for (int i = 0; i < frameCount; i++) {
+                putFourCC(index, chunkId);
+                index.putInt(AVIIF_KEYFRAME);
+                index.putInt(indexOffsets[i]);
+                index.putInt(indexSizes[i]);
+            }
+            index.flip();
+            write(index);
+
+            patch(RIFF_SIZE_OFFSET, (int) (position - 8));
+            patch(AVIH_TOTAL_FRAMES_OFFSET, frameCount);
+            patch(STRH_LENGTH_OFFSET, frameCount);
+            patch(MOVI_SIZE_OFFSET, (int) (moviEnd - MOVI_FOURCC_OFFSET));
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer);
+        }
+    }
+
+    private void patch(long offset, int value) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(value).flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, offset + buffer.position());
+        }
+    }
+
+    private static void putFourCC(ByteBuffer buffer, String fourCC) {
+        for (int i = 0; i < 4; i++) {
+            buffer.put((byte) fourCC.charAt(i));
+        }
+    }
+}
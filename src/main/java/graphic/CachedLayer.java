@@ -0,0 +1,72 @@
+package graphic;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Zone rectangulaire de l'écran pré-rendue dans une image.
+ * Le contenu n'est redessiné que lorsque la zone a été invalidée ; sinon l'image
+ * déjà rendue est simplement recopiée sur le canevas.
+ */
+public class CachedLayer {
+    private final double centerX;    // Centre X de la zone
+    private final double centerY;    // Centre Y de la zone
+    private final double halfWidth;  // Largeur/2 de la zone
+    private final double halfHeight; // Hauteur/2 de la zone
+    private BufferedImage image;     // Rendu de la zone, créé au premier dessin
+    private boolean valid;           // Indique si le rendu est à jour
+
+    /**
+     * Constructeur pour initialiser une zone pré-rendue.
+     *
+     * @param centerX    Centre X de la zone.
+     * @param centerY    Centre Y de la zone.
+     * @param halfWidth  Largeur/2 de la zone.
+     * @param halfHeight Hauteur/2 de la zone.
+     */
+    public CachedLayer(double centerX, double centerY, double halfWidth, double halfHeight) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.halfWidth = halfWidth;
+        this.halfHeight = halfHeight;
+    }
+
+    /**
+     * Marque le rendu comme obsolète : il sera refait au prochain dessin,
+     * et la zone sera redessinée à l'écran.
+     */
+    public void invalidate() {
+        valid = false;
+        StdDraw.invalidate(centerX, centerY, halfWidth, halfHeight);
+    }
+
+    /**
+     * Vérifie si le rendu de la zone est à jour.
+     *
+     * @return {@code true} si le rendu est à jour, sinon {@code false}.
+     */
+    public boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Dessine la zone sur le canevas. Le contenu n'est produit par {@code painter}
+     * que si la zone a été invalidée depuis le dernier rendu.
+     *
+     * @param painter Le code de dessin du contenu de la zone.
+     */
+    public void draw(Runnable painter) {
+        if (!valid) {
+            if (image == null) {
+                image = StdDraw.createLayer(halfWidth, halfHeight);
+            }
+            StdDraw.beginLayer(image, centerX, centerY, halfWidth, halfHeight);
+            try {
+                painter.run();
+            } finally {
+                StdDraw.endLayer();
+            }
+            valid = true;
+        }
+        StdDraw.layer(image, centerX, centerY, halfWidth, halfHeight);
+    }
+}
@@ -0,0 +1,358 @@
+package graphic;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enregistrement des images affichées par {@link StdDraw}, sans ralentir la boucle de jeu.
+ * Chaque image est recopiée dans un tampon réutilisable, puis encodée et écrite
+ * par des threads d'arrière-plan, soit en une suite de fichiers PNG numérotés,
+ * soit en une vidéo AVI (MJPEG ou non compressée).
+ * Si tous les tampons sont en cours d'encodage, la capture attend qu'un tampon se libère :
+ * la partie ralentit le temps que l'encodage rattrape son retard, mais aucune image n'est perdue.
+ * Avec pertes ({@link #setDropWhenBusy}), la capture n'attend jamais : l'image n'est pas capturée
+ * et la suivante la remplace, répétée autant de fois que nécessaire pour que la vidéo garde sa durée.
+ */
+public class FrameRecorder implements AutoCloseable {
+
+    /**
+     * Formats d'enregistrement disponibles.
+     */
+    public enum Format {
+        PNG_SEQUENCE,     // Un fichier PNG par image, dans un dossier
+        AVI_MJPEG,        // Vidéo AVI en images JPEG
+        AVI_UNCOMPRESSED  // Vidéo AVI en images brutes (fichiers volumineux)
+    }
+
+    private static final int MAX_BUFFERS = 8; // Nombre maximal de tampons d'images
+
+    private final File output;                      // Dossier ou fichier de sortie
+    private final Format format;                    // Format d'enregistrement
+    private final double frameInterval;             // Temps entre deux images (en secondes)
+    private final int framesPerSecond;              // Nombre d'images par seconde de jeu
+    private final LinkedBlockingQueue<int[]> freeBuffers; // Tampons disponibles pour une capture
+    private final ExecutorService encoders;         // Threads d'encodage
+    private final ExecutorService writer;           // Thread d'écriture, dans l'ordre des images
+    // Dimensions fixées à la première capture, une fois la taille du canevas choisie
+    private int sourceWidth;                        // Largeur des images capturées (2x le canevas)
+    private int sourceHeight;                       // Hauteur des images capturées
+    private AviWriter avi;                          // Vidéo en cours, ou null pour des PNG
+    private ThreadLocal<BufferedImage> images;      // Image de travail de chaque thread d'encodage
+    private ThreadLocal<ImageWriter> imageWriters;  // Encodeur PNG ou JPEG de chaque thread d'encodage
+    private CompletableFuture<Void> lastWrite = CompletableFuture.completedFuture(null);
+    private int allocatedBuffers;                   // Nombre de tampons créés
+    private int frameIndex;                         // Numéro de la prochaine image
+    private boolean dropWhenBusy;                   // Ne pas attendre de tampon libre, quitte à perdre l'image
+    private int droppedFrames;                      // Images non capturées faute de tampon libre
+    private double pendingTime = Double.NaN;        // Temps de la dernière capture abandonnée, ou NaN
+    private volatile IOException failure;           // Première erreur d'écriture rencontrée
+    private boolean closed;
+
+    /**
+     * Démarre un enregistrement.
+     *
+     * @param output          Le dossier des images PNG, ou le fichier AVI à créer.
+     * @param format          Le format d'enregistrement.
+     * @param framesPerSecond Nombre d'images enregistrées par seconde de jeu.
+     * @throws IOException Si la sortie ne peut pas être créée.
+     */
+    public FrameRecorder(File output, Format format, int framesPerSecond) throws IOException {
+        if (framesPerSecond <= 0) {
+            throw new IllegalArgumentException("framesPerSecond must be positive");
+        }
+        this.output = output;
+        this.format = format;
+        this.frameInterval = 1.0 / framesPerSecond;
+        this.framesPerSecond = framesPerSecond;
+        this.freeBuffers = new LinkedBlockingQueue<>();
+
+        int threads = Math.max(1, Math.min(MAX_BUFFERS / 2, Runtime.getRuntime().availableProcessors() / 2));
+        this.encoders = Executors.newFixedThreadPool(threads, r -> daemon(r, "frame-encoder"));
+        this.writer = Executors.newSingleThreadExecutor(r -> daemon(r, "frame-writer"));
+
+        File directory = format == Format.PNG_SEQUENCE ? output : output.getAbsoluteFile().getParentFile();
+        if (directory != null) {
+            Files.createDirectories(directory.toPath());
+        }
+    }
+
+    /**
+     * Fixe la taille des images à partir du canevas et crée la vidéo, lors de la première capture.
+     */
+    private void start() {
+        sourceWidth = StdDraw.getFrameWidth();
+        sourceHeight = StdDraw.getFrameHeight();
+
+        int width = sourceWidth / 2;
+        int height = sourceHeight / 2;
+        images = ThreadLocal.withInitial(() -> new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        if (format != Format.AVI_UNCOMPRESSED) {
+            String formatName = format == Format.PNG_SEQUENCE ? "png" : "jpg";
+            imageWriters = ThreadLocal.withInitial(() -> ImageIO.getImageWritersByFormatName(formatName).next());
+        }
+
+        if (format != Format.PNG_SEQUENCE) {
+            try {
+                avi = new AviWriter(output, width, height, framesPerSecond, format == Format.AVI_MJPEG);
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot create " + output, e);
+            }
+        }
+    }
+
+    /**
+     * Démarre un enregistrement dont le format dépend de la sortie :
+     * une vidéo MJPEG pour un fichier {@code .avi}, une suite de PNG sinon.
+     *
+     * @param output          Le fichier {@code .avi} ou le dossier des images.
+     * @param framesPerSecond Nombre d'images enregistrées par seconde de jeu.
+     * @return L'enregistrement démarré.
+     * @throws IOException Si la sortie ne peut pas être créée.
+     */
+    public static FrameRecorder open(File output, int framesPerSecond) throws IOException {
+        Format format = output.getName().toLowerCase().endsWith(".avi") ? Format.AVI_MJPEG : Format.PNG_SEQUENCE;
+        return new FrameRecorder(output, format, framesPerSecond);
+    }
+
+    /**
+     * Choisit ce que fait une capture lorsque tous les tampons sont en cours d'encodage :
+     * attendre qu'un tampon se libère (par défaut), ou ne pas capturer l'image pour ne jamais
+     * ralentir la partie ; les images perdues sont comptées par {@link #getDroppedFrames()}.
+     *
+     * @param dropWhenBusy {@code true} pour perdre des images plutôt qu'attendre.
+     */
+    public synchronized void setDropWhenBusy(boolean dropWhenBusy) {
+        this.dropWhenBusy = dropWhenBusy;
+    }
+
+    /**
+     * Enregistre l'image actuellement affichée autant de fois que nécessaire pour
+     * que la vidéo atteigne le temps de jeu donné, à cadence fixe.
+     *
+     * @param time Temps de jeu écoulé depuis le début de l'enregistrement (en secondes).
+     */
+    public synchronized void capture(double time) {
+        if (closed) return;
+
+        int due = (int) Math.floor(time / frameInterval) + 1 - frameIndex;
+        if (due > 0) {
+            pendingTime = time;
+            captureFrame(due);
+        }
+    }
+
+    /**
+     * Enregistre l'image actuellement affichée.
+     *
+     * @param copies Nombre d'images identiques à écrire.
+     */
+    private void captureFrame(int copies) {
+        if (failure != null) {
+            throw new UncheckedIOException("frame recording failed", failure);
+        }
+
+        if (images == null) {
+            start();
+        }
+
+        int[] pixels = acquireBuffer();
+        if (pixels == null) {
+            droppedFrames++; // Les images dues seront écrites avec la prochaine capture
+            return;
+        }
+        pendingTime = Double.NaN;
+        StdDraw.copyFrame(pixels);
+
+        int firstIndex = frameIndex;
+        frameIndex += copies;
+
+        CompletableFuture<byte[]> encoded = CompletableFuture.supplyAsync(() -> {
+            try {
+                return encode(pixels);
+            } finally {
+                freeBuffers.offer(pixels);
+            }
+        }, encoders);
+
+        lastWrite = lastWrite.thenCombineAsync(encoded, (previous, data) -> {
+            write(data, firstIndex, copies);
+            return null;
+        }, writer);
+    }
+
+    /**
+     * Retourne un tampon libre, en créant un nouveau tant que la limite n'est pas atteinte,
+     * puis en attendant la fin d'un encodage sauf avec pertes.
+     *
+     * @return Le tampon, ou {@code null} si l'image est perdue.
+     */
+    private int[] acquireBuffer() {
+        int[] pixels = freeBuffers.poll();
+        if (pixels == null && allocatedBuffers < MAX_BUFFERS) {
+            allocatedBuffers++;
+            pixels = new int[sourceWidth * sourceHeight];
+        }
+        if (pixels == null && !dropWhenBusy) {
+            try {
+                pixels = freeBuffers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Retourne le nombre d'images affichées qui n'ont pas été capturées, faute de tampon libre
+     * (avec pertes, ou si l'attente d'un tampon a été interrompue).
+     */
+    public synchronized int getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Réduit l'image capturée à la taille du canevas et l'encode dans le format de sortie.
+     */
+    private byte[] encode(int[] pixels) {
+        BufferedImage image = images.get();
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            int top = 2 * y * sourceWidth;
+            int bottom = top + sourceWidth;
+            for (int x = 0; x < width; x++) {
+                row[x] = average(pixels[top + 2 * x], pixels[top + 2 * x + 1],
+                        pixels[bottom + 2 * x], pixels[bottom + 2 * x + 1]);
+            }
+            image.getRaster().setDataElements(0, y, width, 1, row);
+        }
+
+        if (format == Format.AVI_UNCOMPRESSED) {
+            return toBottomUpBgr(image);
+        }
+        // Encodage en mémoire, sans le fichier temporaire que ImageIO.write peut créer
+        ImageWriter imageWriter = imageWriters.get();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(width * height / 4);
+        try (ImageOutputStream stream = new MemoryCacheImageOutputStream(bytes)) {
+            imageWriter.setOutput(stream);
+            imageWriter.write(image);
+        } catch (IOException e) {
+            failure = e;
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Moyenne de quatre pixels ARGB, sur fond blanc.
+     */
+    private static int average(int p0, int p1, int p2, int p3) {
+        int r = opaque(p0, 16) + opaque(p1, 16) + opaque(p2, 16) + opaque(p3, 16);
+        int g = opaque(p0, 8) + opaque(p1, 8) + opaque(p2, 8) + opaque(p3, 8);
+        int b = opaque(p0, 0) + opaque(p1, 0) + opaque(p2, 0) + opaque(p3, 0);
+        return ((r >> 2) << 16) | ((g >> 2) << 8) | (b >> 2);
+    }
+
+    /**
+     * Composante d'un pixel ARGB une fois posé sur fond blanc.
+     */
+    private static int opaque(int pixel, int shift) {
+        int alpha = pixel >>> 24;
+        return (((pixel >> shift) & 0xFF) * alpha + 255 * (255 - alpha)) / 255;
+    }
+
+    /**
+     * Convertit une image en lignes BGR 24 bits de bas en haut, comme l'attend un AVI non compressé.
+     */
+    private static byte[] toBottomUpBgr(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int stride = (width * 3 + 3) & ~3;
+        byte[] data = new byte[stride * height];
+        int[] row = new int[width];
+        for (int y = 0; y < height; y++) {
+            image.getRaster().getDataElements(0, y, width, 1, row);
+            int offset = (height - 1 - y) * stride;
+            for (int x = 0; x < width; x++) {
+                data[offset++] = (byte) row[x];
+                data[offset++] = (byte) (row[x] >> 8);
+                data[offset++] = (byte) (row[x] >> 16);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Écrit une image encodée, sur le thread d'écriture.
+     */
+    private void write(byte[] data, int firstIndex, int copies) {
+        if (data == null || failure != null) return;
+        try {
+            for (int i = 0; i < copies; i++) {
+                if (avi != null) {
+                    avi.writeFrame(data);
+                } else {
+                    File file = new File(output, String.format("frame_%06d.png", firstIndex + i));
+                    Files.write(file.toPath(), data);
+                }
+            }
+        } catch (IOException e) {
+            failure = e;
+        }
+    }
+
+    /**
+     * Attend la fin de l'écriture des images capturées et termine l'enregistrement.
+     *
+     * @throws IOException Si une image n'a pas pu être écrite.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            lastWrite.join();
+            // Tous les tampons sont libres : les images de la dernière capture abandonnée sont écrites
+            if (!Double.isNaN(pendingTime) && failure == null) {
+                captureFrame((int) Math.floor(pendingTime / frameInterval) + 1 - frameIndex);
+                lastWrite.join();
+            }
+        } finally {
+            encoders.shutdown();
+            writer.shutdown();
+            try {
+                encoders.awaitTermination(1, TimeUnit.MINUTES);
+                writer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (avi != null) {
+                avi.close();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+}
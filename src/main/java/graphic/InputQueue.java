@@ -0,0 +1,166 @@
+package graphic;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * File circulaire sans verrou des événements souris et clavier, entre un seul producteur
+ * (le thread d'affichage AWT, qui reçoit les événements) et un seul consommateur
+ * (la boucle de jeu, qui les traite une fois par itération).
+ * Les événements sont rangés dans des tableaux de types primitifs préalloués :
+ * ni le producteur ni le consommateur n'alloue de mémoire ou ne prend de verrou.
+ */
+public final class InputQueue {
+
+    // Types d'événements
+    public static final int MOUSE_PRESSED = 1;
+    public static final int MOUSE_RELEASED = 2;
+    public static final int MOUSE_MOVED = 3;   // Déplacement, bouton enfoncé ou non
+    public static final int MOUSE_WHEEL = 4;
+    public static final int KEY_TYPED = 5;
+
+    private final int mask;          // Capacité - 1 (la capacité est une puissance de 2)
+    private final int[] types;       // Type de chaque événement
+    private final long[] times;      // Date de chaque événement (System.nanoTime())
+    private final double[] xs;       // Position de la souris, en coordonnées du canevas
+    private final double[] ys;
+    private final double[] values;   // Bouton, rotation de la molette ou caractère tapé
+
+    // Compteurs d'événements écrits et lus ; la position dans les tableaux est compteur & mask.
+    // L'écriture avec setRelease et la lecture avec getAcquire rendent visible le contenu
+    // d'une case avant le compteur qui la publie.
+    private final AtomicLong tail = new AtomicLong(); // Écrit par le producteur uniquement
+    private final AtomicLong head = new AtomicLong(); // Écrit par le consommateur uniquement
+    private long cachedHead;                          // Dernière valeur de head lue par le producteur
+    private long dropped;                             // Événements perdus, file pleine (producteur)
+
+    // Événement courant, lu par le consommateur avec next()
+    private int type;
+    private long time;
+    private double x;
+    private double y;
+    private double value;
+
+    /**
+     * Crée une file vide.
+     *
+     * @param capacity Nombre maximal d'événements en attente, arrondi à la puissance de 2 supérieure.
+     */
+    public InputQueue(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        size = Math.max(size, 2);
+        this.mask = size - 1;
+        this.types = new int[size];
+        this.times = new long[size];
+        this.xs = new double[size];
+        this.ys = new double[size];
+        this.values = new double[size];
+    }
+
+    /**
+     * Ajoute un événement (producteur uniquement). Si la file est pleine, l'événement est perdu
+     * plutôt que de bloquer le thread d'affichage.
+     *
+     * @return {@code true} si l'événement a été ajouté.
+     */
+    boolean offer(int type, double x, double y, double value) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.getAcquire();
+            if (t - cachedHead > mask) {
+                dropped++;
+                return false;
+            }
+        }
+        int index = (int) t & mask;
+        types[index] = type;
+        times[index] = System.nanoTime();
+        xs[index] = x;
+        ys[index] = y;
+        values[index] = value;
+        tail.setRelease(t + 1);
+        return true;
+    }
+
+    /**
+     * Passe à l'événement suivant (consommateur uniquement), lisible ensuite avec
+     * {@link #type()}, {@link #x()}, {@link #y()}...
+     *
+     * @return {@code true} si un événement a été lu, {@code false} si la file est vide.
+     */
+    public boolean next() {
+        long h = head.get();
+        if (h == tail.getAcquire()) {
+            return false;
+        }
+        int index = (int) h & mask;
+        type = types[index];
+        time = times[index];
+        x = xs[index];
+        y = ys[index];
+        value = values[index];
+        head.setRelease(h + 1);
+        return true;
+    }
+
+    /**
+     * Retourne le type de l'événement courant ({@link #MOUSE_PRESSED}, {@link #MOUSE_RELEASED}...).
+     */
+    public int type() {
+        return type;
+    }
+
+    /**
+     * Retourne la date de l'événement courant, en nanosecondes ({@link System#nanoTime()}).
+     */
+    public long time() {
+        return time;
+    }
+
+    /**
+     * Retourne la position X de la souris lors de l'événement courant.
+     */
+    public double x() {
+        return x;
+    }
+
+    /**
+     * Retourne la position Y de la souris lors de l'événement courant.
+     */
+    public double y() {
+        return y;
+    }
+
+    /**
+     * Retourne le bouton d'un événement {@link #MOUSE_PRESSED} ou {@link #MOUSE_RELEASED},
+     * comme défini par {@link java.awt.event.MouseEvent}.
+     */
+    public int button() {
+        return (int) value;
+    }
+
+    /**
+     * Retourne la rotation de la molette d'un événement {@link #MOUSE_WHEEL}, en crans
+     * (négative vers le haut).
+     */
+    public double wheelRotation() {
+        return value;
+    }
+
+    /**
+     * Retourne le caractère d'un événement {@link #KEY_TYPED}.
+     */
+    public char keyChar() {
+        return (char) value;
+    }
+
+    /**
+     * Retourne le nombre d'événements perdus parce que la file était pleine.
+     * Valeur approximative si elle est lue depuis un autre thread que le producteur.
+     */
+    public long droppedCount() {
+        return dropped;
+    }
+}
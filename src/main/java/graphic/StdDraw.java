@@ -37,6 +37,7 @@ import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.NoSuchElementException;
 import java.util.TreeSet;
@@ -434,7 +435,7 @@ import java.util.TreeSet;
  * @author Robert Sedgewick
  * @author Kevin Wayne
  */
-public final class StdDraw implements ActionListener, MouseListener, MouseMotionListener, KeyListener
+public final class StdDraw implements ActionListener, MouseListener, MouseMotionListener, MouseWheelListener, KeyListener
 {
 
 	/**
@@ -570,6 +571,19 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 	private static BufferedImage offscreenImage, onscreenImage;
 	private static Graphics2D offscreen, onscreen;
 
+	// canvas graphics saved while a cached layer is being drawn
+	private static Graphics2D canvas;
+
+	// clip in effect before the last call to beginClip()
+	private static Shape savedClip;
+	private static boolean clipped;
+
+	// regions of the canvas (in pixels) changed since the last frame
+	private static final int MAX_DIRTY_REGIONS = 64;
+	private static final int DIRTY_MARGIN = 2; // antialiasing spills over shapes
+	private static final ArrayList<Rectangle> dirtyRegions = new ArrayList<Rectangle>();
+	private static boolean allDirty = true;
+
 	// singleton for callbacks: avoids generation of extra .class files
 	private static StdDraw std = new StdDraw();
 
@@ -578,9 +592,13 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 
 	// mouse state
 	private static boolean isMousePressed = false;
+	private static int mouseButton = MouseEvent.NOBUTTON;
 	private static double mouseX = 0;
 	private static double mouseY = 0;
 
+	// events for the game loop, in the order they were received
+	private static final InputQueue inputQueue = new InputQueue(4096);
+
 	// queue of typed key characters
 	private static LinkedList<Character> keysTyped;
 
@@ -638,7 +656,7 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 		if (frame != null)
 			//frame.setVisible(false);
 			frame.dispose();
-		frame = new JFrame();
+		frame = null;
 		offscreenImage = new BufferedImage(2 * width, 2 * height, BufferedImage.TYPE_INT_ARGB);
 		onscreenImage = new BufferedImage(2 * width, 2 * height, BufferedImage.TYPE_INT_ARGB);
 		offscreen = offscreenImage.createGraphics();
@@ -663,12 +681,18 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 		hints.put(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
 		offscreen.addRenderingHints(hints);
 
+		// without a display, drawing happens offscreen only
+		if (GraphicsEnvironment.isHeadless())
+			return;
+
 		// frame stuff
+		frame = new JFrame();
 		RetinaImageIcon icon = new RetinaImageIcon(onscreenImage);
 		JLabel draw = new JLabel(icon);
 
 		draw.addMouseListener(std);
 		draw.addMouseMotionListener(std);
+		draw.addMouseWheelListener(std);
 
 		frame.setContentPane(draw);
 		frame.addKeyListener(std); // JLabel cannot get keyboard focus
@@ -1826,7 +1850,8 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 	public static void show()
 	{
 		onscreen.drawImage(offscreenImage, 0, 0, null);
-		frame.repaint();
+		if (frame != null)
+			frame.repaint();
 	}
 
 	// draw onscreen if defer is false
@@ -1857,6 +1882,282 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 	}
 
 
+	/***************************************************************************
+	 * Dirty regions.
+	 ***************************************************************************/
+
+	/**
+	 * Marks the rectangular region of the specified size, centered at
+	 * (<em>x</em>, <em>y</em>), as changed. Only the regions marked since the last
+	 * call to {@link #endFrame()} are erased, redrawn and copied on screen by the
+	 * next frame.
+	 *
+	 * @param x          the <em>x</em>-coordinate of the center of the region
+	 * @param y          the <em>y</em>-coordinate of the center of the region
+	 * @param halfWidth  one half the width of the region
+	 * @param halfHeight one half the height of the region
+	 * @throws IllegalArgumentException if any argument is either NaN or infinite
+	 */
+	public static void invalidate(double x, double y, double halfWidth, double halfHeight)
+	{
+		validate(x, "x");
+		validate(y, "y");
+		validate(halfWidth, "halfWidth");
+		validate(halfHeight, "halfHeight");
+		if (allDirty)
+			return;
+
+		int xs = (int) Math.floor(scaleX(x - Math.abs(halfWidth))) - DIRTY_MARGIN;
+		int ys = (int) Math.floor(scaleY(y + Math.abs(halfHeight))) - DIRTY_MARGIN;
+		int ws = (int) Math.ceil(factorX(2 * Math.abs(halfWidth))) + 2 * DIRTY_MARGIN + 1;
+		int hs = (int) Math.ceil(factorY(2 * Math.abs(halfHeight))) + 2 * DIRTY_MARGIN + 1;
+		Rectangle region = new Rectangle(xs, ys, ws, hs).intersection(new Rectangle(0, 0, width, height));
+		if (region.isEmpty())
+			return;
+
+		// too many small regions: a single bounding region is cheaper to clip against
+		if (dirtyRegions.size() >= MAX_DIRTY_REGIONS)
+		{
+			Rectangle bounds = region;
+			for (Rectangle r : dirtyRegions)
+				bounds = bounds.union(r);
+			dirtyRegions.clear();
+			region = bounds;
+		}
+		dirtyRegions.add(region);
+	}
+
+	/**
+	 * Marks the whole canvas as changed.
+	 */
+	public static void invalidate()
+	{
+		allDirty = true;
+		dirtyRegions.clear();
+	}
+
+	/**
+	 * Returns true if some region of the canvas was marked as changed since the
+	 * last frame.
+	 *
+	 * @return {@code true} if the next frame has something to redraw;
+	 *         {@code false} if the frame can be skipped
+	 */
+	public static boolean isDirty()
+	{
+		return allDirty || !dirtyRegions.isEmpty();
+	}
+
+	/**
+	 * Starts a frame: erases the changed regions and restricts all subsequent
+	 * drawing to them. The whole scene can then be drawn as usual; whatever falls
+	 * outside the changed regions is left untouched. Must be followed by a call
+	 * to {@link #endFrame()}.
+	 */
+	public static void beginFrame()
+	{
+		offscreen.setColor(DEFAULT_CLEAR_COLOR);
+		if (allDirty)
+		{
+			offscreen.setClip(null);
+			offscreen.fillRect(0, 0, width, height);
+		}
+		else
+		{
+			Path2D.Double clip = new Path2D.Double();
+			for (Rectangle r : dirtyRegions)
+			{
+				clip.append(r, false);
+				offscreen.fillRect(r.x, r.y, r.width, r.height);
+			}
+			offscreen.setClip(clip);
+		}
+		offscreen.setColor(penColor);
+	}
+
+	/**
+	 * Ends a frame: copies the changed regions on screen and forgets them.
+	 */
+	public static void endFrame()
+	{
+		offscreen.setClip(null);
+		if (allDirty)
+		{
+			show();
+		}
+		else
+		{
+			for (Rectangle r : dirtyRegions)
+			{
+				int x1 = 2 * r.x, y1 = 2 * r.y, x2 = 2 * (r.x + r.width), y2 = 2 * (r.y + r.height);
+				onscreen.drawImage(offscreenImage, x1, y1, x2, y2, x1, y1, x2, y2, null);
+				if (frame != null)
+					frame.getContentPane().repaint(r.x, r.y, r.width, r.height);
+			}
+		}
+		allDirty = false;
+		dirtyRegions.clear();
+	}
+
+
+	/**
+	 * Restricts all subsequent drawing to the rectangular region of the specified
+	 * size, centered at (<em>x</em>, <em>y</em>), within the current clip (for
+	 * example the changed regions of the frame). Must be followed by a call to
+	 * {@link #endClip()}.
+	 *
+	 * @param x          the <em>x</em>-coordinate of the center of the region
+	 * @param y          the <em>y</em>-coordinate of the center of the region
+	 * @param halfWidth  one half the width of the region
+	 * @param halfHeight one half the height of the region
+	 * @throws IllegalArgumentException if any argument is either NaN or infinite
+	 * @throws IllegalStateException    if a clip is already in effect
+	 */
+	public static void beginClip(double x, double y, double halfWidth, double halfHeight)
+	{
+		validate(x, "x");
+		validate(y, "y");
+		validate(halfWidth, "halfWidth");
+		validate(halfHeight, "halfHeight");
+		if (clipped)
+			throw new IllegalStateException("a clip is already in effect");
+
+		savedClip = offscreen.getClip();
+		clipped = true;
+		double ws = factorX(2 * Math.abs(halfWidth));
+		double hs = factorY(2 * Math.abs(halfHeight));
+		offscreen.clip(new Rectangle2D.Double(scaleX(x) - ws / 2, scaleY(y) - hs / 2, ws, hs));
+	}
+
+	/**
+	 * Restores the clip in effect before the last call to {@link #beginClip}.
+	 *
+	 * @throws IllegalStateException if no clip is in effect
+	 */
+	public static void endClip()
+	{
+		if (!clipped)
+			throw new IllegalStateException("no clip is in effect");
+		offscreen.setClip(savedClip);
+		savedClip = null;
+		clipped = false;
+	}
+
+
+	/***************************************************************************
+	 * Cached layers.
+	 ***************************************************************************/
+
+	/**
+	 * Creates an image large enough to hold a rectangular region of the canvas of
+	 * the specified size. The image can then be painted once with
+	 * {@link #beginLayer} / {@link #endLayer()} and copied onto the canvas as many
+	 * times as needed with {@link #layer}.
+	 *
+	 * @param halfWidth  one half the width of the region
+	 * @param halfHeight one half the height of the region
+	 * @return an empty, transparent image for the region
+	 * @throws IllegalArgumentException if either {@code halfWidth} or
+	 *                                  {@code halfHeight} is negative
+	 */
+	public static BufferedImage createLayer(double halfWidth, double halfHeight)
+	{
+		validate(halfWidth, "halfWidth");
+		validate(halfHeight, "halfHeight");
+		validateNonnegative(halfWidth, "half width");
+		validateNonnegative(halfHeight, "half height");
+
+		int ws = (int) Math.ceil(factorX(2 * halfWidth)) + 1;
+		int hs = (int) Math.ceil(factorY(2 * halfHeight)) + 1;
+		return new BufferedImage(2 * ws, 2 * hs, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	/**
+	 * Redirects all subsequent drawing methods to the specified layer, which
+	 * covers the region of the canvas centered at (<em>x</em>, <em>y</em>). The
+	 * layer is erased first. Drawing coordinates are unchanged: shapes are drawn
+	 * at the same place they would appear on the canvas. Must be followed by a
+	 * call to {@link #endLayer()}.
+	 *
+	 * @param layer      an image created by {@link #createLayer}
+	 * @param x          the <em>x</em>-coordinate of the center of the region
+	 * @param y          the <em>y</em>-coordinate of the center of the region
+	 * @param halfWidth  one half the width of the region
+	 * @param halfHeight one half the height of the region
+	 * @throws IllegalArgumentException if {@code layer} is {@code null}
+	 * @throws IllegalStateException    if a layer is already being drawn
+	 */
+	public static void beginLayer(BufferedImage layer, double x, double y, double halfWidth, double halfHeight)
+	{
+		validateNotNull(layer, "layer");
+		validate(x, "x");
+		validate(y, "y");
+		if (canvas != null)
+			throw new IllegalStateException("a layer is already being drawn");
+
+		Graphics2D graphics = layer.createGraphics();
+		graphics.setComposite(AlphaComposite.Clear);
+		graphics.fillRect(0, 0, layer.getWidth(), layer.getHeight());
+		graphics.setComposite(AlphaComposite.SrcOver);
+		graphics.scale(2.0, 2.0);
+		graphics.translate(-layerX(x, halfWidth), -layerY(y, halfHeight));
+		graphics.setRenderingHints(offscreen.getRenderingHints());
+		graphics.setStroke(offscreen.getStroke());
+		graphics.setColor(penColor);
+
+		canvas = offscreen;
+		offscreen = graphics;
+	}
+
+	/**
+	 * Ends the drawing of the current layer: subsequent drawing methods go back to
+	 * the canvas.
+	 *
+	 * @throws IllegalStateException if no layer is being drawn
+	 */
+	public static void endLayer()
+	{
+		if (canvas == null)
+			throw new IllegalStateException("no layer is being drawn");
+		offscreen.dispose();
+		offscreen = canvas;
+		canvas = null;
+	}
+
+	/**
+	 * Copies the specified layer onto the canvas, over the region centered at
+	 * (<em>x</em>, <em>y</em>) it was drawn for.
+	 *
+	 * @param layer      an image created by {@link #createLayer}
+	 * @param x          the <em>x</em>-coordinate of the center of the region
+	 * @param y          the <em>y</em>-coordinate of the center of the region
+	 * @param halfWidth  one half the width of the region
+	 * @param halfHeight one half the height of the region
+	 * @throws IllegalArgumentException if {@code layer} is {@code null}
+	 */
+	public static void layer(BufferedImage layer, double x, double y, double halfWidth, double halfHeight)
+	{
+		validateNotNull(layer, "layer");
+		validate(x, "x");
+		validate(y, "y");
+
+		offscreen.drawImage(layer, layerX(x, halfWidth), layerY(y, halfHeight),
+				layer.getWidth() / 2, layer.getHeight() / 2, null);
+		draw();
+	}
+
+	// top-left pixel of a layer, aligned on the canvas grid to keep the copy sharp
+	private static int layerX(double x, double halfWidth)
+	{
+		return (int) Math.floor(scaleX(x - halfWidth));
+	}
+
+	private static int layerY(double y, double halfHeight)
+	{
+		return (int) Math.floor(scaleY(y + halfHeight));
+	}
+
+
 	/***************************************************************************
 	 * Save drawing to a file.
 	 ***************************************************************************/
@@ -1918,6 +2219,47 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 	}
 
 
+	/**
+	 * Returns the width of the pixel buffers filled by {@link #copyFrame(int[])}.
+	 * The drawing is kept at twice the canvas resolution.
+	 *
+	 * @return the width of a frame, in pixels
+	 */
+	public static int getFrameWidth()
+	{
+		return onscreenImage.getWidth();
+	}
+
+	/**
+	 * Returns the height of the pixel buffers filled by {@link #copyFrame(int[])}.
+	 *
+	 * @return the height of a frame, in pixels
+	 */
+	public static int getFrameHeight()
+	{
+		return onscreenImage.getHeight();
+	}
+
+	/**
+	 * Copies the drawing currently on screen into the specified buffer, as packed
+	 * ARGB pixels, row by row. Unlike {@link #save(String)}, this does no encoding
+	 * or file I/O, so it is cheap enough to be called for every frame.
+	 *
+	 * @param pixels a buffer of {@code getFrameWidth() * getFrameHeight()} pixels
+	 * @throws IllegalArgumentException if {@code pixels} is {@code null} or too
+	 *                                  small
+	 */
+	public static void copyFrame(int[] pixels)
+	{
+		validateNotNull(pixels, "pixels");
+		int w = onscreenImage.getWidth();
+		int h = onscreenImage.getHeight();
+		if (pixels.length < w * h)
+			throw new IllegalArgumentException("pixel buffer too small");
+		onscreenImage.getRaster().getDataElements(0, 0, w, h, pixels);
+	}
+
+
 	/**
 	 * This method cannot be called directly.
 	 */
@@ -1966,6 +2308,36 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 		}
 	}
 
+	/**
+	 * Returns the mouse button being pressed, as defined by {@link MouseEvent}.
+	 *
+	 * @return {@link MouseEvent#BUTTON1}, {@link MouseEvent#BUTTON2} or
+	 *         {@link MouseEvent#BUTTON3} for the last button pressed; or
+	 *         {@link MouseEvent#NOBUTTON} if the mouse is not being pressed
+	 */
+	public static int mouseButton()
+	{
+		synchronized (mouseLock)
+		{
+			return isMousePressed ? mouseButton : MouseEvent.NOBUTTON;
+		}
+	}
+
+	/**
+	 * Returns the queue of mouse and keyboard events received since the program
+	 * started. Unlike {@link #isMousePressed()}, {@link #mouseX()} and
+	 * {@link #mouseY()}, which only give the current state, the queue keeps every
+	 * press, release, move, wheel rotation and typed key, so that a click shorter
+	 * than one iteration of the game loop is never lost. The queue must be read by
+	 * a single thread.
+	 *
+	 * @return the input event queue
+	 */
+	public static InputQueue inputEvents()
+	{
+		return inputQueue;
+	}
+
 	/**
 	 * Returns the <em>x</em>-coordinate of the mouse.
 	 *
@@ -2031,8 +2403,10 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 		{
 			mouseX = StdDraw.userX(e.getX());
 			mouseY = StdDraw.userY(e.getY());
+			mouseButton = e.getButton();
 			isMousePressed = true;
 		}
+		inputQueue.offer(InputQueue.MOUSE_PRESSED, userX(e.getX()), userY(e.getY()), e.getButton());
 	}
 
 	/**
@@ -2045,6 +2419,7 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 		{
 			isMousePressed = false;
 		}
+		inputQueue.offer(InputQueue.MOUSE_RELEASED, userX(e.getX()), userY(e.getY()), e.getButton());
 	}
 
 	/**
@@ -2058,6 +2433,7 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 			mouseX = StdDraw.userX(e.getX());
 			mouseY = StdDraw.userY(e.getY());
 		}
+		inputQueue.offer(InputQueue.MOUSE_MOVED, userX(e.getX()), userY(e.getY()), 0);
 	}
 
 	/**
@@ -2071,6 +2447,21 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 			mouseX = StdDraw.userX(e.getX());
 			mouseY = StdDraw.userY(e.getY());
 		}
+		inputQueue.offer(InputQueue.MOUSE_MOVED, userX(e.getX()), userY(e.getY()), 0);
+	}
+
+	/**
+	 * This method cannot be called directly.
+	 */
+	@Override
+	public void mouseWheelMoved(MouseWheelEvent e)
+	{
+		synchronized (mouseLock)
+		{
+			mouseX = StdDraw.userX(e.getX());
+			mouseY = StdDraw.userY(e.getY());
+		}
+		inputQueue.offer(InputQueue.MOUSE_WHEEL, userX(e.getX()), userY(e.getY()), e.getPreciseWheelRotation());
 	}
 
 
@@ -2148,6 +2539,7 @@ public final class StdDraw implements ActionListener, MouseListener, MouseMotion
 		{
 			keysTyped.addFirst(e.getKeyChar());
 		}
+		inputQueue.offer(InputQueue.KEY_TYPED, 0, 0, e.getKeyChar());
 	}
 
 	/**